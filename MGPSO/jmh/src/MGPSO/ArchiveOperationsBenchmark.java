@@ -0,0 +1,96 @@
+package MGPSO;
+
+import Benchmarks.Problem;
+import Benchmarks.ZDT1;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class benchmarks Archive.updateBatch, Archive.selection and Archive.calculateCrowdingDistance for every archive,
+ * at sizes 50 to 50,000, like (1) of MicroBenchmark.
+ *
+ * Each archive starts full of particles on the ZDT1 front, and update cycles through one-particle batches of candidates
+ * on the same front, so every update inserts a particle and removes one while the archive stays at its size. The
+ * batches are made in setup and the archive copies what it keeps, so the measured method allocates nothing itself.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+public class ArchiveOperationsBenchmark {
+
+    @Param({"Archive", "BiObjectiveArchive", "HypervolumeArchive", "CompactArchive", "NDTreeArchive",
+            "ConcurrentArchive"})
+    public String archive;                  // The class of the archive
+
+    @Param({"50", "500", "5000", "50000"})
+    public int size;                        // The size of the archive
+
+    private Problem      p;                 // The problem, ZDT1
+    private Archive      a;                 // The archive, full
+    private Particle [][] batches;          // The one-particle batches offered to the archive, one after another
+    private int          next;              // The index of the next candidate
+    private RandomStream r;                 // The stream of the selections
+    private double []    guide;             // The selected archive guide
+
+    /**
+     * Fills the archive and draws the candidates.
+     */
+    @Setup
+    public void setup () {
+
+        p = new ZDT1();
+        Particle [] candidates = MicroBenchmark.front(p, MicroBenchmark.CANDIDATES, new RandomStream(size));
+        batches = new Particle [candidates.length][];
+        for (int i = 0; i < candidates.length; i++)
+            batches[i] = new Particle [] {candidates[i]};
+
+        a = MicroBenchmark.archive(archive, p, size);
+        a.updateBatch(MicroBenchmark.front(p, size, new RandomStream(-size)));
+        next = 0;
+
+        r = new RandomStream(1);
+        guide = new double [p.n];
+
+    } // setup
+
+    /**
+     * @return int, the size of the archive after offering it the next candidate.
+     */
+    @Benchmark
+    public int update () {
+        a.updateBatch(batches[next++ & (MicroBenchmark.CANDIDATES - 1)]);
+        return a.size();
+    } // update
+
+    /**
+     * @return double [], the archive guide selected by a tournament.
+     */
+    @Benchmark
+    public double [] selection () {
+        a.selection(p.T, r, guide);
+        return guide;
+    } // selection
+
+    /**
+     * @return double, the crowding distance of the first particle after calculating them all.
+     */
+    @Benchmark
+    public double calculateCrowdingDistance () {
+        a.calculateCrowdingDistance();
+        return a.getCrowdingDistance(0);
+    } // calculateCrowdingDistance
+
+} // ArchiveOperationsBenchmark
@@ -0,0 +1,54 @@
+package MGPSO;
+
+import Benchmarks.Problem;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class benchmarks one MGPSO.iterate() for each ZDT problem, with a bi-objective archive of 50 particles, like (2)
+ * of MicroBenchmark. The run keeps iterating from one invocation to the next, so most iterations are measured with a
+ * full archive.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+public class IterationBenchmark {
+
+    @Param({"ZDT1", "ZDT2", "ZDT3", "ZDT4", "ZDT6"})
+    public String problem;                  // The name of the problem, see Main.problem
+
+    private MGPSO mgpso;                    // The run
+
+    /**
+     * Starts the run.
+     */
+    @Setup
+    public void setup () {
+        RandomStream r = new RandomStream(1);
+        Problem p = Main.problem(problem);
+        mgpso = new MGPSO(r, p, new BiObjectiveArchive(r.split(), p, 50));
+    } // setup
+
+    /**
+     * @return int, the iteration the run is at after one more.
+     */
+    @Benchmark
+    public int iterate () {
+        mgpso.iterate();
+        return mgpso.getT();
+    } // iterate
+
+} // IterationBenchmark
@@ -0,0 +1,79 @@
+package MGPSO;
+
+import Benchmarks.Problem;
+import Benchmarks.ZDT1;
+import Benchmarks.ZDT2;
+import Benchmarks.ZDT3;
+import Benchmarks.ZDT4;
+import Benchmarks.ZDT6;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class benchmarks Problem.objectives for one decision vector of each ZDT problem, at 10 to 10,000 dimensions,
+ * with and without the vectorized sums (see Problem.setVectorized), like (3) of MicroBenchmark.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+public class ObjectivesBenchmark {
+
+    @Param({"ZDT1", "ZDT2", "ZDT3", "ZDT4", "ZDT6"})
+    public String problem;                  // The name of the problem
+
+    @Param({"10", "100", "1000", "10000"})
+    public int n;                           // The number of dimensions of the problem
+
+    @Param({"false", "true"})
+    public boolean vectorized;              // Whether the problem sums with independent accumulators
+
+    private Problem   p;                    // The problem
+    private double [] x;                    // The decision vector
+    private double [] out;                  // The fitnesses of the decision vector
+
+    /**
+     * Draws a decision vector within the problem's bounds.
+     */
+    @Setup
+    public void setup () {
+
+        p = switch (problem) {
+            case "ZDT1" -> new ZDT1(n);
+            case "ZDT2" -> new ZDT2(n);
+            case "ZDT3" -> new ZDT3(n);
+            case "ZDT4" -> new ZDT4(n);
+            default -> new ZDT6(n);
+        };
+        p.setVectorized(vectorized);
+
+        x = new double [n];
+        RandomStream r = new RandomStream(n);
+        for (int d = 0; d < n; d++)
+            x[d] = p.mins[d] + r.nextDouble() * (p.maxs[d] - p.mins[d]);
+        out = new double [p.nObj];
+
+    } // setup
+
+    /**
+     * @return double [], the fitnesses of the decision vector.
+     */
+    @Benchmark
+    public double [] objectives () {
+        p.objectives(x, out);
+        return out;
+    } // objectives
+
+} // ObjectivesBenchmark
@@ -0,0 +1,268 @@
+package Benchmarks;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class wraps a problem and remembers the fitnesses of the decision vectors it has evaluated, so a vector which
+ * comes up again isn't evaluated again.
+ *
+ * Particles are clamped to the bounds of the search space when they move, so with a low inertia many of them land on the
+ * same boundary points. With expensive objectives even a small hit rate saves a lot of time.
+ *
+ * (1) The cache holds at most a fixed number of vectors and evicts the least recently used one when it is full.
+ *
+ * (2) Vectors are looked up exactly by default. With a quantum, every decision variable is rounded to a multiple of it
+ *     first, so vectors closer than the quantum share an entry and get the fitnesses of whichever was evaluated first.
+ *
+ * (3) It is safe to use from several threads at once. The cache is locked while it is read or written but not while the
+ *     wrapped problem evaluates, so two threads may both evaluate a vector neither found.
+ *
+ * The MGPSO parameters and bounds are those of the wrapped problem.
+ */
+public class CachedProblem extends Problem {
+
+    private final Problem                       problem;    // The wrapped problem
+    private final double                        quantum;    // Variables are rounded to multiples of this, 0 for exact
+    private final LinkedHashMap<Key, double []> cache;      // The fitnesses of each vector, least recently used first
+
+    private long                                hits;       // The number of lookups which found their vector
+    private long                                misses;     // The number of lookups which didn't
+
+    /**
+     * Initializes a cache around a problem, looking vectors up exactly.
+     * @param problem  The problem to wrap.
+     * @param capacity The maximum number of vectors remembered.
+     */
+    public CachedProblem (Problem problem, int capacity) {
+        this(problem, capacity, 0);
+    } // Constructor
+
+    /**
+     * Initializes a cache around a problem.
+     * @param problem  The problem to wrap.
+     * @param capacity The maximum number of vectors remembered.
+     * @param quantum  Decision variables are rounded to multiples of this before looking a vector up, 0 to look vectors
+     *                 up exactly.
+     */
+    public CachedProblem (Problem problem, int capacity, double quantum) {
+
+        super(problem.n, problem.nObj, problem.S1, problem.S2, problem.T, problem.w, problem.c1, problem.c2, problem.c3);
+
+        if (capacity < 1)
+            throw new IllegalArgumentException("The capacity must be at least 1, got " + capacity + ".");
+        if (!(quantum >= 0))
+            throw new IllegalArgumentException("The quantum must be 0 or more, got " + quantum + ".");
+
+        // Initializing the wrapped problem and its settings
+        this.problem = problem;
+        setMins(problem.mins);
+        setMaxs(problem.maxs);
+        setSwarmSizes(problem.swarmSizes);
+        super.setVectorized(problem.isVectorized());
+
+        // Initializing an empty cache which evicts the least recently used vector
+        this.quantum = quantum;
+        cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry (Map.Entry<Key, double []> eldest) {
+                return size() > capacity;
+            }
+        };
+        hits = 0;
+        misses = 0;
+
+    } // Constructor
+
+    /**
+     * Evaluates one decision vector, from the cache when it is there.
+     * @param xs        The array holding the decision vector.
+     * @param offset    The index of the first decision variable in xs.
+     * @param out       Receives the fitness values of the vector.
+     * @param outOffset The index of the fitness on the first objective in out.
+     */
+    @Override
+    protected void evaluate (double [] xs, int offset, double [] out, int outOffset) {
+
+        Key key = new Key(xs, offset, n, quantum);
+
+        synchronized (cache) {
+            double [] cached = cache.get(key);
+            if (cached != null) {
+                hits++;
+                System.arraycopy(cached, 0, out, outOffset, nObj);
+                return;
+            }
+            misses++;
+        }
+
+        // Evaluate outside the lock, so other threads can look up or evaluate their vectors meanwhile
+        problem.evaluate(xs, offset, out, outOffset);
+
+        synchronized (cache) {
+            cache.put(key, Arrays.copyOfRange(out, outOffset, outOffset + nObj));
+        }
+
+    } // evaluate
+
+    /**
+     * Evaluates a block of decision vectors, each from the cache when it is there. The vectors the cache doesn't have
+     * are packed into one block and passed on to the wrapped problem's own objectives in one call, so a problem which
+     * evaluates a block faster than one vector at a time still does. A vector which comes up twice in the block is only
+     * passed on once, and the second one counts as a hit.
+     * @param xs   The block of decision vectors, n values per vector.
+     * @param from The index of the first vector evaluated.
+     * @param to   The index after the last vector evaluated.
+     * @param out  Receives the fitnesses of each vector, nObj values per vector at the same index as the vector.
+     */
+    @Override
+    public void objectives (double [] xs, int from, int to, double [] out) {
+
+        Key [] keys = new Key [to - from];
+        int [] source = new int [to - from];       // The index of each vector's miss in the packed block, -1 for a hit
+        int [] missed = new int [to - from];       // The index of the vector of each miss
+        HashMap<Key, Integer> pending = new HashMap<>();
+        int count = 0;
+
+        synchronized (cache) {
+            for (int i = from; i < to; i++) {
+                Key key = new Key(xs, i * n, n, quantum);
+                keys[i - from] = key;
+                double [] cached = cache.get(key);
+                Integer earlier = cached == null ? pending.get(key) : null;
+                if (cached != null) {
+                    hits++;
+                    source[i - from] = -1;
+                    System.arraycopy(cached, 0, out, i * nObj, nObj);
+                }
+                else if (earlier != null) {
+                    hits++;
+                    source[i - from] = earlier;
+                }
+                else {
+                    misses++;
+                    pending.put(key, count);
+                    source[i - from] = count;
+                    missed[count++] = i;
+                }
+            }
+        }
+
+        if (count == 0)
+            return;
+
+        // Evaluate the misses as one block outside the lock, so other threads can look up or evaluate meanwhile
+        double [] block = new double [count * n];
+        double [] fitnesses = new double [count * nObj];
+        for (int j = 0; j < count; j++)
+            System.arraycopy(xs, missed[j] * n, block, j * n, n);
+        problem.objectives(block, 0, count, fitnesses);
+
+        for (int i = from; i < to; i++)
+            if (source[i - from] >= 0)
+                System.arraycopy(fitnesses, source[i - from] * nObj, out, i * nObj, nObj);
+
+        synchronized (cache) {
+            for (int j = 0; j < count; j++)
+                cache.put(keys[missed[j] - from], Arrays.copyOfRange(fitnesses, j * nObj, (j + 1) * nObj));
+        }
+
+    } // objectives
+
+    /**
+     * @param vectorized Whether g sums with several independent accumulators, passed on to the wrapped problem.
+     */
+    @Override
+    public void setVectorized (boolean vectorized) {
+        super.setVectorized(vectorized);
+        problem.setVectorized(vectorized);
+    } // setVectorized
+
+    /**
+     * @return long, the number of evaluations answered from the cache.
+     */
+    public long getHits () {
+        synchronized (cache) {
+            return hits;
+        }
+    } // getHits
+
+    /**
+     * @return long, the number of evaluations passed on to the wrapped problem.
+     */
+    public long getMisses () {
+        synchronized (cache) {
+            return misses;
+        }
+    } // getMisses
+
+    /**
+     * @return double, the share of evaluations answered from the cache, 0 before any evaluation.
+     */
+    public double getHitRate () {
+        synchronized (cache) {
+            return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+        }
+    } // getHitRate
+
+    /**
+     * @return int, the number of vectors currently remembered.
+     */
+    public int size () {
+        synchronized (cache) {
+            return cache.size();
+        }
+    } // size
+
+    /**
+     * @return String, the hit statistics of the cache.
+     */
+    @Override
+    public String toString () {
+        synchronized (cache) {
+            return String.format("Cache: %d hits, %d misses, %.2f%% hit rate, %d vectors", hits, misses,
+                                 100 * getHitRate(), cache.size());
+        }
+    } // toString
+
+    /**
+     * A decision vector as a cache key, either the exact bits of each decision variable or each decision variable rounded
+     * to a multiple of the quantum.
+     */
+    private static final class Key {
+
+        private final long [] values;    // The bits or rounded multiples of each decision variable
+        private final int     hash;      // The hash of the values, computed once
+
+        /**
+         * @param xs      The array holding the decision vector.
+         * @param offset  The index of the first decision variable in xs.
+         * @param n       The number of decision variables.
+         * @param quantum The quantum to round to, 0 to use the exact bits.
+         */
+        Key (double [] xs, int offset, int n, double quantum) {
+
+            values = new long [n];
+            for (int d = 0; d < n; d++) {
+                double x = xs[offset + d];
+                values[d] = quantum == 0 ? Double.doubleToLongBits(x) : Math.round(x / quantum);
+            }
+            hash = Arrays.hashCode(values);
+
+        } // Constructor
+
+        @Override
+        public boolean equals (Object o) {
+            return o instanceof Key && hash == ((Key) o).hash && Arrays.equals(values, ((Key) o).values);
+        } // equals
+
+        @Override
+        public int hashCode () {
+            return hash;
+        } // hashCode
+
+    } // Key
+
+} // CachedProblem
@@ -0,0 +1,123 @@
+package Benchmarks;
+
+import java.util.Arrays;
+
+/**
+ * Base class for the DTLZ problems.
+ *
+ * Each problem consists of minimizing nObj functions of n decision variables in [0, 1]. The first nObj - 1 variables
+ * place a vector along the Pareto-optimal front, the last k = n - nObj + 1 variables decide its distance from the front
+ * through a function g, which is 0 (1 for DTLZ7) on the front. Both n and nObj can be chosen freely, so the problems
+ * scale in the number of objectives as well as in the number of decision variables.
+ *
+ * The problems came from Deb et al. in https://doi.org/10.1007/1-84628-137-7_6.
+ *
+ * NOTES:
+ *
+ * (1) No optimized MGPSO parameters were published for these problems, the ones optimized for ZDT1 are used with
+ *     25 particles per swarm. They can be changed through the public fields and setSwarmSizes.
+ *
+ * (2) Evaluating a decision vector takes time linear in n and nObj and doesn't allocate.
+ */
+public abstract class DTLZ extends Problem {
+
+    public final int k;    // The number of distance-related decision variables, n - nObj + 1
+
+    /**
+     * Initializes the problem.
+     * @param n    Number of problem dimensions, at least nObj.
+     * @param nObj Number of objectives, at least 2.
+     */
+    public DTLZ (int n, int nObj) {
+
+        super(n, nObj, 25, 25, 3, 0.475, 1.80, 1.10, 1.80);
+
+        if (nObj < 2 || n < nObj)
+            throw new IllegalArgumentException("A DTLZ problem needs at least 2 objectives and as many variables, " +
+                                               "got " + n + " variables and " + nObj + " objectives.");
+
+        k = n - nObj + 1;
+
+        // Initializing the mins
+        double [] mins = new double [this.n];
+        Arrays.fill(mins, 0);
+        setMins(mins);
+
+        // Initializing the maxs
+        double [] maxs = new double [this.n];
+        Arrays.fill(maxs, 1);
+        setMaxs(maxs);
+
+    } // Constructor
+
+    /**
+     * Function g, the distance of a decision vector from the Pareto-optimal front.
+     * @param x      The array holding the decision vector.
+     * @param offset The index of the first decision variable in x.
+     * @return       double, g(x[offset + nObj - 1], ..., x[offset + n - 1]).
+     */
+    protected abstract double g (double [] x, int offset);
+
+    /**
+     * The angle of a position-related decision variable on the spherical front, x[offset + i] * pi / 2 by default.
+     * @param x      The array holding the decision vector.
+     * @param offset The index of the first decision variable in x.
+     * @param i      The index of the position-related variable, 0 to nObj - 2.
+     * @param g      The value of g for the decision vector.
+     * @return       double, the angle in [0, pi / 2].
+     */
+    protected double theta (double [] x, int offset, int i, double g) {
+        return x[offset + i] * Math.PI / 2;
+    } // theta
+
+    /**
+     * Evaluates a decision vector on the spherical front of DTLZ2 to DTLZ6:
+     * f_m = (1 + g) cos(theta_0) ... cos(theta_{nObj-m-2}) sin(theta_{nObj-m-1}), with no sine for the first objective.
+     * The products of the cosines are built up from the last objective to the first, so it takes time linear in nObj.
+     * @param xs        The array holding the decision vector.
+     * @param offset    The index of the first decision variable in xs.
+     * @param out       Receives the fitness values of the vector.
+     * @param outOffset The index of the fitness on the first objective in out.
+     */
+    @Override
+    protected void evaluate (double [] xs, int offset, double [] out, int outOffset) {
+
+        double g = g(xs, offset);
+
+        double cosines = 1 + g;
+        for (int m = nObj - 1; m > 0; m--) {
+            double theta = theta(xs, offset, nObj - m - 1, g);
+            out[outOffset + m] = cosines * Math.sin(theta);
+            cosines *= Math.cos(theta);
+        }
+        out[outOffset] = cosines;
+
+    } // evaluate
+
+    /**
+     * @return double, the sum of (x_i - 0.5)^2 over the distance-related variables, g of DTLZ2, DTLZ4 and DTLZ5.
+     */
+    protected double squaredDistance (double [] x, int offset) {
+
+        double sum = 0;
+        for (int i = offset + nObj - 1; i < offset + n; i++)
+            sum += (x[i] - 0.5) * (x[i] - 0.5);
+
+        return sum;
+
+    } // squaredDistance
+
+    /**
+     * @return double, the multi-modal g of DTLZ1 and DTLZ3, 100 (k + sum of (x_i - 0.5)^2 - cos(20 pi (x_i - 0.5))).
+     */
+    protected double rastrigin (double [] x, int offset) {
+
+        double sum = 0;
+        for (int i = offset + nObj - 1; i < offset + n; i++)
+            sum += (x[i] - 0.5) * (x[i] - 0.5) - Math.cos(20 * Math.PI * (x[i] - 0.5));
+
+        return 100 * (k + sum);
+
+    } // rastrigin
+
+} // DTLZ
@@ -0,0 +1,51 @@
+package Benchmarks;
+
+/**
+ * DTLZ problem 1. The front is the linear hyperplane sum of f_m = 0.5, with 11^k - 1 local fronts.
+ */
+public class DTLZ1 extends DTLZ {
+
+    /**
+     * Initializes the problem with 3 objectives and k = 5 distance-related variables, as suggested by Deb et al.
+     */
+    public DTLZ1 () {
+        this(5 + 2, 3);
+    } // Constructor
+
+    /**
+     * Initializes the problem.
+     * @param n    Number of problem dimensions, at least nObj.
+     * @param nObj Number of objectives, at least 2.
+     */
+    public DTLZ1 (int n, int nObj) {
+        super(n, nObj);
+    } // Constructor
+
+    @Override
+    protected double g (double [] x, int offset) {
+        return rastrigin(x, offset);
+    } // g
+
+    /**
+     * Evaluates a decision vector on the linear front:
+     * f_m = 0.5 (1 + g) x_0 ... x_{nObj-m-2} (1 - x_{nObj-m-1}), with no last factor for the first objective.
+     * The products are built up from the last objective to the first, so it takes time linear in nObj.
+     * @param xs        The array holding the decision vector.
+     * @param offset    The index of the first decision variable in xs.
+     * @param out       Receives the fitness values of the vector.
+     * @param outOffset The index of the fitness on the first objective in out.
+     */
+    @Override
+    protected void evaluate (double [] xs, int offset, double [] out, int outOffset) {
+
+        double product = 0.5 * (1 + g(xs, offset));
+        for (int m = nObj - 1; m > 0; m--) {
+            double x = xs[offset + nObj - m - 1];
+            out[outOffset + m] = product * (1 - x);
+            product *= x;
+        }
+        out[outOffset] = product;
+
+    } // evaluate
+
+} // DTLZ1
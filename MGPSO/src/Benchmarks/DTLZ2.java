@@ -0,0 +1,29 @@
+package Benchmarks;
+
+/**
+ * DTLZ problem 2. The front is the unit sphere in the positive orthant.
+ */
+public class DTLZ2 extends DTLZ {
+
+    /**
+     * Initializes the problem with 3 objectives and k = 10 distance-related variables, as suggested by Deb et al.
+     */
+    public DTLZ2 () {
+        this(10 + 2, 3);
+    } // Constructor
+
+    /**
+     * Initializes the problem.
+     * @param n    Number of problem dimensions, at least nObj.
+     * @param nObj Number of objectives, at least 2.
+     */
+    public DTLZ2 (int n, int nObj) {
+        super(n, nObj);
+    } // Constructor
+
+    @Override
+    protected double g (double [] x, int offset) {
+        return squaredDistance(x, offset);
+    } // g
+
+} // DTLZ2
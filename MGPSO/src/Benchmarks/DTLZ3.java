@@ -0,0 +1,29 @@
+package Benchmarks;
+
+/**
+ * DTLZ problem 3. The front is the unit sphere of DTLZ2, with 3^k - 1 local fronts from the multi-modal g of DTLZ1.
+ */
+public class DTLZ3 extends DTLZ {
+
+    /**
+     * Initializes the problem with 3 objectives and k = 10 distance-related variables, as suggested by Deb et al.
+     */
+    public DTLZ3 () {
+        this(10 + 2, 3);
+    } // Constructor
+
+    /**
+     * Initializes the problem.
+     * @param n    Number of problem dimensions, at least nObj.
+     * @param nObj Number of objectives, at least 2.
+     */
+    public DTLZ3 (int n, int nObj) {
+        super(n, nObj);
+    } // Constructor
+
+    @Override
+    protected double g (double [] x, int offset) {
+        return rastrigin(x, offset);
+    } // g
+
+} // DTLZ3
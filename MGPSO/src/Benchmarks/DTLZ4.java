@@ -0,0 +1,37 @@
+package Benchmarks;
+
+/**
+ * DTLZ problem 4. The front is the unit sphere of DTLZ2, with the position-related variables raised to the power
+ * alpha = 100, so most decision vectors crowd near the edges of the front.
+ */
+public class DTLZ4 extends DTLZ {
+
+    private static final double ALPHA = 100;    // The power the position-related variables are raised to
+
+    /**
+     * Initializes the problem with 3 objectives and k = 10 distance-related variables, as suggested by Deb et al.
+     */
+    public DTLZ4 () {
+        this(10 + 2, 3);
+    } // Constructor
+
+    /**
+     * Initializes the problem.
+     * @param n    Number of problem dimensions, at least nObj.
+     * @param nObj Number of objectives, at least 2.
+     */
+    public DTLZ4 (int n, int nObj) {
+        super(n, nObj);
+    } // Constructor
+
+    @Override
+    protected double g (double [] x, int offset) {
+        return squaredDistance(x, offset);
+    } // g
+
+    @Override
+    protected double theta (double [] x, int offset, int i, double g) {
+        return Math.pow(x[offset + i], ALPHA) * Math.PI / 2;
+    } // theta
+
+} // DTLZ4
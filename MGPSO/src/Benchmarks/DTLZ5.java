@@ -0,0 +1,40 @@
+package Benchmarks;
+
+/**
+ * DTLZ problem 5. The front is a degenerate curve on the unit sphere of DTLZ2, whatever the number of objectives.
+ */
+public class DTLZ5 extends DTLZ {
+
+    /**
+     * Initializes the problem with 3 objectives and k = 10 distance-related variables, as suggested by Deb et al.
+     */
+    public DTLZ5 () {
+        this(10 + 2, 3);
+    } // Constructor
+
+    /**
+     * Initializes the problem.
+     * @param n    Number of problem dimensions, at least nObj.
+     * @param nObj Number of objectives, at least 2.
+     */
+    public DTLZ5 (int n, int nObj) {
+        super(n, nObj);
+    } // Constructor
+
+    @Override
+    protected double g (double [] x, int offset) {
+        return squaredDistance(x, offset);
+    } // g
+
+    @Override
+    protected double theta (double [] x, int offset, int i, double g) {
+
+        // Only the first angle spans the front, the others are squeezed towards pi / 4 as g goes to 0
+        if (i == 0)
+            return x[offset] * Math.PI / 2;
+
+        return Math.PI / (4 * (1 + g)) * (1 + 2 * g * x[offset + i]);
+
+    } // theta
+
+} // DTLZ5
@@ -0,0 +1,46 @@
+package Benchmarks;
+
+/**
+ * DTLZ problem 6. The degenerate curve of DTLZ5 with g = sum of x_i^0.1, which is much harder to bring to 0.
+ */
+public class DTLZ6 extends DTLZ {
+
+    /**
+     * Initializes the problem with 3 objectives and k = 10 distance-related variables, as suggested by Deb et al.
+     */
+    public DTLZ6 () {
+        this(10 + 2, 3);
+    } // Constructor
+
+    /**
+     * Initializes the problem.
+     * @param n    Number of problem dimensions, at least nObj.
+     * @param nObj Number of objectives, at least 2.
+     */
+    public DTLZ6 (int n, int nObj) {
+        super(n, nObj);
+    } // Constructor
+
+    @Override
+    protected double g (double [] x, int offset) {
+
+        double sum = 0;
+        for (int i = offset + nObj - 1; i < offset + n; i++)
+            sum += Math.pow(x[i], 0.1);
+
+        return sum;
+
+    } // g
+
+    @Override
+    protected double theta (double [] x, int offset, int i, double g) {
+
+        // Only the first angle spans the front, the others are squeezed towards pi / 4 as g goes to 0
+        if (i == 0)
+            return x[offset] * Math.PI / 2;
+
+        return Math.PI / (4 * (1 + g)) * (1 + 2 * g * x[offset + i]);
+
+    } // theta
+
+} // DTLZ6
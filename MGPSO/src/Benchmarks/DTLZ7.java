@@ -0,0 +1,62 @@
+package Benchmarks;
+
+/**
+ * DTLZ problem 7. The front is made of 2^(nObj - 1) disconnected regions.
+ */
+public class DTLZ7 extends DTLZ {
+
+    /**
+     * Initializes the problem with 3 objectives and k = 20 distance-related variables, as suggested by Deb et al.
+     */
+    public DTLZ7 () {
+        this(20 + 2, 3);
+    } // Constructor
+
+    /**
+     * Initializes the problem.
+     * @param n    Number of problem dimensions, at least nObj.
+     * @param nObj Number of objectives, at least 2.
+     */
+    public DTLZ7 (int n, int nObj) {
+        super(n, nObj);
+    } // Constructor
+
+    @Override
+    protected double g (double [] x, int offset) {
+
+        double sum = 0;
+
+        if (isVectorized())
+            sum = unrolledSum(x, offset + nObj - 1, offset + n);
+        else
+            for (int i = offset + nObj - 1; i < offset + n; i++)
+                sum += x[i];
+
+        return 1 + 9 * sum / k;
+
+    } // g
+
+    /**
+     * Evaluates a decision vector: f_m = x_m for every objective but the last, which is
+     * f = (1 + g) (nObj - sum of f_m / (1 + g) (1 + sin(3 pi f_m))).
+     * @param xs        The array holding the decision vector.
+     * @param offset    The index of the first decision variable in xs.
+     * @param out       Receives the fitness values of the vector.
+     * @param outOffset The index of the fitness on the first objective in out.
+     */
+    @Override
+    protected void evaluate (double [] xs, int offset, double [] out, int outOffset) {
+
+        double g = g(xs, offset);
+
+        double h = nObj;
+        for (int m = 0; m < nObj - 1; m++) {
+            double f = xs[offset + m];
+            out[outOffset + m] = f;
+            h -= f / (1 + g) * (1 + Math.sin(3 * Math.PI * f));
+        }
+        out[outOffset + nObj - 1] = (1 + g) * h;
+
+    } // evaluate
+
+} // DTLZ7
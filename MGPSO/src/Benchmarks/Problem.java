@@ -1,173 +1,231 @@
-package Benchmarks;
-
-/**
- * Base class for the ZDT problems.
- *
- * Each problem consists of minimizing two functions: f1 & f2.
- *
- * The problems came from Zitzler et al. in https://dl.acm.org/doi/10.1162/106365600568202.
- *
- * @author Liam McDevitt
- *
- * NOTES:
- *
- * (1) The optimized MGPSO parameters are taken from the original paper.
- *
- * (2) The min and max are defined as arrays because for the fourth FDT problem the domain for the first decision
- *     variable is different from the rest.
- */
-public abstract class Problem {
-
-    // Problem variables
-    public int       n;                   // Number of problem dimensions
-    public double [] mins;                 // The min of the range
-    public double [] maxs;                 // The max of the range
-
-    // Optimized MGPSO parameters
-    public int    nObj;                   // The number of objective for the problem
-    public int    S1;                     // The cardinality of swarm 1
-    public int    S2;                     // The cardinality of swarm 2
-    public int    T;                      // Tournament size (for the archive guide selection process)
-    public double w;                      // Inertia weight
-    public double c1;                     // Cognitive acceleration coefficient
-    public double c2;                     // Social acceleration coefficient
-    public double c3;                     // Archive acceleration coefficient
-
-    /**
-     * Initializes the problem with the optimized MGPSO parameters.
-     * @param n     Number of problem dimensions
-     * @param nObj  Number of objectives for the problem
-     * @param S1    Cardinality of the first swarm
-     * @param S2    Cardinality of the second swarm
-     * @param T     Tournament size
-     * @param w     Inertia weight
-     * @param c1    Cognitive acceleration coefficient
-     * @param c2    Social acceleration coefficient
-     * @param c3    Archive acceleration coefficient
-     */
-    public Problem (int n, int nObj, int S1, int S2, int T, double w, double c1, double c2, double c3) {
-
-        // Initializing the number of dimensions
-        this.n = n;
-
-        // Initializing the number of objectives
-        this.nObj = nObj;
-
-        // Initializing the cardinality of swarm 1
-        this.S1 = S1;
-
-        // Initializing the cardinality of swarm 2
-        this.S2 = S2;
-
-        // Initializing the tournament size
-        this.T = T;
-
-        // Initializing the inertia weight
-        this.w = w;
-
-        // Initializing the cognitive acceleration coefficient
-        this.c1 = c1;
-
-        // Initializing the social acceleration coefficient
-        this.c2 = c2;
-
-        // Initializing the archive acceleration coefficient
-        this.c3 = c3;
-
-        // Initializing min range array
-        mins = new double [n];
-
-        // Initializing max range array
-        maxs = new double [n];
-
-    } // Constructor
-
-    /**
-     * Function f1.
-     * @param x The decision vector.
-     * @return  double, f1(x).
-     */
-    public abstract double f1 (double [] x);
-
-    /**
-     * Function g.
-     * @param x The decision vector.
-     * @return  double, g(x).
-     */
-    public abstract double g (double [] x);
-
-    /**
-     * Function h.
-     * @param f1 The resulting value from evaluating f1.
-     * @param g  The resulting value from evaluating g.
-     * @return   double, h(f1, g).
-     */
-    public abstract double h (double f1, double g);
-
-    /**
-     * Function f2, which is the result of multiplying the result of function g by function h.
-     * @param g The resulting value from evaluating g.
-     * @param h The resulting value from evaluating h.
-     * @return  double, g * h.
-     */
-    public double f2 (double g, double h) {return g * h;}
-
-    /**
-     * Gives the fitness of a decision vector on a specified objective.
-     * @param objIndex The objective (either 1 or 2)
-     * @param x        The decision vector.
-     * @return         double, f1(x) or f2(g, h) depending on the objective selected.
-     */
-    public double fitness (int objIndex, double [] x) {
-
-        double f1 = f1(x);
-        double g = g(x);
-        double h = h(f1, g);
-        double f2 = f2(g, h);
-
-        if (objIndex == 1)
-            return f1;
-        else if (objIndex == 2)
-            return f2;
-        else
-            return Double.MAX_VALUE;
-
-    } // fitness
-
-    /**
-     * Used for knowing the fitness of a decision vector on both objectives.
-     * @param x The decision vector.
-     * @return  double [], the resulting fitness values for x on both objectives.
-     */
-    public double [] objectives (double [] x) {
-
-        double f1 = f1(x);
-        double g = g(x);
-        double h = h(f1, g);
-        double f2 = f2(g, h);
-
-        double [] result = new double [nObj];
-        result[0] = f1;
-        result[1] = f2;
-
-        return result;
-
-    } // objectives
-
-    /**
-     * Setting the min domains for each decision variable.
-     * @param mins The min value for each decision variable in the decision vector.
-     */
-    public void setMins (double [] mins) {
-        System.arraycopy(mins, 0, this.mins, 0, mins.length);
-    } // setMins
-
-    /**
-     * Setting the max domains for each decision variable.
-     * @param maxs The max value for each decision variable in the decision vector.
-     */
-    public void setMaxs (double [] maxs) {
-        System.arraycopy(maxs, 0, this.maxs, 0, maxs.length);
-    } // setMaxs
-
-} // Problem
+package Benchmarks;
+
+/**
+ * Base class for the benchmark problems.
+ *
+ * Each problem consists of minimizing nObj objective functions of n decision variables. A problem only has to say how a
+ * decision vector is evaluated on every objective at once, see evaluate(double [], int, double [], int), so it can
+ * have any number of objectives (see ZDT, DTLZ and WFG).
+ *
+ * @author Liam McDevitt
+ *
+ * NOTES:
+ *
+ * (1) The MGPSO parameters are given by each problem, see ZDT for the optimized parameters of the original paper.
+ *
+ * (2) The min and max are defined as arrays because for the fourth FDT problem the domain for the first decision
+ *     variable is different from the rest.
+ */
+public abstract class Problem {
+
+    // Problem variables
+    public int       n;                   // Number of problem dimensions
+    public double [] mins;                 // The min of the range
+    public double [] maxs;                 // The max of the range
+
+    // Optimized MGPSO parameters
+    public int    nObj;                   // The number of objective for the problem
+    public int    S1;                     // The cardinality of swarm 1
+    public int    S2;                     // The cardinality of swarm 2
+    public int [] swarmSizes;             // The cardinality of the swarm of each objective
+    public int    T;                      // Tournament size (for the archive guide selection process)
+    public double w;                      // Inertia weight
+    public double c1;                     // Cognitive acceleration coefficient
+    public double c2;                     // Social acceleration coefficient
+    public double c3;                     // Archive acceleration coefficient
+
+    // Execution settings
+    private boolean vectorized;           // Whether sums use several independent accumulators (see unrolledSum)
+
+    /**
+     * Initializes the problem with the optimized MGPSO parameters.
+     * @param n     Number of problem dimensions
+     * @param nObj  Number of objectives for the problem
+     * @param S1    Cardinality of the first swarm
+     * @param S2    Cardinality of the second swarm
+     * @param T     Tournament size
+     * @param w     Inertia weight
+     * @param c1    Cognitive acceleration coefficient
+     * @param c2    Social acceleration coefficient
+     * @param c3    Archive acceleration coefficient
+     */
+    public Problem (int n, int nObj, int S1, int S2, int T, double w, double c1, double c2, double c3) {
+
+        // Initializing the number of dimensions
+        this.n = n;
+
+        // Initializing the number of objectives
+        this.nObj = nObj;
+
+        // Initializing the cardinality of swarm 1
+        this.S1 = S1;
+
+        // Initializing the cardinality of swarm 2
+        this.S2 = S2;
+
+        // Initializing the cardinality of every swarm, any swarm after the first two gets the average of theirs
+        swarmSizes = new int [nObj];
+        for (int m = 0; m < nObj; m++)
+            swarmSizes[m] = m == 0 ? S1 : m == 1 ? S2 : (S1 + S2) / 2;
+
+        // Initializing the tournament size
+        this.T = T;
+
+        // Initializing the inertia weight
+        this.w = w;
+
+        // Initializing the cognitive acceleration coefficient
+        this.c1 = c1;
+
+        // Initializing the social acceleration coefficient
+        this.c2 = c2;
+
+        // Initializing the archive acceleration coefficient
+        this.c3 = c3;
+
+        // Initializing min range array
+        mins = new double [n];
+
+        // Initializing max range array
+        maxs = new double [n];
+
+    } // Constructor
+
+    /**
+     * Gives the fitness of a decision vector on a specified objective.
+     * @param objIndex The objective (0 to nObj - 1, the same index as the swarms use).
+     * @param x        The decision vector.
+     * @return         double, the fitness of x on the objective, Double.MAX_VALUE for an objective which doesn't exist.
+     */
+    public double fitness (int objIndex, double [] x) {
+
+        if (objIndex < 0 || objIndex >= nObj)
+            return Double.MAX_VALUE;
+
+        return objectives(x)[objIndex];
+
+    } // fitness
+
+    /**
+     * Used for knowing the fitness of a decision vector on every objective.
+     * @param x The decision vector.
+     * @return  double [], the resulting fitness values for x on every objective.
+     */
+    public double [] objectives (double [] x) {
+
+        double [] result = new double [nObj];
+        evaluate(x, 0, result, 0);
+
+        return result;
+
+    } // objectives
+
+    /**
+     * Used for knowing the fitness of a decision vector on every objective, without allocating.
+     * @param x   The decision vector.
+     * @param out Receives the fitness values for x on every objective, of length nObj at least.
+     */
+    public void objectives (double [] x, double [] out) {
+        evaluate(x, 0, out, 0);
+    } // objectives
+
+    /**
+     * Evaluates a block of decision vectors stored one after another, like the positions of a swarm, on every objective
+     * without allocating. Vector i is x[i * n] to x[i * n + n - 1] and its fitnesses go to out[i * nObj] to
+     * out[i * nObj + nObj - 1], like the fitnesses of a swarm.
+     * @param xs   The block of decision vectors.
+     * @param from The index of the first vector evaluated.
+     * @param to   The index after the last vector evaluated.
+     * @param out  Receives the fitness values of the vectors.
+     */
+    public void objectives (double [] xs, int from, int to, double [] out) {
+        for (int i = from; i < to; i++)
+            evaluate(xs, i * n, out, i * nObj);
+    } // objectives
+
+    /**
+     * Evaluates one decision vector stored at an offset of a larger array on every objective. Every other way of
+     * evaluating a decision vector ends up here, so this is the one method a problem must implement. It must be safe to
+     * call from several threads at once.
+     * @param xs        The array holding the decision vector.
+     * @param offset    The index of the first decision variable in xs.
+     * @param out       Receives the fitness values of the vector.
+     * @param outOffset The index of the fitness on the first objective in out.
+     */
+    protected abstract void evaluate (double [] xs, int offset, double [] out, int outOffset);
+
+    /**
+     * Sums part of an array with four independent accumulators. The additions of one accumulator don't wait on the
+     * others, so the CPU overlaps them (and the JIT can put them in vector registers), which is much faster than one
+     * running sum for large n. The additions happen in a different order than a plain loop, so the result can differ
+     * from it in the last bits.
+     * @param x    The array.
+     * @param from The first index summed.
+     * @param to   The index after the last one summed.
+     * @return     double, x[from] + ... + x[to - 1].
+     */
+    protected static double unrolledSum (double [] x, int from, int to) {
+
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            s0 += x[i];
+            s1 += x[i + 1];
+            s2 += x[i + 2];
+            s3 += x[i + 3];
+        }
+        for (; i < to; i++)
+            s0 += x[i];
+
+        return (s0 + s1) + (s2 + s3);
+
+    } // unrolledSum
+
+    /**
+     * @param vectorized Whether sums use several independent accumulators, see unrolledSum.
+     */
+    public void setVectorized (boolean vectorized) {
+        this.vectorized = vectorized;
+    } // setVectorized
+
+    /**
+     * @return boolean, whether sums use several independent accumulators, see unrolledSum.
+     */
+    public boolean isVectorized () {
+        return vectorized;
+    } // isVectorized
+
+    /**
+     * @param m The objective.
+     * @return  int, the cardinality of the swarm optimizing objective m.
+     */
+    public int swarmSize (int m) {
+        return swarmSizes[m];
+    } // swarmSize
+
+    /**
+     * Setting the cardinality of the swarm of each objective.
+     * @param swarmSizes The cardinality of each swarm, one per objective.
+     */
+    public void setSwarmSizes (int [] swarmSizes) {
+        System.arraycopy(swarmSizes, 0, this.swarmSizes, 0, nObj);
+    } // setSwarmSizes
+
+    /**
+     * Setting the min domains for each decision variable.
+     * @param mins The min value for each decision variable in the decision vector.
+     */
+    public void setMins (double [] mins) {
+        System.arraycopy(mins, 0, this.mins, 0, mins.length);
+    } // setMins
+
+    /**
+     * Setting the max domains for each decision variable.
+     * @param maxs The max value for each decision variable in the decision vector.
+     */
+    public void setMaxs (double [] maxs) {
+        System.arraycopy(maxs, 0, this.maxs, 0, maxs.length);
+    } // setMaxs
+
+} // Problem
@@ -0,0 +1,110 @@
+package Benchmarks;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * This class is a worker process for RemoteProblem which evaluates the benchmark problems, so the protocol can be used
+ * and tested without an external simulator. It answers requests in order until its input is closed.
+ *
+ * Usage: java Benchmarks.ProblemWorker ZDT1
+ */
+public class ProblemWorker {
+
+    /**
+     * Runs the worker on standard input and output, see RemoteProblem for the protocol.
+     * @param args The name of the problem to evaluate.
+     */
+    public static void main (String[] args) throws IOException {
+
+        if (args.length != 1) {
+            System.err.println("Usage: java Benchmarks.ProblemWorker <ZDT1..ZDT6|DTLZ1..DTLZ7|WFG1..WFG9>");
+            System.exit(2);
+        }
+
+        // Initialize problem
+        Problem problem = null;
+        switch(args[0]) {
+            case "ZDT1" -> problem = new ZDT1();
+            case "ZDT2" -> problem = new ZDT2();
+            case "ZDT3" -> problem = new ZDT3();
+            case "ZDT4" -> problem = new ZDT4();
+            case "ZDT6" -> problem = new ZDT6();
+            case "DTLZ1" -> problem = new DTLZ1();
+            case "DTLZ2" -> problem = new DTLZ2();
+            case "DTLZ3" -> problem = new DTLZ3();
+            case "DTLZ4" -> problem = new DTLZ4();
+            case "DTLZ5" -> problem = new DTLZ5();
+            case "DTLZ6" -> problem = new DTLZ6();
+            case "DTLZ7" -> problem = new DTLZ7();
+            case "WFG1" -> problem = new WFG1();
+            case "WFG2" -> problem = new WFG2();
+            case "WFG3" -> problem = new WFG3();
+            case "WFG4" -> problem = new WFG4();
+            case "WFG5" -> problem = new WFG5();
+            case "WFG6" -> problem = new WFG6();
+            case "WFG7" -> problem = new WFG7();
+            case "WFG8" -> problem = new WFG8();
+            case "WFG9" -> problem = new WFG9();
+            default -> {
+                System.err.println("Problem not found.");
+                System.exit(2);
+            }
+        }
+
+        // Standard output is the protocol, so it isn't wrapped in a PrintStream
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(FileDescriptor.in)));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+
+        out.writeInt(problem.n);
+        out.writeInt(problem.nObj);
+        out.flush();
+
+        double [] xs = new double [0];
+        double [] fitnesses = new double [0];
+
+        while (true) {
+
+            int id;
+            try {
+                id = in.readInt();
+            }
+            catch (EOFException e) {
+                break;
+            }
+
+            // Read the batch, growing the buffers when it is the largest so far
+            int count = in.readInt();
+            if (xs.length < count * problem.n) {
+                xs = new double [count * problem.n];
+                fitnesses = new double [count * problem.nObj];
+            }
+            for (int i = 0; i < count * problem.n; i++)
+                xs[i] = in.readDouble();
+
+            problem.objectives(xs, 0, count, fitnesses);
+
+            out.writeInt(id);
+            out.writeInt(count);
+            for (int i = 0; i < count * problem.nObj; i++)
+                out.writeDouble(fitnesses[i]);
+
+            // Flush only when no other request is waiting, so a pipeline of requests is answered without a system call
+            // per response
+            if (in.available() == 0)
+                out.flush();
+
+        }
+
+        out.flush();
+
+    } // main
+
+} // ProblemWorker
@@ -0,0 +1,284 @@
+package Benchmarks;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class is a problem whose objectives are evaluated by another process, e.g. an external simulator, which it talks
+ * to over the process's standard input and output.
+ *
+ * The protocol is binary, every number big-endian as written by DataOutputStream:
+ *
+ * (1) On start, the worker writes the number of decision variables n and the number of objectives nObj (two ints).
+ *
+ * (2) A request is an id, a count and count decision vectors: int id, int count, then count * n doubles.
+ *
+ * (3) A response is the id of its request, the count and the fitnesses of each vector: int id, int count, then
+ *     count * nObj doubles. Responses may come in any order. The worker exits when its input is closed.
+ *
+ * A block of decision vectors is sent in batches of batchSize vectors, with up to inFlight batches sent before their
+ * results come back, so the worker always has the next batch waiting instead of a round trip per batch. The results are
+ * read by a background thread and written straight into the caller's buffer, at the position of the vectors they belong
+ * to. Several threads may evaluate at the same time, each batch has its own id.
+ *
+ * The MGPSO parameters and bounds are taken from a local instance of the problem, only the objectives are evaluated by
+ * the worker. ProblemWorker is a worker for the ZDT problems.
+ */
+public class RemoteProblem extends Problem implements AutoCloseable {
+
+    private final Process                               process;     // The worker process
+    private final DataOutputStream                      toWorker;    // Requests, guarded by its own lock
+    private final DataInputStream                       fromWorker;  // Responses, only read by the reader thread
+    private final Thread                                reader;      // Reads the responses as they arrive
+
+    private final int                                   batchSize;   // The number of vectors per request
+    private final Semaphore                             window;      // One permit per request which may be in flight
+    private final ConcurrentHashMap<Integer, Request>   requests;    // The requests in flight by id
+    private final AtomicInteger                         nextId;      // The id of the next request
+    private volatile IOException                        failure;     // Why the worker can't be talked to anymore
+
+    /**
+     * Starts a worker process and checks it evaluates a problem of the same size as the local one.
+     * @param local     A local instance of the problem, for the MGPSO parameters and the bounds.
+     * @param batchSize The number of decision vectors per request.
+     * @param inFlight  The number of requests which may be waiting for their results at once.
+     * @param command   The command starting the worker, e.g. java -cp out Benchmarks.ProblemWorker ZDT1.
+     */
+    public RemoteProblem (Problem local, int batchSize, int inFlight, String... command) {
+
+        super(local.n, local.nObj, local.S1, local.S2, local.T, local.w, local.c1, local.c2, local.c3);
+        setMins(local.mins);
+        setMaxs(local.maxs);
+        setSwarmSizes(local.swarmSizes);
+
+        if (batchSize < 1 || inFlight < 1)
+            throw new IllegalArgumentException("The batch size and requests in flight must be at least 1.");
+
+        this.batchSize = batchSize;
+        window = new Semaphore(inFlight);
+        requests = new ConcurrentHashMap<>();
+        nextId = new AtomicInteger(0);
+        failure = null;
+
+        try {
+            // The worker's errors go to ours, its output is the protocol
+            process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Unable to start the worker.", e);
+        }
+
+        try {
+
+            toWorker = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+            fromWorker = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+
+            int workerN = fromWorker.readInt();
+            int workerNObj = fromWorker.readInt();
+            if (workerN != n || workerNObj != nObj) {
+                process.destroy();
+                throw new IllegalStateException("The worker evaluates " + workerN + " variables and " + workerNObj +
+                                                " objectives, expected " + n + " and " + nObj + ".");
+            }
+
+        }
+        catch (IOException e) {
+            // The worker is running but failed before the handshake, so it won't be stopped by close
+            process.destroy();
+            throw new UncheckedIOException("The worker failed before the handshake.", e);
+        }
+
+        reader = new Thread(this::readResponses, "RemoteProblem reader");
+        reader.setDaemon(true);
+        reader.start();
+
+    } // Constructor
+
+    /**
+     * Evaluates a block of decision vectors on the worker, batchSize vectors per request with up to inFlight requests
+     * waiting for their results at once, see Problem.objectives(double [], int, int, double []).
+     * @param xs   The block of decision vectors.
+     * @param from The index of the first vector evaluated.
+     * @param to   The index after the last vector evaluated.
+     * @param out  Receives the fitness values of the vectors.
+     */
+    @Override
+    public void objectives (double [] xs, int from, int to, double [] out) {
+
+        int batches = (to - from + batchSize - 1) / batchSize;
+        CountDownLatch done = new CountDownLatch(batches);
+
+        try {
+
+            for (int first = from; first < to; first += batchSize) {
+                int count = Math.min(batchSize, to - first);
+                window.acquire();
+                send(xs, first * n, count, new Request(out, first * nObj, count, done));
+            }
+
+            done.await();
+
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the worker.", e);
+        }
+
+        if (failure != null)
+            throw new UncheckedIOException("Unable to evaluate on the worker.", failure);
+
+    } // objectives
+
+    /**
+     * Evaluates one decision vector stored at an offset of a larger array on the worker.
+     * @param xs        The array holding the decision vector.
+     * @param offset    The index of the first decision variable in xs.
+     * @param out       Receives the fitness values of the vector.
+     * @param outOffset The index of the fitness on the first objective in out.
+     */
+    @Override
+    protected void evaluate (double [] xs, int offset, double [] out, int outOffset) {
+
+        CountDownLatch done = new CountDownLatch(1);
+
+        try {
+            window.acquire();
+            send(xs, offset, 1, new Request(out, outOffset, 1, done));
+            done.await();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the worker.", e);
+        }
+
+        if (failure != null)
+            throw new UncheckedIOException("Unable to evaluate on the worker.", failure);
+
+    } // evaluate
+
+    /**
+     * Closes the worker's input, so it exits, and waits for it.
+     */
+    @Override
+    public void close () {
+
+        try {
+            synchronized (toWorker) {
+                toWorker.close();
+            }
+            process.waitFor();
+        }
+        catch (IOException e) {
+            process.destroy();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroy();
+        }
+
+    } // close
+
+    /**
+     * Sends a request to the worker. Nothing is sent once the worker failed, the request just finishes.
+     * @param xs      The array holding the decision vectors.
+     * @param offset  The index of the first decision variable of the first vector in xs.
+     * @param count   The number of vectors.
+     * @param request Where the results go.
+     */
+    private void send (double [] xs, int offset, int count, Request request) {
+
+        int id = nextId.getAndIncrement();
+        requests.put(id, request);
+
+        try {
+            if (failure != null)
+                throw failure;
+            synchronized (toWorker) {
+                toWorker.writeInt(id);
+                toWorker.writeInt(count);
+                for (int i = 0; i < count * n; i++)
+                    toWorker.writeDouble(xs[offset + i]);
+                toWorker.flush();
+            }
+        }
+        catch (IOException e) {
+            fail(e);
+        }
+
+    } // send
+
+    /**
+     * Reads responses until the worker's output closes, writing each result where its request wants it.
+     */
+    private void readResponses () {
+
+        try {
+            while (true) {
+                int id = fromWorker.readInt();
+                int count = fromWorker.readInt();
+                Request request = requests.remove(id);
+                if (request == null || count != request.count)
+                    throw new IOException("Unexpected response " + id + " with " + count + " results from the worker.");
+                for (int i = 0; i < count * nObj; i++)
+                    request.out[request.outOffset + i] = fromWorker.readDouble();
+                request.done.countDown();
+                window.release();
+            }
+        }
+        catch (IOException e) {
+            fail(e);
+        }
+
+    } // readResponses
+
+    /**
+     * Records that the worker can't be talked to anymore and finishes every request in flight, so nobody waits forever.
+     * @param e Why.
+     */
+    private void fail (IOException e) {
+
+        synchronized (requests) {
+            if (failure == null) {
+                failure = e;
+
+                // From now on nobody waits for a request to come back
+                window.release(Integer.MAX_VALUE / 2);
+            }
+        }
+
+        for (Integer id : requests.keySet()) {
+            Request request = requests.remove(id);
+            if (request != null)
+                request.done.countDown();
+        }
+
+    } // fail
+
+    /**
+     * A request in flight: where its results go and who is waiting for them.
+     */
+    private static class Request {
+
+        final double []      out;          // Receives the results
+        final int            outOffset;    // The index of the first result in out
+        final int            count;        // The number of vectors
+        final CountDownLatch done;         // Counted down once the results are in out
+
+        Request (double [] out, int outOffset, int count, CountDownLatch done) {
+            this.out = out;
+            this.outOffset = outOffset;
+            this.count = count;
+            this.done = done;
+        } // Constructor
+
+    } // Request
+
+} // RemoteProblem
@@ -0,0 +1,341 @@
+package Benchmarks;
+
+import java.util.Arrays;
+
+/**
+ * Base class for the WFG problems.
+ *
+ * Each problem consists of minimizing nObj functions of n = k + l decision variables, variable i in [0, 2(i + 1)]. The
+ * first k variables (position-related) place a vector along the Pareto-optimal front, the last l (distance-related)
+ * decide its distance from it. A problem is given by a sequence of transformations, which reduce the normalized
+ * decision vector y to nObj values t, and by the shape of its front:
+ *
+ * f_m = x_{nObj-1} + 2(m + 1) h_m(x_0, ..., x_{nObj-2}), with x_{nObj-1} = t_{nObj-1} and
+ * x_i = max(t_{nObj-1}, A_i)(t_i - 0.5) + 0.5 for the others.
+ *
+ * The problems came from Huband et al. in https://doi.org/10.1109/TEVC.2005.861417.
+ *
+ * NOTES:
+ *
+ * (1) No optimized MGPSO parameters were published for these problems, the ones optimized for ZDT1 are used with
+ *     25 particles per swarm (see DTLZ).
+ *
+ * (2) Every transformation takes time linear in n (n log n for the non-separable reductions), the reductions over the
+ *     rest of the vector of WFG7 to WFG9 use running sums instead of summing again for every variable. Each thread
+ *     evaluates in its own scratch space, so evaluating doesn't allocate.
+ */
+public abstract class WFG extends Problem {
+
+    public final int                 k;          // The number of position-related decision variables
+    public final int                 l;          // The number of distance-related decision variables
+
+    private final ThreadLocal<Scratch> scratch;  // The scratch space of each thread evaluating this problem
+
+    /**
+     * Initializes the problem.
+     * @param n    Number of problem dimensions, more than k.
+     * @param nObj Number of objectives, at least 2.
+     * @param k    Number of position-related decision variables, a multiple of nObj - 1.
+     */
+    public WFG (int n, int nObj, int k) {
+
+        super(n, nObj, 25, 25, 3, 0.475, 1.80, 1.10, 1.80);
+
+        if (nObj < 2 || k < 1 || k % (nObj - 1) != 0 || n <= k)
+            throw new IllegalArgumentException("A WFG problem needs at least 2 objectives, k a multiple of nObj - 1 " +
+                                               "and n more than k, got n = " + n + ", nObj = " + nObj + ", k = " + k +
+                                               ".");
+
+        this.k = k;
+        l = n - k;
+
+        // Initializing the mins
+        double [] mins = new double [this.n];
+        setMins(mins);
+
+        // Initializing the maxs, 2, 4, ..., 2n
+        double [] maxs = new double [this.n];
+        for (int i = 0; i < maxs.length; i++) maxs[i] = 2 * (i + 1);
+        setMaxs(maxs);
+
+        scratch = ThreadLocal.withInitial(() -> new Scratch(this.n, this.nObj));
+
+    } // Constructor
+
+    /**
+     * Reduces a normalized decision vector to the nObj values t: t_0 to t_{nObj-2} from the position-related variables,
+     * t_{nObj-1} from the distance-related ones.
+     * @param y    The normalized decision vector, y_i = z_i / 2(i + 1), transformed in place.
+     * @param work Scratch space of length n.
+     * @param t    Receives the nObj values.
+     */
+    protected abstract void transform (double [] y, double [] work, double [] t);
+
+    /**
+     * The shape function h_m of the front.
+     * @param x The position on the front, x_0 to x_{nObj-2} are used.
+     * @param m The objective.
+     * @return  double, h_m(x).
+     */
+    protected abstract double shape (double [] x, int m);
+
+    /**
+     * The degeneracy constant A_i, 1 unless the front is degenerate (see WFG3).
+     * @param i The index of the position-related value, 0 to nObj - 2.
+     * @return  double, A_i.
+     */
+    protected double degeneracy (int i) {
+        return 1;
+    } // degeneracy
+
+    /**
+     * Evaluates one decision vector stored at an offset of a larger array on every objective.
+     * @param xs        The array holding the decision vector.
+     * @param offset    The index of the first decision variable in xs.
+     * @param out       Receives the fitness values of the vector.
+     * @param outOffset The index of the fitness on the first objective in out.
+     */
+    @Override
+    protected void evaluate (double [] xs, int offset, double [] out, int outOffset) {
+
+        Scratch s = scratch.get();
+
+        for (int i = 0; i < n; i++)
+            s.y[i] = xs[offset + i] / (2 * (i + 1));
+
+        transform(s.y, s.work, s.x);
+
+        // The position on the front
+        double distance = s.x[nObj - 1];
+        for (int i = 0; i < nObj - 1; i++)
+            s.x[i] = Math.max(distance, degeneracy(i)) * (s.x[i] - 0.5) + 0.5;
+
+        for (int m = 0; m < nObj; m++)
+            out[outOffset + m] = distance + 2 * (m + 1) * shape(s.x, m);
+
+    } // evaluate
+
+    /**
+     * Reduces the position-related variables to t_0 to t_{nObj-2} with r_sum and equal weights, one group of
+     * k / (nObj - 1) variables per value, and the distance-related ones to t_{nObj-1}.
+     * @param y            The transformed vector.
+     * @param distanceFrom The index of the first distance-related value in y.
+     * @param distanceTo   The index after the last distance-related value in y.
+     * @param t            Receives the nObj values.
+     */
+    protected void reduceBySum (double [] y, int distanceFrom, int distanceTo, double [] t) {
+
+        int group = k / (nObj - 1);
+        for (int m = 0; m < nObj - 1; m++)
+            t[m] = rSum(y, m * group, (m + 1) * group);
+        t[nObj - 1] = rSum(y, distanceFrom, distanceTo);
+
+    } // reduceBySum
+
+    /**
+     * Reduces the position-related variables to t_0 to t_{nObj-2} with r_nonsep, one group of k / (nObj - 1) variables
+     * per value, and the distance-related ones to t_{nObj-1}.
+     * @param y    The transformed vector.
+     * @param work Scratch space of length n.
+     * @param t    Receives the nObj values.
+     */
+    protected void reduceNonSeparably (double [] y, double [] work, double [] t) {
+
+        int group = k / (nObj - 1);
+        for (int m = 0; m < nObj - 1; m++)
+            t[m] = rNonsep(y, m * group, (m + 1) * group, work);
+        t[nObj - 1] = rNonsep(y, k, n, work);
+
+    } // reduceNonSeparably
+
+    /**
+     * The bias transformation b_poly.
+     * @return double, y^alpha.
+     */
+    protected static double bPoly (double y, double alpha) {
+        return unit(Math.pow(y, alpha));
+    } // bPoly
+
+    /**
+     * The bias transformation b_flat, which maps every value in [B, C] to A.
+     */
+    protected static double bFlat (double y, double A, double B, double C) {
+        return unit(A + Math.min(0, Math.floor(y - B)) * A * (B - y) / B -
+                    Math.min(0, Math.floor(C - y)) * (1 - A) * (y - C) / (1 - C));
+    } // bFlat
+
+    /**
+     * The bias transformation b_param, which biases y by a power depending on another value u.
+     */
+    protected static double bParam (double y, double u, double A, double B, double C) {
+        double v = A - (1 - 2 * u) * Math.abs(Math.floor(0.5 - u) + A);
+        return unit(Math.pow(y, B + (C - B) * v));
+    } // bParam
+
+    /**
+     * The shift transformation s_linear, which moves the optimum of y to A.
+     */
+    protected static double sLinear (double y, double A) {
+        return unit(Math.abs(y - A) / Math.abs(Math.floor(A - y) + A));
+    } // sLinear
+
+    /**
+     * The shift transformation s_decept, with a global optimum at A of width B and deceptive optima at 0 and 1 of
+     * value C.
+     */
+    protected static double sDecept (double y, double A, double B, double C) {
+        double a = Math.floor(y - A + B) * (1 - C + (A - B) / B) / (A - B);
+        double b = Math.floor(A + B - y) * (1 - C + (1 - A - B) / B) / (1 - A - B);
+        return unit(1 + (Math.abs(y - A) - B) * (a + b + 1 / B));
+    } // sDecept
+
+    /**
+     * The shift transformation s_multi, with A local minima of hill size B and a global optimum at C.
+     */
+    protected static double sMulti (double y, double A, double B, double C) {
+        double distance = Math.abs(y - C) / (2 * (Math.floor(C - y) + C));
+        return unit((1 + Math.cos((4 * A + 2) * Math.PI * (0.5 - distance)) + 4 * B * distance * distance) / (B + 2));
+    } // sMulti
+
+    /**
+     * The reduction r_sum with equal weights.
+     * @return double, the mean of y[from] to y[to - 1].
+     */
+    protected static double rSum (double [] y, int from, int to) {
+
+        double sum = 0;
+        for (int i = from; i < to; i++)
+            sum += y[i];
+
+        return unit(sum / (to - from));
+
+    } // rSum
+
+    /**
+     * The reduction r_sum with the weights 2(i + 1) of WFG1.
+     * @return double, the weighted mean of y[from] to y[to - 1].
+     */
+    protected static double rWeightedSum (double [] y, int from, int to) {
+
+        double sum = 0, weights = 0;
+        for (int i = from; i < to; i++) {
+            sum += 2 * (i + 1) * y[i];
+            weights += 2 * (i + 1);
+        }
+
+        return unit(sum / weights);
+
+    } // rWeightedSum
+
+    /**
+     * The reduction r_nonsep with A the size of the group, as every WFG problem uses it, where every pair of values of
+     * the group interacts: (sum of y_j + sum over pairs i != j of |y_i - y_j|) / (ceil(A / 2)(1 + 2A - 2 ceil(A / 2))).
+     * The sum over pairs is taken over the sorted values, sum of s_j (2j - A + 1), in time A log A instead of A^2.
+     * @param y    The values.
+     * @param from The index of the first value of the group.
+     * @param to   The index after the last value of the group.
+     * @param work Scratch space of length to - from at least.
+     * @return     double, r_nonsep(y[from], ..., y[to - 1]).
+     */
+    protected static double rNonsep (double [] y, int from, int to, double [] work) {
+
+        int A = to - from;
+        System.arraycopy(y, from, work, 0, A);
+        Arrays.sort(work, 0, A);
+
+        double sum = 0, pairs = 0;
+        for (int j = 0; j < A; j++) {
+            sum += work[j];
+            pairs += work[j] * (2 * j - A + 1);
+        }
+        int half = (A + 1) / 2;
+
+        return unit((sum + 2 * pairs) / (half * (1.0 + 2 * A - 2 * half)));
+
+    } // rNonsep
+
+    /**
+     * The linear shape: x_0 ... x_{nObj-m-2} (1 - x_{nObj-m-1}), with no last factor for the first objective.
+     */
+    protected double linear (double [] x, int m) {
+
+        double h = 1;
+        for (int i = 0; i < nObj - 1 - m; i++)
+            h *= x[i];
+        if (m > 0)
+            h *= 1 - x[nObj - 1 - m];
+
+        return h;
+
+    } // linear
+
+    /**
+     * The convex shape: (1 - cos(x_0 pi / 2)) ... (1 - cos(x_{nObj-m-2} pi / 2)) (1 - sin(x_{nObj-m-1} pi / 2)).
+     */
+    protected double convex (double [] x, int m) {
+
+        double h = 1;
+        for (int i = 0; i < nObj - 1 - m; i++)
+            h *= 1 - Math.cos(x[i] * Math.PI / 2);
+        if (m > 0)
+            h *= 1 - Math.sin(x[nObj - 1 - m] * Math.PI / 2);
+
+        return h;
+
+    } // convex
+
+    /**
+     * The concave shape: sin(x_0 pi / 2) ... sin(x_{nObj-m-2} pi / 2) cos(x_{nObj-m-1} pi / 2).
+     */
+    protected double concave (double [] x, int m) {
+
+        double h = 1;
+        for (int i = 0; i < nObj - 1 - m; i++)
+            h *= Math.sin(x[i] * Math.PI / 2);
+        if (m > 0)
+            h *= Math.cos(x[nObj - 1 - m] * Math.PI / 2);
+
+        return h;
+
+    } // concave
+
+    /**
+     * The mixed convex/concave shape of the last objective, with A segments.
+     */
+    protected static double mixed (double [] x, double alpha, double A) {
+        return Math.pow(1 - x[0] - Math.cos(2 * A * Math.PI * x[0] + Math.PI / 2) / (2 * A * Math.PI), alpha);
+    } // mixed
+
+    /**
+     * The disconnected shape of the last objective, with A regions.
+     */
+    protected static double disc (double [] x, double alpha, double beta, double A) {
+        double c = Math.cos(A * Math.pow(x[0], beta) * Math.PI);
+        return 1 - Math.pow(x[0], alpha) * c * c;
+    } // disc
+
+    /**
+     * Keeps a transformed value in [0, 1], which rounding may push it out of.
+     */
+    private static double unit (double y) {
+        return Math.min(Math.max(y, 0), 1);
+    } // unit
+
+    /**
+     * The scratch space of one thread.
+     */
+    private static class Scratch {
+
+        final double [] y;       // The normalized decision vector being transformed
+        final double [] work;    // Scratch for the non-separable reductions
+        final double [] x;       // The values t, then the position on the front
+
+        Scratch (int n, int nObj) {
+            y = new double [n];
+            work = new double [n];
+            x = new double [nObj];
+        } // Constructor
+
+    } // Scratch
+
+} // WFG
@@ -0,0 +1,58 @@
+package Benchmarks;
+
+/**
+ * WFG problem 1. Separable and uni-modal, with a flat region and a strong polynomial bias, on a convex front with a
+ * mixed last objective.
+ */
+public class WFG1 extends WFG {
+
+    /**
+     * Initializes the problem with 3 objectives, k = 4 position-related and l = 20 distance-related variables, as
+     * suggested by Huband et al.
+     */
+    public WFG1 () {
+        this(24, 3);
+    } // Constructor
+
+    /**
+     * Initializes the problem with k = 2(nObj - 1) position-related variables.
+     * @param n    Number of problem dimensions, more than 2(nObj - 1).
+     * @param nObj Number of objectives, at least 2.
+     */
+    public WFG1 (int n, int nObj) {
+        this(n, nObj, 2 * (nObj - 1));
+    } // Constructor
+
+    /**
+     * Initializes the problem.
+     * @param n    Number of problem dimensions, more than k.
+     * @param nObj Number of objectives, at least 2.
+     * @param k    Number of position-related decision variables, a multiple of nObj - 1.
+     */
+    public WFG1 (int n, int nObj, int k) {
+        super(n, nObj, k);
+    } // Constructor
+
+    @Override
+    protected void transform (double [] y, double [] work, double [] t) {
+
+        for (int i = k; i < n; i++)
+            y[i] = bFlat(sLinear(y[i], 0.35), 0.8, 0.75, 0.85);
+
+        for (int i = 0; i < n; i++)
+            y[i] = bPoly(y[i], 0.02);
+
+        // Weighted reductions
+        int group = k / (nObj - 1);
+        for (int m = 0; m < nObj - 1; m++)
+            t[m] = rWeightedSum(y, m * group, (m + 1) * group);
+        t[nObj - 1] = rWeightedSum(y, k, n);
+
+    } // transform
+
+    @Override
+    protected double shape (double [] x, int m) {
+        return m < nObj - 1 ? convex(x, m) : mixed(x, 1, 5);
+    } // shape
+
+} // WFG1
@@ -0,0 +1,69 @@
+package Benchmarks;
+
+/**
+ * WFG problem 3. Non-separable distance-related variables, like WFG2, on a linear degenerate front.
+ */
+public class WFG3 extends WFG {
+
+    /**
+     * Initializes the problem with 3 objectives, k = 4 position-related and l = 20 distance-related variables, as
+     * suggested by Huband et al.
+     */
+    public WFG3 () {
+        this(24, 3);
+    } // Constructor
+
+    /**
+     * Initializes the problem with k = 2(nObj - 1) position-related variables.
+     * @param n    Number of problem dimensions, more than 2(nObj - 1).
+     * @param nObj Number of objectives, at least 2.
+     */
+    public WFG3 (int n, int nObj) {
+        this(n, nObj, 2 * (nObj - 1));
+    } // Constructor
+
+    /**
+     * Initializes the problem.
+     * @param n    Number of problem dimensions, more than k.
+     * @param nObj Number of objectives, at least 2.
+     * @param k    Number of position-related decision variables, a multiple of nObj - 1.
+     */
+    public WFG3 (int n, int nObj, int k) {
+
+        super(n, nObj, k);
+
+        if (l % 2 != 0)
+            throw new IllegalArgumentException("WFG3 needs an even number of distance-related variables, got " +
+                                               l + ".");
+
+    } // Constructor
+
+    @Override
+    protected void transform (double [] y, double [] work, double [] t) {
+
+        // Shift the distance-related variables
+        for (int i = k; i < n; i++)
+            y[i] = sLinear(y[i], 0.35);
+
+        // Pairs of distance-related variables interact, they are reduced to one value each
+        for (int j = 0; j < l / 2; j++)
+            y[k + j] = rNonsep(y, k + 2 * j, k + 2 * j + 2, work);
+
+        reduceBySum(y, k, k + l / 2, t);
+
+    } // transform
+
+    @Override
+    protected double shape (double [] x, int m) {
+        return linear(x, m);
+    } // shape
+
+    /**
+     * Only the first position on the front is free, so the front is a line whatever the number of objectives.
+     */
+    @Override
+    protected double degeneracy (int i) {
+        return i == 0 ? 1 : 0;
+    } // degeneracy
+
+} // WFG3
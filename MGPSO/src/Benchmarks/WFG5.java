@@ -0,0 +1,50 @@
+package Benchmarks;
+
+/**
+ * WFG problem 5. Separable and deceptive, on a concave front.
+ */
+public class WFG5 extends WFG {
+
+    /**
+     * Initializes the problem with 3 objectives, k = 4 position-related and l = 20 distance-related variables, as
+     * suggested by Huband et al.
+     */
+    public WFG5 () {
+        this(24, 3);
+    } // Constructor
+
+    /**
+     * Initializes the problem with k = 2(nObj - 1) position-related variables.
+     * @param n    Number of problem dimensions, more than 2(nObj - 1).
+     * @param nObj Number of objectives, at least 2.
+     */
+    public WFG5 (int n, int nObj) {
+        this(n, nObj, 2 * (nObj - 1));
+    } // Constructor
+
+    /**
+     * Initializes the problem.
+     * @param n    Number of problem dimensions, more than k.
+     * @param nObj Number of objectives, at least 2.
+     * @param k    Number of position-related decision variables, a multiple of nObj - 1.
+     */
+    public WFG5 (int n, int nObj, int k) {
+        super(n, nObj, k);
+    } // Constructor
+
+    @Override
+    protected void transform (double [] y, double [] work, double [] t) {
+
+        for (int i = 0; i < n; i++)
+            y[i] = sDecept(y[i], 0.35, 0.001, 0.05);
+
+        reduceBySum(y, k, n, t);
+
+    } // transform
+
+    @Override
+    protected double shape (double [] x, int m) {
+        return concave(x, m);
+    } // shape
+
+} // WFG5
@@ -0,0 +1,50 @@
+package Benchmarks;
+
+/**
+ * WFG problem 6. Non-separable and uni-modal, on a concave front.
+ */
+public class WFG6 extends WFG {
+
+    /**
+     * Initializes the problem with 3 objectives, k = 4 position-related and l = 20 distance-related variables, as
+     * suggested by Huband et al.
+     */
+    public WFG6 () {
+        this(24, 3);
+    } // Constructor
+
+    /**
+     * Initializes the problem with k = 2(nObj - 1) position-related variables.
+     * @param n    Number of problem dimensions, more than 2(nObj - 1).
+     * @param nObj Number of objectives, at least 2.
+     */
+    public WFG6 (int n, int nObj) {
+        this(n, nObj, 2 * (nObj - 1));
+    } // Constructor
+
+    /**
+     * Initializes the problem.
+     * @param n    Number of problem dimensions, more than k.
+     * @param nObj Number of objectives, at least 2.
+     * @param k    Number of position-related decision variables, a multiple of nObj - 1.
+     */
+    public WFG6 (int n, int nObj, int k) {
+        super(n, nObj, k);
+    } // Constructor
+
+    @Override
+    protected void transform (double [] y, double [] work, double [] t) {
+
+        for (int i = k; i < n; i++)
+            y[i] = sLinear(y[i], 0.35);
+
+        reduceNonSeparably(y, work, t);
+
+    } // transform
+
+    @Override
+    protected double shape (double [] x, int m) {
+        return concave(x, m);
+    } // shape
+
+} // WFG6
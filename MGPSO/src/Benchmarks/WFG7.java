@@ -0,0 +1,60 @@
+package Benchmarks;
+
+/**
+ * WFG problem 7. Separable and uni-modal, with the position-related variables biased by the rest of the vector, on a
+ * concave front.
+ */
+public class WFG7 extends WFG {
+
+    /**
+     * Initializes the problem with 3 objectives, k = 4 position-related and l = 20 distance-related variables, as
+     * suggested by Huband et al.
+     */
+    public WFG7 () {
+        this(24, 3);
+    } // Constructor
+
+    /**
+     * Initializes the problem with k = 2(nObj - 1) position-related variables.
+     * @param n    Number of problem dimensions, more than 2(nObj - 1).
+     * @param nObj Number of objectives, at least 2.
+     */
+    public WFG7 (int n, int nObj) {
+        this(n, nObj, 2 * (nObj - 1));
+    } // Constructor
+
+    /**
+     * Initializes the problem.
+     * @param n    Number of problem dimensions, more than k.
+     * @param nObj Number of objectives, at least 2.
+     * @param k    Number of position-related decision variables, a multiple of nObj - 1.
+     */
+    public WFG7 (int n, int nObj, int k) {
+        super(n, nObj, k);
+    } // Constructor
+
+    @Override
+    protected void transform (double [] y, double [] work, double [] t) {
+
+        // Bias each position-related variable by the mean of the variables after it, as they were before this step
+        double suffix = 0;
+        for (int i = n - 1; i >= 0; i--) {
+            double original = y[i];
+            if (i < k)
+                y[i] = bParam(y[i], suffix / (n - 1 - i), 0.98 / 49.98, 0.02, 50);
+            suffix += original;
+        }
+
+        for (int i = k; i < n; i++)
+            y[i] = sLinear(y[i], 0.35);
+
+        reduceBySum(y, k, n, t);
+
+    } // transform
+
+    @Override
+    protected double shape (double [] x, int m) {
+        return concave(x, m);
+    } // shape
+
+} // WFG7
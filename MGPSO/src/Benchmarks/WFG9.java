@@ -0,0 +1,61 @@
+package Benchmarks;
+
+/**
+ * WFG problem 9. Non-separable, deceptive and multi-modal, with every variable biased by the variables after it, on a
+ * concave front.
+ */
+public class WFG9 extends WFG {
+
+    /**
+     * Initializes the problem with 3 objectives, k = 4 position-related and l = 20 distance-related variables, as
+     * suggested by Huband et al.
+     */
+    public WFG9 () {
+        this(24, 3);
+    } // Constructor
+
+    /**
+     * Initializes the problem with k = 2(nObj - 1) position-related variables.
+     * @param n    Number of problem dimensions, more than 2(nObj - 1).
+     * @param nObj Number of objectives, at least 2.
+     */
+    public WFG9 (int n, int nObj) {
+        this(n, nObj, 2 * (nObj - 1));
+    } // Constructor
+
+    /**
+     * Initializes the problem.
+     * @param n    Number of problem dimensions, more than k.
+     * @param nObj Number of objectives, at least 2.
+     * @param k    Number of position-related decision variables, a multiple of nObj - 1.
+     */
+    public WFG9 (int n, int nObj, int k) {
+        super(n, nObj, k);
+    } // Constructor
+
+    @Override
+    protected void transform (double [] y, double [] work, double [] t) {
+
+        // Bias each variable but the last by the mean of the variables after it, as they were before this step
+        double suffix = y[n - 1];
+        for (int i = n - 2; i >= 0; i--) {
+            double original = y[i];
+            y[i] = bParam(y[i], suffix / (n - 1 - i), 0.98 / 49.98, 0.02, 50);
+            suffix += original;
+        }
+
+        for (int i = 0; i < k; i++)
+            y[i] = sDecept(y[i], 0.35, 0.001, 0.05);
+        for (int i = k; i < n; i++)
+            y[i] = sMulti(y[i], 30, 95, 0.35);
+
+        reduceNonSeparably(y, work, t);
+
+    } // transform
+
+    @Override
+    protected double shape (double [] x, int m) {
+        return concave(x, m);
+    } // shape
+
+} // WFG9
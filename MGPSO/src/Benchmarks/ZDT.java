@@ -0,0 +1,128 @@
+package Benchmarks;
+
+import java.util.Arrays;
+
+/**
+ * Base class for the ZDT problems.
+ *
+ * Each problem consists of minimizing two functions: f1 & f2.
+ *
+ * The problems came from Zitzler et al. in https://dl.acm.org/doi/10.1162/106365600568202.
+ *
+ * NOTES:
+ *
+ * (1) The optimized MGPSO parameters are taken from the original paper.
+ *
+ * (2) f2 is g * h(f1, g), so a problem is given by its functions f1, g and h.
+ */
+public abstract class ZDT extends Problem {
+
+    /**
+     * Initializes the problem with the optimized MGPSO parameters.
+     * @param n     Number of problem dimensions
+     * @param S1    Cardinality of the first swarm
+     * @param S2    Cardinality of the second swarm
+     * @param T     Tournament size
+     * @param w     Inertia weight
+     * @param c1    Cognitive acceleration coefficient
+     * @param c2    Social acceleration coefficient
+     * @param c3    Archive acceleration coefficient
+     */
+    public ZDT (int n, int S1, int S2, int T, double w, double c1, double c2, double c3) {
+        super(n, 2, S1, S2, T, w, c1, c2, c3);
+    } // Constructor
+
+    /**
+     * Function f1.
+     * @param x The decision vector.
+     * @return  double, f1(x).
+     */
+    public abstract double f1 (double [] x);
+
+    /**
+     * Function f1 of a decision vector stored at an offset of a larger array, e.g. a swarm's block of positions. The
+     * vector is copied out by default, the problems override this to read it in place.
+     * @param x      The array holding the decision vector.
+     * @param offset The index of the first decision variable in x.
+     * @return       double, f1(x[offset], ..., x[offset + n - 1]).
+     */
+    public double f1 (double [] x, int offset) {
+        return f1(Arrays.copyOfRange(x, offset, offset + n));
+    } // f1
+
+    /**
+     * Function g.
+     * @param x The decision vector.
+     * @return  double, g(x).
+     */
+    public abstract double g (double [] x);
+
+    /**
+     * Function g of a decision vector stored at an offset of a larger array, see f1(double [], int).
+     * @param x      The array holding the decision vector.
+     * @param offset The index of the first decision variable in x.
+     * @return       double, g(x[offset], ..., x[offset + n - 1]).
+     */
+    public double g (double [] x, int offset) {
+        return g(Arrays.copyOfRange(x, offset, offset + n));
+    } // g
+
+    /**
+     * Function h.
+     * @param f1 The resulting value from evaluating f1.
+     * @param g  The resulting value from evaluating g.
+     * @return   double, h(f1, g).
+     */
+    public abstract double h (double f1, double g);
+
+    /**
+     * Function f2, which is the result of multiplying the result of function g by function h.
+     * @param g The resulting value from evaluating g.
+     * @param h The resulting value from evaluating h.
+     * @return  double, g * h.
+     */
+    public double f2 (double g, double h) {return g * h;}
+
+    /**
+     * Gives the fitness of a decision vector on a specified objective, only evaluating what that objective needs.
+     * @param objIndex The objective (either 0 or 1, the same index as the swarms use).
+     * @param x        The decision vector.
+     * @return         double, f1(x) or f2(g, h) depending on the objective selected.
+     */
+    @Override
+    public double fitness (int objIndex, double [] x) {
+
+        if (objIndex == 0)
+            return f1(x);
+
+        else if (objIndex == 1) {
+            double f1 = f1(x);
+            double g = g(x);
+            return f2(g, h(f1, g));
+        }
+
+        else
+            return Double.MAX_VALUE;
+
+    } // fitness
+
+    /**
+     * Evaluates one decision vector stored at an offset of a larger array on both objectives.
+     * @param xs        The array holding the decision vector.
+     * @param offset    The index of the first decision variable in xs.
+     * @param out       Receives the fitness values of the vector.
+     * @param outOffset The index of the fitness on the first objective in out.
+     */
+    @Override
+    protected void evaluate (double [] xs, int offset, double [] out, int outOffset) {
+
+        double f1 = f1(xs, offset);
+        double g = g(xs, offset);
+        double h = h(f1, g);
+
+        out[outOffset] = f1;
+        out[outOffset + 1] = f2(g, h);
+
+    } // evaluate
+
+} // ZDT
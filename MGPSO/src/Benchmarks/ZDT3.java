@@ -1,54 +1,76 @@
-package Benchmarks;
-
-import java.util.Arrays;
-
-/**
- * ZDT problem 3.
- *
- * @author Liam McDevitt
- */
-public class ZDT3 extends Problem {
-
-    /**
-     * Initializes the problem with the optimized MGPSO parameters.
-     */
-    public ZDT3() {
-
-        // Initializing the ZDT3 problem to the optimized parameters presented in the original MGPSO paper.
-        super(30, 2, 8, 42, 3, 0.05, 1.85, 1.90, 1.90);
-
-        // Initializing the mins
-        double [] mins = new double [this.n];
-        Arrays.fill(mins, 0);
-        setMins(mins);
-
-        // Initializing the maxs
-        double [] maxs = new double [this.n];
-        Arrays.fill(maxs, 1);
-        setMaxs(maxs);
-
-    } // Constructor
-
-    @Override
-    public double f1(double[] x) {
-        return x[0];
-    } // f1
-
-    @Override
-    public double g(double[] x) {
-
-        double sum = 0;
-
-        for (int i = 1; i < this.n; i++)
-            sum += (x[i] / (this.n - 1));
-
-        return 1 + (9 * sum);
-
-    } // g
-
-    @Override
-    public double h(double f1, double g) {
-        return 1.0 - Math.sqrt(f1 / g) - ((f1 / g) * Math.sin(10 * Math.PI * f1));
-    } // h
-
-} // ZDT3
+package Benchmarks;
+
+import java.util.Arrays;
+
+/**
+ * ZDT problem 3.
+ *
+ * @author Liam McDevitt
+ */
+public class ZDT3 extends ZDT {
+
+    /**
+     * Initializes the problem with the optimized MGPSO parameters.
+     */
+    public ZDT3() {
+        this(30);
+    } // Constructor
+
+    /**
+     * Initializes the problem with the optimized MGPSO parameters and a different number of decision variables, e.g. to
+     * see how something scales with the dimensions. The parameters were optimized for 30 decision variables.
+     * @param n Number of problem dimensions, at least 2.
+     */
+    public ZDT3(int n) {
+
+        // Initializing the ZDT3 problem to the optimized parameters presented in the original MGPSO paper.
+        super(n, 8, 42, 3, 0.05, 1.85, 1.90, 1.90);
+
+        // Initializing the mins
+        double [] mins = new double [this.n];
+        Arrays.fill(mins, 0);
+        setMins(mins);
+
+        // Initializing the maxs
+        double [] maxs = new double [this.n];
+        Arrays.fill(maxs, 1);
+        setMaxs(maxs);
+
+    } // Constructor
+
+    @Override
+    public double f1(double[] x) {
+        return f1(x, 0);
+    } // f1
+
+    @Override
+    public double f1(double[] x, int offset) {
+        return x[offset];
+    } // f1
+
+    @Override
+    public double g(double[] x) {
+        return g(x, 0);
+    } // g
+
+    @Override
+    public double g(double[] x, int offset) {
+
+        if (isVectorized())
+            return 1 + (9 * (unrolledSum(x, offset + 1, offset + this.n) / (this.n - 1)));
+
+        double sum = 0;
+
+        for (int i = 1; i < this.n; i++)
+            sum += (x[offset + i] / (this.n - 1));
+
+        return 1 + (9 * sum);
+
+    } // g
+
+    @Override
+    public double h(double f1, double g) {
+        return 1.0 - Math.sqrt(f1 / g) - ((f1 / g) * Math.sin(10 * Math.PI * f1));
+    } // h
+
+} // ZDT3
@@ -0,0 +1,84 @@
+package MGPSO;
+
+import Benchmarks.DTLZ2;
+import Benchmarks.Problem;
+import Benchmarks.ZDT1;
+import java.lang.management.ManagementFactory;
+
+/**
+ * This class checks that iterating doesn't allocate once a run reached its steady state.
+ *
+ * For ZDT1 and DTLZ2, every archive and both movement kernels (see MGPSO.setVectorized), a run is iterated until its
+ * archive is full and move() is called until the JIT compiled it. The bytes the thread allocated over a number of
+ * further calls to move(), then to iterate(), are measured with ThreadMXBean.getThreadAllocatedBytes, and the check
+ * fails when any were allocated.
+ *
+ * Updating the archive reuses the particles it removed and sorts in scratch space, so whole iterations are
+ * allocation-free. The one exception is the NDTreeArchive: its tree grows new nodes when a leaf splits, so its
+ * iterate() figure is printed but not checked.
+ *
+ * Usage: java MGPSO.AllocationCheck, exits with status 1 when the check fails.
+ */
+public class AllocationCheck {
+
+    private static final int ITERATIONS = 300;      // Iterations before measuring, so the archive is full
+    private static final int WARMUP = 20000;        // Calls to move() before measuring, so the JIT compiled it
+    private static final int MEASURED = 1000;       // Calls measured
+
+    /**
+     * Runs the check.
+     * @param args Unused.
+     */
+    public static void main (String[] args) {
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        System.out.printf("%-8s %-20s %-12s %14s %18s\n", "Problem", "Archive", "Kernel", "move() B/call",
+                          "iterate() B/call");
+
+        boolean passed = true;
+        Problem [] problems = {new ZDT1(), new DTLZ2()};
+        String [] archives = {"Archive", "BiObjectiveArchive", "CompactArchive", "NDTreeArchive"};
+        for (Problem p : problems) {
+            for (String archive : archives) {
+                if (archive.equals("BiObjectiveArchive") && p.nObj != 2)
+                    continue;
+                for (boolean vectorized : new boolean [] {false, true}) {
+
+                    RandomStream r = new RandomStream(1);
+                    MGPSO mgpso = new MGPSO(r, p, MicroBenchmark.archive(archive, p, 50));
+                    mgpso.setVectorized(vectorized);
+                    for (int t = 0; t < ITERATIONS; t++)
+                        mgpso.iterate();
+                    for (int i = 0; i < WARMUP; i++)
+                        mgpso.move();
+
+                    long allocated = threads.getThreadAllocatedBytes(thread);
+                    for (int i = 0; i < MEASURED; i++)
+                        mgpso.move();
+                    double move = (double) (threads.getThreadAllocatedBytes(thread) - allocated) / MEASURED;
+
+                    allocated = threads.getThreadAllocatedBytes(thread);
+                    for (int i = 0; i < MEASURED; i++)
+                        mgpso.iterate();
+                    double iterate = (double) (threads.getThreadAllocatedBytes(thread) - allocated) / MEASURED;
+
+                    System.out.printf("%-8s %-20s %-12s %14.1f %18.1f\n", p.getClass().getSimpleName(), archive,
+                                      vectorized ? "vectorized" : "scalar", move, iterate);
+
+                    // Less than a byte per call can only be the measurement itself
+                    if (move >= 1 || iterate >= 1 && !archive.equals("NDTreeArchive"))
+                        passed = false;
+
+                }
+            }
+        }
+
+        System.out.println(passed ? "\nPASSED: iterating doesn't allocate" : "\nFAILED: iterating allocates");
+        if (!passed)
+            System.exit(1);
+
+    } // main
+
+} // AllocationCheck
@@ -1,258 +1,769 @@
-package MGPSO;
-
-import Benchmarks.Problem;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.util.*;
-
-/**
- * This class represents an Archive based on the original MGPSO thesis and resulting MGPSO paper.
- *
- * An archive is used in the MGPSO implementation to help guide particles towards the POF.
- *
- * @author Liam McDevitt
- * Date: 2021-07-09
- */
-public class Archive {
-
-    private Random              r;               // The random instance used for this run's seed
-    private Problem             p;               // The multi-objective problem we're trying to solving
-
-    private int                capacity;        // The maximum capacity of the archive
-    public ArrayList<Particle> pool;            // The set of non-dominated solutions
-
-    /**
-     * Initializes the archive.
-     * @param rand The instance of random used throughout the implementation.
-     * @param prob The problem we're trying to optimize.
-     * @param c    The total number of particle allowed in the archive (capacity).
-     */
-    public Archive (Random rand, Problem prob, int c) {
-
-        // Initialize instance of random
-        r = rand;
-
-        // Initialize problem
-        p = prob;
-
-        // Initialize capacity of the archive
-        capacity = c;
-
-        // Initialize archive pool
-        pool = new ArrayList<>();
-
-    } // Constructor
-
-    /**
-     * Tournament selection on the archive for the MGPSO velocity update.
-     * @param k The number of selected competitors.
-     * @return  double [], the position of the winner of the tournament (largest crowding distance).
-     */
-    public double [] selection (int k) {
-
-        // Calculating the crowding distances
-        calculateCrowdingDistance();
-
-        // Creating a competing list
-        ArrayList<Particle> competing = new ArrayList<>();
-
-        // Randomly selecting k particles from the pool to compete
-        for (int i = 0; i < k; i++)
-            competing.add(pool.get(r.nextInt(pool.size())));
-
-        // Sorting the particles based on their crowding distance
-        competing.sort(Comparator.comparingDouble(particle -> particle.crowdingDistance));
-
-        // Return the position of the particle with the largest crowding distance (the least crowded)
-        return competing.get(competing.size() - 1).getPositionCopy();
-
-    } // selection
-
-    /**
-     * Checks if a particle is not dominated by any other in the pool.
-     * @param x The particle we're checking for non-domination.
-     * @return  boolean, true is the particle is non-dominated, false otherwise.
-     */
-    public boolean isNonDominated (Particle x) {
-
-        double [] f_x = x.getFitnesses();
-
-        for (Particle particle : pool) {
-            double[] f_i = particle.getFitnesses();
-            if (Arrays.equals(f_x, f_i)) continue;
-            if (f_i[0] <= f_x[0] && f_i[1] <= f_x[1])
-                return false;
-        }
-
-        return true;
-
-    } // isNonDominated
-
-    /**
-     * Checking if one particle dominates another.
-     * A particle dominates another if it is at least as fit in all objective than the other and strictly more fit for
-     * at least one of them.
-     * @param a Checking if this particle dominates b.
-     * @param b Checking if this particle is dominated by a.
-     * @return boolean, whether of not particle a dominates particle b.
-     */
-    public static boolean dominates (Particle a, Particle b) {
-
-        if (Arrays.equals(a.getFitnesses(), b.getFitnesses())) return false;
-
-        return a.getFitnesses()[0] <= b.getFitnesses()[0] && a.getFitnesses()[1] <= b.getFitnesses()[1];
-
-    } // dominates
-
-    /**
-     * Calculates the crowding distance between particles within the archive. This is used in our archive management
-     * system as well as our tournament selection process.
-     *
-     * Crowding distance is the normalized sum of individual distance values corresponding to each objective.
-     *
-     * A low crowding distance for a particle means it is similar to other (not great for diversity).
-     *
-     * A higher crowding distance for a particle means is it much different from the others.
-     */
-    public void calculateCrowdingDistance () {
-
-        // Initialize the crowding distance to 0
-        for (Particle particle : pool) particle.crowdingDistance = 0;
-
-        // For each objective
-        for (int m = 0; m < p.nObj; m++) {
-
-            // Need this to use a lambda expression with the loop index
-            final int finalM = m;
-            // Sort archive based on the mth objective fitness values
-            pool.sort(Comparator.comparingDouble(particle -> particle.getFitnesses()[finalM]));
-
-            // Calculating the crowding distance for each particle in the pool
-            for (int i = 0; i < pool.size(); i++) {
-
-                // The particles on either end of the axis have only an inside neighbour
-                if (i == 0 || i == pool.size() - 1)
-                    pool.get(i).crowdingDistance = Double.MAX_VALUE;
-
-                else {
-
-                    // Getting the maximum and minimum fitness values for this objective
-                    double objectiveMax = pool.get(pool.size() - 1).getFitnesses()[m];
-                    double objectiveMin = pool.get(0).getFitnesses()[m];
-
-                    // Getting the fitnesses of the particles to the left and right of the current
-                    double left = pool.get(i - 1).getFitnesses()[m];
-                    double right = pool.get(i + 1).getFitnesses()[m];
-
-                    // Setting the crowding distance
-                    if (objectiveMax != objectiveMin)
-                        pool.get(i).crowdingDistance += (right - left) / (objectiveMax - objectiveMin);
-
-                }
-
-            }
-
-        }
-
-    } // calculateCrowdingDistance
-
-    /**
-     * This method acts as the archive management strategy (AMS).
-     * @param x The particle we're attempting to add to the archive.
-     */
-    public void update (Particle x) {
-
-        if (isNonDominated(x) && !duplicate(x)) {
-            pool.removeIf(particle -> dominates(x, particle));
-            pool.add(x);
-            if (pool.size() > capacity) {
-                removeMostCrowded();
-            }
-        }
-
-    } // update
-
-    /**
-     * Checks if the passed in particle is in the archive.
-     * We can't use .contains on the list for the particle directly because the particles in the archive has
-     * crowding distances set after they enter the archive.
-     * [There may be a better way to represent members of the archive instead of particles]
-     * @param x The particle.
-     * @return  boolean, true if the particle is in the archive. Otherwise, not.
-     */
-    public boolean duplicate (Particle x) {
-
-        for (Particle particle : pool) {
-            if (Arrays.equals(particle.getFitnesses(), x.getFitnesses()))
-                return true;
-        }
-
-        return false;
-
-    } // isDuplicate
-
-    /**
-     * Removes the most crowded individual from the archive.
-     */
-    public void removeMostCrowded () {
-
-        // Calculate the crowding distances of the particle's in the archive to ensure they're up to date
-        calculateCrowdingDistance();
-
-        // Sort the archive based on the crowding distances of the particles from smallest to largest
-        pool.sort(Comparator.comparingDouble(particle -> particle.crowdingDistance));
-
-        // Remove the first particle from the archive because it is the most crowded after sorting
-        pool.remove(0);
-
-    } // removeMostCrowded
-
-    /**
-     * This method prints the fitness for each objective for each particle in the archive in a readable format.
-     */
-    public void printArchive () {
-
-        System.out.println("                   Archive");
-        System.out.println("~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~");
-        System.out.println("        f1        f2          Crowding Distance");
-        for (int i = 0; i < pool.size(); i++) {
-            String label = "P[" + i + "]: ";
-            double f1 = pool.get(i).getFitnesses()[0];
-            double f2 = pool.get(i).getFitnesses()[1];
-            double cD = pool.get(i).crowdingDistance;
-            System.out.printf("%-7s %-10f %-10f %-10f\n", label, f1, f2, cD);
-        }
-
-    } // printPool
-
-    /**
-     * This method prints the fitness for each objective for each particle in the archive for making plots.
-     *
-     * Comma separated format.
-     */
-    public void printArchiveMinimal () {
-        System.out.println("f1,f2");
-        for (Particle particle : pool)
-            System.out.println(particle.getFitnesses()[0] + "," + particle.getFitnesses()[1]);
-    }
-
-    /**
-     * Prints the contents of the archive to the file.
-     * @param run     The specific fun we're printing.
-     * @param problem The problem we're solving.
-     */
-    public void printArchiveToFile (int run, String problem) {
-
-        try {
-            FileWriter f = new FileWriter("RunsTemp/" + problem + "_" + run + ".txt");
-            for (Particle particle : pool)
-                f.write(particle.getFitnesses()[0] + "," + particle.getFitnesses()[1] + "\n");
-            f.close();
-        }
-        catch (IOException e) {
-            System.out.println("Unable to print archive to file.");
-        }
-
-    } // printArchiveToFile
-
-} // Archive
+package MGPSO;
+
+import Benchmarks.Problem;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * This class represents an Archive based on the original MGPSO thesis and resulting MGPSO paper.
+ *
+ * An archive is used in the MGPSO implementation to help guide particles towards the POF.
+ *
+ * @author Liam McDevitt
+ * Date: 2021-07-09
+ */
+public class Archive {
+
+    protected Random            r;               // The random instance used for this run's seed
+    protected Problem           p;               // The multi-objective problem we're trying to solving
+
+    protected int              capacity;        // The maximum capacity of the archive
+    public ArrayList<Particle> pool;            // The set of non-dominated solutions
+    protected boolean          stale;           // Whether the pool changed since the crowding distances were calculated
+
+    protected ArrayList<Particle> spare;        // Particles the archive made and removed since, reused by accept
+
+    // Scratch space, so updating the archive doesn't allocate once it reached its steady state
+    private int []             batch;           // The indices of a batch being sorted and filtered
+    private int []             indices;         // Merge buffer for sorting the indices of a batch
+    private Particle []        members;         // The particles whose crowding distances are being calculated
+    private Particle []        merged;          // Merge buffer for sorting the particles
+
+    private static final int   CROWDING = -1;   // Sorts particles on their crowding distance instead of an objective
+
+    /**
+     * Initializes the archive.
+     * @param rand The instance of random used throughout the implementation.
+     * @param prob The problem we're trying to optimize.
+     * @param c    The total number of particle allowed in the archive (capacity).
+     */
+    public Archive (Random rand, Problem prob, int c) {
+
+        // Initialize instance of random
+        r = rand;
+
+        // Initialize problem
+        p = prob;
+
+        // Initialize capacity of the archive
+        capacity = c;
+
+        // Initialize archive pool
+        pool = new ArrayList<>();
+
+        // An empty pool has no crowding distances to calculate
+        stale = false;
+
+        // Initialize the scratch space, it grows with the largest batch and pool
+        spare = new ArrayList<>();
+        batch = new int [0];
+        indices = new int [0];
+        members = new Particle [0];
+        merged = new Particle [0];
+
+    } // Constructor
+
+    /**
+     * Tournament selection on the archive for the MGPSO velocity update.
+     * @param k The number of selected competitors.
+     * @return  double [], the position of the winner of the tournament (largest crowding distance).
+     */
+    public double [] selection (int k) {
+        double [] result = new double [p.n];
+        selection(k, result);
+        return result;
+    } // selection
+
+    /**
+     * Tournament selection on the archive for the MGPSO velocity update, without allocating.
+     * @param k   The number of selected competitors.
+     * @param out Receives the position of the winner of the tournament (largest crowding distance).
+     */
+    public void selection (int k, double [] out) {
+        selection(k, r, out);
+    } // selection
+
+    /**
+     * Tournament selection on the archive for the MGPSO velocity update, drawing the competitors from a specific stream,
+     * e.g. the stream of the particle the guide is for.
+     * @param k    The number of selected competitors.
+     * @param rand The instance of random the competitors are drawn with.
+     * @param out  Receives the position of the winner of the tournament (largest crowding distance).
+     */
+    public void selection (int k, Random rand, double [] out) {
+
+        // Calculating the crowding distances, only if the pool has changed since they were last calculated
+        if (stale)
+            calculateCrowdingDistance();
+
+        // Randomly selecting k particles from the pool to compete, keeping the one with the largest crowding distance
+        // (the least crowded). Ties go to the competitor drawn last.
+        Particle winner = pool.get(rand.nextInt(pool.size()));
+        for (int i = 1; i < k; i++) {
+            Particle competitor = pool.get(rand.nextInt(pool.size()));
+            if (competitor.crowdingDistance >= winner.crowdingDistance)
+                winner = competitor;
+        }
+
+        // Copy out the position of the winner of the tournament
+        System.arraycopy(winner.getPosition(), 0, out, 0, p.n);
+
+    } // selection
+
+    /**
+     * Brings everything selection depends on up to date, i.e. the crowding distances. Until the archive is next updated,
+     * selection then only reads the archive and can be called from several threads at once, each with its own instance
+     * of random.
+     */
+    public void prepareSelection () {
+        if (stale)
+            calculateCrowdingDistance();
+    } // prepareSelection
+
+    /**
+     * Checks if a particle is not dominated by any other in the pool.
+     * @param x The particle we're checking for non-domination.
+     * @return  boolean, true is the particle is non-dominated, false otherwise.
+     */
+    public boolean isNonDominated (Particle x) {
+
+        double [] f_x = x.getFitnesses();
+
+        for (Particle particle : pool) {
+            double[] f_i = particle.getFitnesses();
+            if (Arrays.equals(f_x, f_i)) continue;
+            if (weaklyDominates(f_i, f_x))
+                return false;
+        }
+
+        return true;
+
+    } // isNonDominated
+
+    /**
+     * Checking if one particle dominates another.
+     * A particle dominates another if it is at least as fit in all objective than the other and strictly more fit for
+     * at least one of them.
+     * @param a Checking if this particle dominates b.
+     * @param b Checking if this particle is dominated by a.
+     * @return boolean, whether of not particle a dominates particle b.
+     */
+    public static boolean dominates (Particle a, Particle b) {
+
+        if (Arrays.equals(a.getFitnesses(), b.getFitnesses())) return false;
+
+        return weaklyDominates(a.getFitnesses(), b.getFitnesses());
+
+    } // dominates
+
+    /**
+     * Checking if one fitness vector weakly dominates another, i.e. it is at least as fit in all objectives.
+     * @param a Checking if these fitnesses weakly dominate b.
+     * @param b Checking if these fitnesses are weakly dominated by a.
+     * @return  boolean, whether or not a is smaller than or equal to b on every objective.
+     */
+    public static boolean weaklyDominates (double [] a, double [] b) {
+
+        for (int m = 0; m < a.length; m++)
+            if (a[m] > b[m])
+                return false;
+
+        return true;
+
+    } // weaklyDominates
+
+    /**
+     * Calculates the crowding distance between particles within the archive. This is used in our archive management
+     * system as well as our tournament selection process.
+     *
+     * Crowding distance is the normalized sum of individual distance values corresponding to each objective.
+     *
+     * A low crowding distance for a particle means it is similar to other (not great for diversity).
+     *
+     * A higher crowding distance for a particle means is it much different from the others.
+     */
+    public void calculateCrowdingDistance () {
+
+        // Calculating the crowding distances sorts the pool in place
+        crowdingDistances(pool);
+        for (int i = 0; i < pool.size(); i++)
+            pool.set(i, members[i]);
+
+        // The crowding distances are now up to date with the pool
+        stale = false;
+
+    } // calculateCrowdingDistance
+
+    /**
+     * Calculates the crowding distances of a list of particles. The particles are sorted in scratch space (members),
+     * which is left sorted on the last objective, the list itself isn't changed.
+     * @param list The particles.
+     */
+    protected void crowdingDistances (List<Particle> list) {
+
+        int size = list.size();
+        load(list);
+
+        // Initialize the crowding distance to 0
+        for (int i = 0; i < size; i++) members[i].crowdingDistance = 0;
+
+        // For each objective
+        for (int m = 0; m < p.nObj; m++) {
+
+            // Sort members based on the mth objective fitness values
+            sort(size, m);
+
+            // Calculating the crowding distance for each particle in the list
+            for (int i = 0; i < size; i++) {
+
+                // The particles on either end of the axis have only an inside neighbour
+                if (i == 0 || i == size - 1)
+                    members[i].crowdingDistance = Double.MAX_VALUE;
+
+                else {
+
+                    // Getting the maximum and minimum fitness values for this objective
+                    double objectiveMax = members[size - 1].getFitnesses()[m];
+                    double objectiveMin = members[0].getFitnesses()[m];
+
+                    // Getting the fitnesses of the particles to the left and right of the current
+                    double left = members[i - 1].getFitnesses()[m];
+                    double right = members[i + 1].getFitnesses()[m];
+
+                    // Setting the crowding distance
+                    if (objectiveMax != objectiveMin)
+                        members[i].crowdingDistance += (right - left) / (objectiveMax - objectiveMin);
+
+                }
+
+            }
+
+        }
+
+    } // crowdingDistances
+
+    /**
+     * Copies a list of particles into the scratch space the particles are sorted in, growing it when needed.
+     * @param list The particles.
+     */
+    private void load (List<Particle> list) {
+
+        if (members.length < list.size()) {
+            members = new Particle [list.size()];
+            merged = new Particle [list.size()];
+        }
+
+        for (int i = 0; i < list.size(); i++)
+            members[i] = list.get(i);
+
+    } // load
+
+    /**
+     * Sorts the first particles of the scratch space on an objective or their crowding distance, from smallest to
+     * largest. The sort is stable (bottom-up merge sort), so it orders the particles exactly as List.sort did.
+     * @param size The number of particles sorted.
+     * @param m    The objective the particles are sorted on, CROWDING for their crowding distance.
+     */
+    private void sort (int size, int m) {
+
+        Particle [] from = members;
+        Particle [] to = merged;
+        for (int width = 1; width < size; width *= 2) {
+            for (int lo = 0; lo < size; lo += 2 * width) {
+                int mid = Math.min(lo + width, size);
+                int hi = Math.min(lo + 2 * width, size);
+                int i = lo;
+                int j = mid;
+                for (int k = lo; k < hi; k++) {
+                    // The left particle goes first unless the right one is strictly smaller
+                    if (i < mid && (j >= hi || Double.compare(key(from[j], m), key(from[i], m)) >= 0))
+                        to[k] = from[i++];
+                    else
+                        to[k] = from[j++];
+                }
+            }
+            Particle [] swap = from;
+            from = to;
+            to = swap;
+        }
+
+        // The sorted particles end up in either array
+        if (from != members)
+            System.arraycopy(from, 0, members, 0, size);
+
+    } // sort
+
+    /**
+     * @param x A particle.
+     * @param m An objective, or CROWDING.
+     * @return  double, the value a particle is sorted on, see sort.
+     */
+    private static double key (Particle x, int m) {
+        return m == CROWDING ? x.crowdingDistance : x.getFitnesses()[m];
+    } // key
+
+    /**
+     * This method acts as the archive management strategy (AMS).
+     * @param x The particle we're attempting to add to the archive.
+     */
+    public void update (Particle x) {
+        if (isNonDominated(x) && !duplicate(x))
+            accept(x);
+    } // update
+
+    /**
+     * Adds a particle already known to be neither dominated by nor a duplicate of any particle in the pool, i.e. the
+     * part of update after its checks. The particles it dominates are removed, and the archive is truncated when the
+     * particle takes it over capacity.
+     * @param x The particle being added, the archive keeps it as it is.
+     */
+    protected void accept (Particle x) {
+
+        // Remove the particles x dominates, keeping the others in order
+        int kept = 0;
+        for (int i = 0; i < pool.size(); i++) {
+            Particle particle = pool.get(i);
+            if (dominates(x, particle))
+                recycle(particle);
+            else
+                pool.set(kept++, particle);
+        }
+        while (pool.size() > kept)
+            pool.remove(pool.size() - 1);
+
+        pool.add(x);
+        stale = true;
+        if (pool.size() > capacity) {
+            removeMostCrowded();
+        }
+
+    } // accept
+
+    /**
+     * Adds a copy of a particle already known to be neither dominated by nor a duplicate of any particle in the pool,
+     * see accept(Particle). The particle is read from flat arrays, and only its position and fitnesses are copied since
+     * they are all the archive ever reads.
+     * @param positions The positions of several particles, n values per particle.
+     * @param fitnesses The fitnesses of the same particles, nObj values per particle.
+     * @param i         The index of the particle being added in both arrays.
+     */
+    protected void accept (double [] positions, double [] fitnesses, int i) {
+
+        // A particle removed from the archive earlier is reused when there is one
+        Particle x;
+        if (spare.isEmpty()) {
+            x = new Particle(positions, fitnesses, i, p);
+        }
+        else {
+            x = spare.remove(spare.size() - 1);
+            x.reuse(positions, fitnesses, i);
+        }
+
+        accept(x);
+
+    } // accept
+
+    /**
+     * Keeps a particle removed from the archive for reuse, when the archive made it (see accept). Particles given to
+     * update belong to whoever made them and are left alone.
+     * @param x The particle removed from the archive, nothing else may keep a reference to it.
+     */
+    protected void recycle (Particle x) {
+        if (x.isArchived())
+            spare.add(x);
+    } // recycle
+
+    /**
+     * Checks a fitness vector against the pool in one pass, with the same result as isNonDominated and duplicate.
+     * @param fitnesses Fitness vectors, nObj values per vector.
+     * @param offset    The index of the first value of the vector checked.
+     * @return          boolean, true if no particle in the pool is at least as fit as the vector on every objective.
+     */
+    protected boolean accepts (double [] fitnesses, int offset) {
+
+        for (int i = 0; i < pool.size(); i++)
+            if (weaklyDominates(pool.get(i).getFitnesses(), 0, fitnesses, offset, p.nObj))
+                return false;
+
+        return true;
+
+    } // accepts
+
+    /**
+     * This method acts as the archive management strategy (AMS) for a whole batch of particles at once.
+     *
+     * The batch is first reduced to its own non-dominated particles, then to those not dominated by the pool. The
+     * particles left are added one at a time in lexicographic order of their fitnesses, and like update the archive is
+     * truncated after every insertion which takes it over capacity, so every archive keeps the same particles from the
+     * same batch whichever way it stores them.
+     *
+     * The whole batch is checked against the pool before any of it is added, since a truncation could remove the only
+     * particle dominating a later one. From then on the pool only loses particles and gains particles of the batch, so
+     * none of them can become dominated or a duplicate on the way, and each one goes straight to accept.
+     * @param batch The particles we're attempting to add to the archive, they are copied when kept.
+     */
+    public void updateBatch (Particle [] batch) {
+
+        double [] fitnesses = new double [batch.length * p.nObj];
+        for (int i = 0; i < batch.length; i++)
+            System.arraycopy(batch[i].getFitnesses(), 0, fitnesses, i * p.nObj, p.nObj);
+
+        int count = accepted(fitnesses, batch.length);
+        for (int j = 0; j < count; j++)
+            accept(batch[this.batch[j]].getPosition(), batch[this.batch[j]].getFitnesses(), 0);
+
+    } // updateBatch
+
+    /**
+     * This method acts as the archive management strategy (AMS) for every particle of a swarm at once, after an
+     * iteration's evaluations, see updateBatch(Particle []). The swarm's fitnesses are filtered and its particles
+     * copied straight from its flat arrays.
+     * @param swarm The swarm whose particles we're attempting to add to the archive, they are copied when kept.
+     */
+    public void updateBatch (Swarm swarm) {
+
+        SwarmState state = swarm.getState();
+
+        int count = accepted(state.fitnesses, state.s);
+        for (int j = 0; j < count; j++)
+            accept(state.positions, state.fitnesses, batch[j]);
+
+    } // updateBatch
+
+    /**
+     * Filters a batch down to the vectors which are non-dominated within the batch and which the pool doesn't reject,
+     * in the scratch space, so it doesn't allocate once the scratch space is large enough.
+     * @param fitnesses The fitness vectors of the batch, nObj values per vector.
+     * @param count     The number of vectors in the batch.
+     * @return          int, the number of vectors left, their indices are the first entries of batch.
+     */
+    private int accepted (double [] fitnesses, int count) {
+
+        if (batch.length < count) {
+            batch = new int [count];
+            indices = new int [count];
+        }
+
+        int size = 0;
+        for (int j = 0, found = nonDominated(fitnesses, p.nObj, count, batch, indices); j < found; j++)
+            if (accepts(fitnesses, batch[j] * p.nObj))
+                batch[size++] = batch[j];
+
+        return size;
+
+    } // accepted
+
+    /**
+     * Finds the fitness vectors of a batch which are not dominated by any other vector of the batch. Of several equal
+     * vectors only the first one is kept.
+     *
+     * The batch is sorted lexicographically on the objectives, so a vector can only be dominated by the ones before it
+     * and only needs to be compared with the non-dominated vectors found so far.
+     * @param fitnesses The fitness vectors of the batch, nObj values per vector.
+     * @param nObj      The number of objectives.
+     * @param count     The number of vectors in the batch.
+     * @return          int [], the indices of the non-dominated vectors in lexicographic order.
+     */
+    public static int [] nonDominated (double [] fitnesses, int nObj, int count) {
+
+        int [] result = new int [count];
+        int size = nonDominated(fitnesses, nObj, count, result, new int [count]);
+
+        return Arrays.copyOf(result, size);
+
+    } // nonDominated
+
+    /**
+     * Finds the fitness vectors of a batch which are not dominated by any other vector of the batch, see
+     * nonDominated(double [], int, int), in arrays given by the caller, so nothing is allocated.
+     * @param fitnesses The fitness vectors of the batch, nObj values per vector.
+     * @param nObj      The number of objectives.
+     * @param count     The number of vectors in the batch.
+     * @param result    Receives the indices of the non-dominated vectors in lexicographic order, at least count long.
+     * @param buffer    Scratch space for sorting, at least count long.
+     * @return          int, the number of non-dominated vectors.
+     */
+    static int nonDominated (double [] fitnesses, int nObj, int count, int [] result, int [] buffer) {
+
+        for (int i = 0; i < count; i++)
+            result[i] = i;
+
+        // A stable merge sort, so equal vectors stay in the order of the batch and the first of them is kept
+        int [] from = result;
+        int [] to = buffer;
+        for (int width = 1; width < count; width *= 2) {
+            for (int lo = 0; lo < count; lo += 2 * width) {
+                int mid = Math.min(lo + width, count);
+                int hi = Math.min(lo + 2 * width, count);
+                int i = lo;
+                int j = mid;
+                for (int k = lo; k < hi; k++) {
+                    if (i < mid && (j >= hi || compare(fitnesses, from[j], from[i], nObj) >= 0))
+                        to[k] = from[i++];
+                    else
+                        to[k] = from[j++];
+                }
+            }
+            int [] swap = from;
+            from = to;
+            to = swap;
+        }
+        if (from != result)
+            System.arraycopy(from, 0, result, 0, count);
+
+        // The non-dominated vectors found so far are moved to the front of result
+        int size = 0;
+        for (int k = 0; k < count; k++) {
+            int x = result[k];
+            boolean dominated = false;
+            for (int i = 0; i < size && !dominated; i++)
+                dominated = weaklyDominates(fitnesses, result[i] * nObj, fitnesses, x * nObj, nObj);
+            if (!dominated)
+                result[size++] = x;
+        }
+
+        return size;
+
+    } // nonDominated
+
+    /**
+     * Compares two fitness vectors of a batch lexicographically, each objective with Double.compare.
+     * @param fitnesses The fitness vectors, nObj values per vector.
+     * @param a         The index of the first vector.
+     * @param b         The index of the second vector.
+     * @param nObj      The number of objectives.
+     * @return          int, negative, zero or positive as the first vector is smaller than, equal to or larger than
+     *                  the second.
+     */
+    private static int compare (double [] fitnesses, int a, int b, int nObj) {
+
+        for (int m = 0; m < nObj; m++) {
+            int c = Double.compare(fitnesses[a * nObj + m], fitnesses[b * nObj + m]);
+            if (c != 0)
+                return c;
+        }
+
+        return 0;
+
+    } // compare
+
+    /**
+     * Checking if one fitness vector weakly dominates another, both stored in flat arrays.
+     * @param a    Fitness vectors.
+     * @param i    The offset in a of the vector checked for weakly dominating the other.
+     * @param b    Fitness vectors.
+     * @param j    The offset in b of the vector checked for being weakly dominated by the other.
+     * @param nObj The number of objectives.
+     * @return     boolean, whether or not the first vector is smaller than or equal to the second on every objective.
+     */
+    protected static boolean weaklyDominates (double [] a, int i, double [] b, int j, int nObj) {
+
+        for (int m = 0; m < nObj; m++)
+            if (a[i + m] > b[j + m])
+                return false;
+
+        return true;
+
+    } // weaklyDominates
+
+    /**
+     * Checks if the passed in particle is in the archive.
+     * We can't use .contains on the list for the particle directly because the particles in the archive has
+     * crowding distances set after they enter the archive.
+     * [There may be a better way to represent members of the archive instead of particles]
+     * @param x The particle.
+     * @return  boolean, true if the particle is in the archive. Otherwise, not.
+     */
+    public boolean duplicate (Particle x) {
+
+        for (Particle particle : pool) {
+            if (Arrays.equals(particle.getFitnesses(), x.getFitnesses()))
+                return true;
+        }
+
+        return false;
+
+    } // isDuplicate
+
+    /**
+     * Removes the most crowded individual from the archive.
+     */
+    public void removeMostCrowded () {
+
+        // Calculate the crowding distances of the particle's in the archive to ensure they're up to date
+        calculateCrowdingDistance();
+
+        // Sort the archive based on the crowding distances of the particles from smallest to largest
+        load(pool);
+        sort(pool.size(), CROWDING);
+        for (int i = 0; i < pool.size(); i++)
+            pool.set(i, members[i]);
+
+        // Remove the first particle from the archive because it is the most crowded after sorting
+        recycle(pool.remove(0));
+
+        // Removing a particle changes the crowding distances of its neighbours
+        stale = true;
+
+    } // removeMostCrowded
+
+    /**
+     * Writes the complete contents of the archive, e.g. to a checkpoint (see Checkpoint): the archive's own stream when
+     * it is a RandomStream, whether the crowding distances are stale, then the position, fitnesses and crowding
+     * distance of every particle in the archive's order. The contents are read through size(), getFitness() and
+     * getPosition(), so every archive can be written this way; an archive with more state than its particles writes it
+     * after them.
+     * @param out The output the contents are written to.
+     * @throws IOException If writing fails.
+     */
+    public void writeState (DataOutput out) throws IOException {
+
+        out.writeBoolean(r instanceof RandomStream);
+        if (r instanceof RandomStream)
+            ((RandomStream) r).write(out);
+
+        out.writeBoolean(stale);
+        out.writeInt(size());
+        for (int i = 0; i < size(); i++) {
+            for (int d = 0; d < p.n; d++)
+                out.writeDouble(getPosition(i, d));
+            for (int m = 0; m < p.nObj; m++)
+                out.writeDouble(getFitness(i, m));
+            out.writeDouble(getCrowdingDistance(i));
+        }
+
+    } // writeState
+
+    /**
+     * Replaces the contents of the archive with the contents written by writeState of an archive of the same type, so
+     * it continues exactly where that archive was.
+     * @param in The input the contents are read from.
+     * @throws IOException If reading fails.
+     */
+    public void readState (DataInput in) throws IOException {
+
+        if (in.readBoolean())
+            r = RandomStream.read(in);
+
+        boolean stale = in.readBoolean();
+        int size = in.readInt();
+        double [] positions = new double [size * p.n];
+        double [] fitnesses = new double [size * p.nObj];
+        double [] distances = new double [size];
+        for (int i = 0; i < size; i++) {
+            for (int d = 0; d < p.n; d++)
+                positions[i * p.n + d] = in.readDouble();
+            for (int m = 0; m < p.nObj; m++)
+                fitnesses[i * p.nObj + m] = in.readDouble();
+            distances[i] = in.readDouble();
+        }
+
+        restore(size, positions, fitnesses, distances);
+        this.stale = stale;
+
+    } // readState
+
+    /**
+     * Replaces the particles of the archive, in the given order, with their crowding distances as given.
+     * @param size      The number of particles.
+     * @param positions The position of each particle, n values per particle.
+     * @param fitnesses The fitness of each particle on each objective, nObj values per particle.
+     * @param distances The crowding distance of each particle.
+     */
+    protected void restore (int size, double [] positions, double [] fitnesses, double [] distances) {
+
+        pool.clear();
+        for (int i = 0; i < size; i++) {
+            Particle x = new Particle(positions, fitnesses, i, p);
+            x.crowdingDistance = distances[i];
+            pool.add(x);
+        }
+
+    } // restore
+
+    /**
+     * @return boolean, whether the archive can be updated and selected from by several threads at once without a lock.
+     */
+    public boolean isThreadSafe () {
+        return false;
+    } // isThreadSafe
+
+    /**
+     * @return int, the number of particles in the archive.
+     */
+    public int size () {
+        return pool.size();
+    } // size
+
+    /**
+     * @param i The index of a particle in the archive.
+     * @param m The objective.
+     * @return  double, the fitness of the particle on objective m.
+     */
+    public double getFitness (int i, int m) {
+        return pool.get(i).getFitnesses()[m];
+    } // getFitness
+
+    /**
+     * @param i The index of a particle in the archive.
+     * @param d The dimension.
+     * @return  double, the position of the particle in dimension d.
+     */
+    public double getPosition (int i, int d) {
+        return pool.get(i).getPosition()[d];
+    } // getPosition
+
+    /**
+     * @param i The index of a particle in the archive.
+     * @return  double, the crowding distance of the particle as of the last time they were calculated.
+     */
+    public double getCrowdingDistance (int i) {
+        return pool.get(i).crowdingDistance;
+    } // getCrowdingDistance
+
+    /**
+     * This method prints the fitness for each objective for each particle in the archive in a readable format.
+     */
+    public void printArchive () {
+
+        System.out.println("                   Archive");
+        System.out.println("~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~");
+        System.out.println("        f1        f2          Crowding Distance");
+        for (int i = 0; i < size(); i++) {
+            String label = "P[" + i + "]: ";
+            double f1 = getFitness(i, 0);
+            double f2 = getFitness(i, 1);
+            double cD = getCrowdingDistance(i);
+            System.out.printf("%-7s %-10f %-10f %-10f\n", label, f1, f2, cD);
+        }
+
+    } // printPool
+
+    /**
+     * This method prints the fitness for each objective for each particle in the archive for making plots.
+     *
+     * Comma separated format.
+     */
+    public void printArchiveMinimal () {
+        StringJoiner header = new StringJoiner(",");
+        for (int m = 1; m <= p.nObj; m++)
+            header.add("f" + m);
+        System.out.println(header);
+        for (int i = 0; i < size(); i++)
+            System.out.println(toCSV(i));
+    }
+
+    /**
+     * @param i The index of a particle in the archive.
+     * @return  String, the fitnesses of the particle in comma separated format.
+     */
+    private String toCSV (int i) {
+        StringJoiner line = new StringJoiner(",");
+        for (int m = 0; m < p.nObj; m++)
+            line.add(String.valueOf(getFitness(i, m)));
+        return line.toString();
+    } // toCSV
+
+} // Archive
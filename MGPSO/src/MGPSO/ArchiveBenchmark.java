@@ -0,0 +1,127 @@
+package MGPSO;
+
+import Benchmarks.Problem;
+import Benchmarks.ZDT1;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class measures how an archive holds up when many threads update it and select guides from it at once.
+ *
+ * Every thread repeatedly offers a new particle near the ZDT1 front to the archive and selects an archive guide, like
+ * the particles of an asynchronous run (see MGPSO.iterateAsync) without the evaluation time in between. The number of
+ * such operations per second is printed for 1 to 64 threads, for a bi-objective archive behind one lock and for the
+ * same archive wrapped in a ConcurrentArchive.
+ *
+ * Usage: java MGPSO.ArchiveBenchmark [milliseconds per measurement, default 1000]
+ */
+public class ArchiveBenchmark {
+
+    private static final int [] THREADS = {1, 2, 4, 8, 16, 32, 64};   // The thread counts measured
+    private static final int    CAPACITY = 50;                         // The capacity of the archives
+
+    /**
+     * Runs the benchmark.
+     * @param args The milliseconds per measurement (optional).
+     */
+    public static void main (String[] args) throws InterruptedException {
+
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+        Problem p = new ZDT1();
+
+        System.out.println("Available processors: " + Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-8s %-18s %-18s\n", "Threads", "Locked (ops/s)", "Concurrent (ops/s)");
+
+        for (int threads : THREADS) {
+            RandomStream r = new RandomStream(threads);
+            double locked = measure(new BiObjectiveArchive(r.split(), p, CAPACITY), p, threads, millis, r.split());
+            double concurrent = measure(new ConcurrentArchive(new BiObjectiveArchive(r.split(), p, CAPACITY)), p,
+                                        threads, millis, r.split());
+            System.out.printf("%-8d %-18.0f %-18.0f\n", threads, locked, concurrent);
+        }
+
+    } // main
+
+    /**
+     * Measures the operations per second of an archive with a number of threads. An archive which isn't thread-safe is
+     * used behind its own lock.
+     * @param archive The archive, empty.
+     * @param p       The problem the particles are evaluated on.
+     * @param threads The number of threads.
+     * @param millis  How long to measure for.
+     * @param r       The stream each thread's stream is split from.
+     * @return        double, the number of update and selection pairs per second over all threads.
+     */
+    private static double measure (Archive archive, Problem p, int threads, long millis, RandomStream r)
+            throws InterruptedException {
+
+        // Fill the archive first, selection needs at least one particle
+        RandomStream seed = r.split();
+        for (int i = 0; i < CAPACITY; i++)
+            archive.update(candidate(p, seed));
+        if (archive instanceof ConcurrentArchive)
+            ((ConcurrentArchive) archive).flush();
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong operations = new AtomicLong(0);
+        CountDownLatch started = new CountDownLatch(threads);
+        CountDownLatch finished = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            RandomStream stream = r.split();
+            Thread thread = new Thread(() -> {
+                double [] guide = new double [p.n];
+                long count = 0;
+                started.countDown();
+                while (running.get()) {
+                    Particle x = candidate(p, stream);
+                    if (archive.isThreadSafe()) {
+                        archive.update(x);
+                        archive.selection(p.T, stream, guide);
+                    }
+                    else {
+                        synchronized (archive) {
+                            archive.update(x);
+                            archive.selection(p.T, stream, guide);
+                        }
+                    }
+                    count++;
+                }
+                operations.addAndGet(count);
+                finished.countDown();
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        started.await();
+        long start = System.nanoTime();
+        Thread.sleep(millis);
+        running.set(false);
+        finished.await();
+        long elapsed = System.nanoTime() - start;
+
+        return operations.get() / (elapsed / 1e9);
+
+    } // measure
+
+    /**
+     * @param p      The problem.
+     * @param stream The stream the position is drawn from.
+     * @return       Particle, an evaluated particle close to the front of ZDT1, so some of them are non-dominated.
+     */
+    private static Particle candidate (Problem p, RandomStream stream) {
+
+        double [] position = new double [p.n];
+        position[0] = stream.nextDouble();
+        for (int d = 1; d < p.n; d++)
+            position[d] = 0.05 * stream.nextDouble();
+
+        Particle x = new Particle(position, new double [p.n], p, 0);
+        x.setFitnesses(p.objectives(position));
+        return x;
+
+    } // candidate
+
+} // ArchiveBenchmark
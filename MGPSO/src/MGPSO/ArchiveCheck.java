@@ -0,0 +1,141 @@
+package MGPSO;
+
+import Benchmarks.DTLZ2;
+import Benchmarks.Problem;
+import Benchmarks.ZDT1;
+import java.util.Arrays;
+
+/**
+ * This class checks that every archive keeps the same particles from the same batches (see Archive.updateBatch).
+ *
+ * Each archive class stores its particles differently, but they all insert the accepted particles of a batch one at a
+ * time and truncate after every insertion which takes them over capacity, so they must agree on what they keep. Small
+ * archives are fed random batches of particles close to the Pareto-optimal front, so most batches both remove
+ * dominated particles and overflow the archive. After every batch the contents of each archive, compared as sets, must
+ * be those of the general archive.
+ *
+ * The HypervolumeArchive truncates on a different rule, so it isn't part of the check.
+ *
+ * Usage: java MGPSO.ArchiveCheck [seed, default 1] [trials per problem, default 200], exits with status 1 when the
+ * check fails.
+ */
+public class ArchiveCheck {
+
+    private static final int CAPACITY = 20;   // The capacity of every archive
+    private static final int BATCH = 8;       // The particles per batch
+    private static final int BATCHES = 25;    // The batches per trial
+
+    /**
+     * Runs the check.
+     * @param args The seed and the number of trials per problem (both optional).
+     */
+    public static void main (String[] args) {
+
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 1;
+        int trials = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        int failed = 0;
+        for (Problem p : new Problem [] {new ZDT1(), new DTLZ2()}) {
+
+            String [] names = p.nObj == 2 ? new String [] {"BiObjectiveArchive", "CompactArchive", "NDTreeArchive",
+                                                            "ConcurrentArchive"}
+                                          : new String [] {"CompactArchive", "NDTreeArchive", "ConcurrentArchive"};
+            int [] failures = new int [names.length];
+
+            for (int trial = 0; trial < trials; trial++) {
+
+                RandomStream r = new RandomStream(seed + trial);
+                Archive expected = new Archive(r.split(), p, CAPACITY);
+                Archive [] archives = new Archive [names.length];
+                for (int j = 0; j < names.length; j++)
+                    archives[j] = archive(names[j], r.split(), p);
+
+                boolean [] differs = new boolean [names.length];
+                for (int b = 0; b < BATCHES; b++) {
+                    Particle [] batch = batch(p, r);
+                    expected.updateBatch(batch);
+                    for (int j = 0; j < names.length; j++) {
+                        archives[j].updateBatch(batch);
+                        if (archives[j] instanceof ConcurrentArchive)
+                            ((ConcurrentArchive) archives[j]).flush();
+                        differs[j] |= !Arrays.deepEquals(contents(expected, p), contents(archives[j], p));
+                    }
+                }
+
+                for (int j = 0; j < names.length; j++)
+                    if (differs[j])
+                        failures[j]++;
+
+            }
+
+            for (int j = 0; j < names.length; j++) {
+                System.out.println(p.getClass().getSimpleName() + " " + names[j] + ": " + failures[j] + " of " + trials +
+                                   " trials differ from Archive");
+                failed += failures[j];
+            }
+
+        }
+
+        System.out.println(failed == 0 ? "\nPASSED" : "\nFAILED");
+        if (failed > 0)
+            System.exit(1);
+
+    } // main
+
+    /**
+     * @param name The name of the archive class.
+     * @param r    The stream the archive draws from.
+     * @param p    The problem.
+     * @return     Archive, an empty archive of the class.
+     */
+    private static Archive archive (String name, RandomStream r, Problem p) {
+        switch (name) {
+            case "BiObjectiveArchive": return new BiObjectiveArchive(r, p, CAPACITY);
+            case "CompactArchive":     return new CompactArchive(r, p, CAPACITY);
+            case "NDTreeArchive":      return new NDTreeArchive(r, p, CAPACITY);
+            default:                   return new ConcurrentArchive(new Archive(r, p, CAPACITY));
+        }
+    } // archive
+
+    /**
+     * @param p The problem.
+     * @param r The stream the positions are drawn from.
+     * @return  Particle [], evaluated particles at random positions close to the Pareto-optimal front of the problem.
+     */
+    private static Particle [] batch (Problem p, RandomStream r) {
+
+        Particle [] batch = new Particle [BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            double [] position = new double [p.n];
+            for (int d = 0; d < p.n; d++)
+                position[d] = d < p.nObj - 1 ? r.nextDouble() : 0.5 + 0.02 * r.nextDouble();
+            batch[i] = new Particle(position, new double [p.n], p, 0);
+            batch[i].setFitnesses(p.objectives(position));
+        }
+
+        return batch;
+
+    } // batch
+
+    /**
+     * @param a The archive.
+     * @param p The problem.
+     * @return  double [][], the fitnesses followed by the position of each particle in the archive, sorted, so two
+     *          archives holding the same particles in a different order have the same contents.
+     */
+    private static double [][] contents (Archive a, Problem p) {
+
+        double [][] contents = new double [a.size()][p.nObj + p.n];
+        for (int i = 0; i < a.size(); i++) {
+            for (int m = 0; m < p.nObj; m++)
+                contents[i][m] = a.getFitness(i, m);
+            for (int d = 0; d < p.n; d++)
+                contents[i][p.nObj + d] = a.getPosition(i, d);
+        }
+        Arrays.sort(contents, Arrays::compare);
+
+        return contents;
+
+    } // contents
+
+} // ArchiveCheck
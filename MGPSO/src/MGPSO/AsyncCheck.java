@@ -0,0 +1,69 @@
+package MGPSO;
+
+import Benchmarks.Problem;
+import Benchmarks.ZDT1;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This class checks that asynchronous runs (see MGPSO.iterateAsync) with a ConcurrentArchive work from a fresh start.
+ *
+ * A fresh run has an empty archive, so the first particles to select an archive guide depend on their own updates
+ * being in the archive, even while another thread is applying updates. Many short runs are started on a pool with
+ * more threads than cores, around both a general and a bi-objective archive. Every run must finish its budget without
+ * failing and leave a non-empty archive.
+ *
+ * Usage: java MGPSO.AsyncCheck [runs per archive, default 200] [threads, default 8], exits with status 1 when the check
+ * fails.
+ */
+public class AsyncCheck {
+
+    private static final long BUDGET = 2000;    // The particle evaluations of each run
+
+    /**
+     * Runs the check.
+     * @param args The number of runs per archive and the number of threads (both optional).
+     */
+    public static void main (String[] args) {
+
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+
+        Problem p = new ZDT1();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        int failed = 0;
+        try {
+            for (boolean sorted : new boolean [] {false, true}) {
+                int failures = 0;
+                for (int run = 0; run < runs; run++) {
+                    RandomStream r = new RandomStream(run);
+                    Archive archive = sorted ? new BiObjectiveArchive(r.split(), p, 50) : new Archive(r.split(), p, 50);
+                    MGPSO mgpso = new MGPSO(r, p, new ConcurrentArchive(archive));
+                    try {
+                        mgpso.iterateAsync(pool, BUDGET);
+                        if (mgpso.getEvaluations() != BUDGET || mgpso.Archive.size() == 0)
+                            throw new IllegalStateException("Performed " + mgpso.getEvaluations() + " evaluations " +
+                                                            "with " + mgpso.Archive.size() + " archived.");
+                    }
+                    catch (IllegalStateException e) {
+                        Throwable cause = e.getCause() != null ? e.getCause() : e;
+                        System.out.println("Run " + run + " failed: " + cause);
+                        failures++;
+                    }
+                }
+                System.out.println((sorted ? "BiObjectiveArchive" : "Archive") + ": " + failures + " of " + runs +
+                                   " runs failed");
+                failed += failures;
+            }
+        }
+        finally {
+            pool.shutdownNow();
+        }
+
+        System.out.println(failed == 0 ? "\nPASSED" : "\nFAILED");
+        if (failed > 0)
+            System.exit(1);
+
+    } // main
+
+} // AsyncCheck
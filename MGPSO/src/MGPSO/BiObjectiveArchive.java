@@ -0,0 +1,421 @@
+package MGPSO;
+
+import Benchmarks.Problem;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * This class represents an Archive specialized for problems with exactly two objectives.
+ *
+ * A non-dominated set of two objective vectors that is sorted by f2 in ascending order is automatically sorted by f1 in
+ * descending order. The pool is kept in that order at all times, so dominance and duplicate checks are a binary
+ * search, the particles dominated by a new one are one contiguous run of the pool, and the crowding distance of a
+ * particle only depends on its two neighbours and the two ends of the pool.
+ *
+ * In an archive of at least SORTED particles, the crowding distances are also kept in a sorted set once the archive
+ * first overflows, so the most crowded particle is found in O(log n) and an insertion or removal only updates the
+ * distances of its neighbours. A particle added to or removed from either end of the pool changes the ranges every
+ * distance is normalized by, so the set is then dropped and rebuilt at the next overflow. Smaller archives scan the
+ * pool instead, which is faster for up to about a hundred particles.
+ *
+ * The pool is kept in the same order the general archive sorts it into when calculating crowding distances, so both
+ * archives make the same decisions for the same seed.
+ */
+public class BiObjectiveArchive extends Archive {
+
+    protected static final int A = 1;          // The objective the pool is sorted on in ascending order
+    protected static final int B = 0;          // The objective the pool is sorted on in descending order
+    private static final int   SORTED = 128;   // The smallest capacity at which the crowding distances are kept sorted
+
+    private TreeSet<Particle>  crowded;        // The particles from most to least crowded, ties in pool order
+    private boolean            indexed;        // Whether crowded holds every particle with its current distance
+
+    /**
+     * Initializes the bi-objective archive.
+     * @param rand The instance of random used throughout the implementation.
+     * @param prob The problem we're trying to optimize, it must have exactly two objectives.
+     * @param c    The total number of particle allowed in the archive (capacity).
+     */
+    public BiObjectiveArchive (Random rand, Problem prob, int c) {
+
+        super(rand, prob, c);
+
+        if (prob.nObj != 2)
+            throw new IllegalArgumentException("BiObjectiveArchive requires a problem with two objectives.");
+
+        // The values on objective A are distinct, so they break ties between equal distances in pool order
+        crowded = new TreeSet<>(Comparator.comparingDouble((Particle particle) -> particle.crowdingDistance)
+                                          .thenComparingDouble(particle -> particle.getFitnesses()[A]));
+        indexed = false;
+
+    } // Constructor
+
+    /**
+     * Tournament selection on the archive for the MGPSO velocity update, without allocating.
+     * @param k    The number of selected competitors.
+     * @param rand The instance of random the competitors are drawn with.
+     * @param out  Receives the position of the winner of the tournament (largest crowding distance).
+     */
+    @Override
+    public void selection (int k, Random rand, double [] out) {
+
+        // The crowding distance of each competitor is calculated from its neighbours, ties go to the one drawn last
+        int winner = rand.nextInt(pool.size());
+        double winnerDistance = crowdingDistance(winner);
+        for (int i = 1; i < k; i++) {
+            int competitor = rand.nextInt(pool.size());
+            double competitorDistance = crowdingDistance(competitor);
+            if (competitorDistance >= winnerDistance) {
+                winner = competitor;
+                winnerDistance = competitorDistance;
+            }
+        }
+
+        // Copy out the position of the winner of the tournament
+        System.arraycopy(pool.get(winner).getPosition(), 0, out, 0, p.n);
+
+    } // selection
+
+    /**
+     * Checks if a particle is not dominated by any other in the pool.
+     * @param x The particle we're checking for non-domination.
+     * @return  boolean, true is the particle is non-dominated, false otherwise.
+     */
+    @Override
+    public boolean isNonDominated (Particle x) {
+
+        double [] f_x = x.getFitnesses();
+
+        // Only the last particle with a smaller or equal value on objective A can dominate x
+        int i = upperBound(f_x[A]) - 1;
+        if (i < 0)
+            return true;
+
+        double [] f_i = pool.get(i).getFitnesses();
+
+        return Arrays.equals(f_x, f_i) || f_i[B] > f_x[B];
+
+    } // isNonDominated
+
+    /**
+     * Checks if the passed in particle is in the archive.
+     * @param x The particle.
+     * @return  boolean, true if the particle is in the archive. Otherwise, not.
+     */
+    @Override
+    public boolean duplicate (Particle x) {
+
+        double [] f_x = x.getFitnesses();
+
+        // Only the first particle with a larger or equal value on objective A can be equal to x
+        int i = lowerBound(f_x[A]);
+
+        return i < pool.size() && Arrays.equals(pool.get(i).getFitnesses(), f_x);
+
+    } // duplicate
+
+    /**
+     * Calculates the crowding distance of every particle in the archive in one pass over the pool. The pool is already
+     * sorted on both objectives, so there is nothing to sort.
+     */
+    @Override
+    public void calculateCrowdingDistance () {
+
+        for (int i = 0; i < pool.size(); i++)
+            pool.get(i).crowdingDistance = crowdingDistance(i);
+
+    } // calculateCrowdingDistance
+
+    /**
+     * This method acts as the archive management strategy (AMS).
+     * @param x The particle we're attempting to add to the archive.
+     */
+    @Override
+    public void update (Particle x) {
+
+        double [] f_x = x.getFitnesses();
+
+        // The position x would take in the pool
+        int from = lowerBound(f_x[A]);
+
+        if (!rejected(from, f_x, 0))
+            accept(from, x);
+
+    } // update
+
+    /**
+     * Checks a fitness vector against the pool with one binary search, see Archive.accepts.
+     * @param fitnesses Fitness vectors, nObj values per vector.
+     * @param offset    The index of the first value of the vector checked.
+     * @return          boolean, true if no particle in the pool is at least as fit as the vector on every objective.
+     */
+    @Override
+    protected boolean accepts (double [] fitnesses, int offset) {
+        return !rejected(lowerBound(fitnesses[offset + A]), fitnesses, offset);
+    } // accepts
+
+    /**
+     * @param from The position a fitness vector would take in the pool.
+     * @param f    Fitness vectors.
+     * @param j    The index of the first value of the vector in f.
+     * @return     boolean, true if the vector is dominated by or a duplicate of a particle in the pool.
+     */
+    private boolean rejected (int from, double [] f, int j) {
+
+        // The vector is dominated by the particle before it when that one is at least as good on objective B
+        if (from > 0 && pool.get(from - 1).getFitnesses()[B] <= f[j + B])
+            return true;
+
+        // The vector is dominated by, or a duplicate of, the particle after it when they are tied on objective A
+        return from < pool.size() && pool.get(from).getFitnesses()[A] == f[j + A]
+                                  && pool.get(from).getFitnesses()[B] <= f[j + B];
+
+    } // rejected
+
+    /**
+     * Adds a particle already known to be neither dominated by nor a duplicate of any particle in the pool, see
+     * Archive.accept.
+     * @param x The particle being added, the archive keeps it as it is.
+     */
+    @Override
+    protected void accept (Particle x) {
+        accept(lowerBound(x.getFitnesses()[A]), x);
+    } // accept
+
+    /**
+     * Inserts a particle which isn't dominated by the pool at its position, removing the particles it dominates and
+     * truncating the archive when it goes over capacity.
+     * @param from The position of the particle in the pool, the first index with a value on objective A no smaller.
+     * @param x    The particle being added.
+     */
+    private void accept (int from, Particle x) {
+
+        double [] f_x = x.getFitnesses();
+
+        // The particles dominated by x are the run that follows it with values on objective B no smaller than x's
+        int to = from;
+        int hi = pool.size();
+        while (to < hi) {
+            int mid = (to + hi) >>> 1;
+            if (pool.get(mid).getFitnesses()[B] >= f_x[B])
+                to = mid + 1;
+            else
+                hi = mid;
+        }
+
+        // Remove the dominated run in one go and insert x in its place
+        if (from < to)
+            removeRange(from, to);
+        insert(from, x);
+
+        if (pool.size() > capacity) {
+            removeMostCrowded();
+        }
+
+    } // accept
+
+    /**
+     * Removes the most crowded individual from the archive. When several particles are equally crowded the first one in
+     * the pool is removed.
+     */
+    @Override
+    public void removeMostCrowded () {
+
+        int mostCrowded = 0;
+        if (capacity >= SORTED) {
+            if (!indexed)
+                index();
+            mostCrowded = lowerBound(crowded.first().getFitnesses()[A]);
+        }
+        else {
+            double smallest = crowdingDistance(0);
+            for (int i = 1; i < pool.size(); i++) {
+                double distance = crowdingDistance(i);
+                if (distance < smallest) {
+                    mostCrowded = i;
+                    smallest = distance;
+                }
+            }
+        }
+
+        removeRange(mostCrowded, mostCrowded + 1);
+
+    } // removeMostCrowded
+
+    /**
+     * Replaces the particles of the archive, see Archive.restore. The sorted crowding distances are rebuilt at the next
+     * overflow.
+     * @param size      The number of particles.
+     * @param positions The position of each particle, n values per particle.
+     * @param fitnesses The fitness of each particle on each objective, nObj values per particle.
+     * @param distances The crowding distance of each particle.
+     */
+    @Override
+    protected void restore (int size, double [] positions, double [] fitnesses, double [] distances) {
+        super.restore(size, positions, fitnesses, distances);
+        unindex();
+    } // restore
+
+    /**
+     * Inserts a particle into the pool. Every insertion into the pool goes through this method.
+     * @param i The index the particle is inserted at, which keeps the pool sorted.
+     * @param x The particle being inserted.
+     */
+    protected void insert (int i, Particle x) {
+
+        pool.add(i, x);
+
+        // A new end of the pool changes every crowding distance, otherwise only x and its neighbours have a new one
+        if (i == 0 || i == pool.size() - 1) {
+            unindex();
+        }
+        else {
+            for (int j = i - 1; j <= i + 1; j++)
+                updateCrowdingDistance(j);
+        }
+
+    } // insert
+
+    /**
+     * Removes a contiguous run of particles from the pool. Every removal from the pool goes through this method.
+     * @param from The index of the first particle removed.
+     * @param to   The index after the last particle removed.
+     */
+    protected void removeRange (int from, int to) {
+
+        boolean end = from == 0 || to == pool.size();
+
+        if (indexed)
+            for (int j = from; j < to; j++)
+                crowded.remove(pool.get(j));
+        for (int j = from; j < to; j++)
+            recycle(pool.get(j));
+
+        // Move the rest of the pool down over the run and drop the tail, without a view of the pool
+        int removed = to - from;
+        for (int j = to; j < pool.size(); j++)
+            pool.set(j - removed, pool.get(j));
+        for (int j = 0; j < removed; j++)
+            pool.remove(pool.size() - 1);
+
+        // A new end of the pool changes every crowding distance, otherwise only the two particles around the run do
+        if (end) {
+            unindex();
+        }
+        else {
+            updateCrowdingDistance(from - 1);
+            updateCrowdingDistance(from);
+        }
+
+    } // removeRange
+
+    /**
+     * Calculates the crowding distance of every particle and sorts them from most to least crowded.
+     */
+    private void index () {
+
+        for (int i = 0; i < pool.size(); i++)
+            pool.get(i).crowdingDistance = crowdingDistance(i);
+        crowded.addAll(pool);
+        indexed = true;
+
+    } // index
+
+    /**
+     * Drops the sorted crowding distances, e.g. when every crowding distance changed.
+     */
+    private void unindex () {
+        crowded.clear();
+        indexed = false;
+    } // unindex
+
+    /**
+     * Recalculates the crowding distance of the particle at an index of the pool from its neighbours and moves it to
+     * its new place among the sorted distances. Nothing happens while the distances aren't sorted.
+     * @param i The index of a particle in the pool, which may be new to the pool.
+     */
+    private void updateCrowdingDistance (int i) {
+
+        if (!indexed)
+            return;
+
+        // A particle new to the pool isn't among the sorted distances, and no other particle has its value on A
+        Particle x = pool.get(i);
+        crowded.remove(x);
+        x.crowdingDistance = crowdingDistance(i);
+        crowded.add(x);
+
+    } // updateCrowdingDistance
+
+    /**
+     * Calculates the crowding distance of the particle at an index of the pool from its neighbours.
+     * @param i The index of the particle in the pool.
+     * @return  double, the crowding distance of the particle.
+     */
+    private double crowdingDistance (int i) {
+
+        int last = pool.size() - 1;
+
+        // The particles on either end of the pool have only an inside neighbour
+        if (i == 0 || i == last)
+            return Double.MAX_VALUE;
+
+        double [] first = pool.get(0).getFitnesses();
+        double [] end = pool.get(last).getFitnesses();
+        double [] left = pool.get(i - 1).getFitnesses();
+        double [] right = pool.get(i + 1).getFitnesses();
+
+        // Same objective order and operations as the general calculation, so the distances match exactly
+        double distance = 0;
+        if (first[B] != end[B])
+            distance += (left[B] - right[B]) / (first[B] - end[B]);
+        if (first[A] != end[A])
+            distance += (right[A] - left[A]) / (end[A] - first[A]);
+
+        return distance;
+
+    } // crowdingDistance
+
+    /**
+     * @param a A value on objective A.
+     * @return  int, the index of the first particle in the pool with a value on objective A no smaller than a.
+     */
+    protected int lowerBound (double a) {
+
+        int lo = 0;
+        int hi = pool.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (pool.get(mid).getFitnesses()[A] < a)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+
+        return lo;
+
+    } // lowerBound
+
+    /**
+     * @param a A value on objective A.
+     * @return  int, the index of the first particle in the pool with a value on objective A larger than a.
+     */
+    private int upperBound (double a) {
+
+        int lo = 0;
+        int hi = pool.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (pool.get(mid).getFitnesses()[A] <= a)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+
+        return lo;
+
+    } // upperBound
+
+} // BiObjectiveArchive
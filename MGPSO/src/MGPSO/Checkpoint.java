@@ -0,0 +1,253 @@
+package MGPSO;
+
+import Benchmarks.Problem;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class saves the complete state of an MGPSO run to a file every few iterations, so a run which is stopped can be
+ * resumed from its last checkpoint and continue exactly as if it had never stopped (see resume).
+ *
+ * (1) The state is every stream of the run (the run's, each swarm's, each particle's and the archive's), the iteration
+ *     and counters, the state of every particle, each swarm's best particle and archive balance coefficient, the
+ *     contents of the archive in its own order, the surrogate's remembered evaluations, and the state of the
+ *     termination criteria of the run in progress (see MGPSO.run). Every double is written as its exact bits, so
+ *     nothing is lost.
+ *
+ * (2) The state is copied into memory on the thread running MGPSO, between two iterations, which only takes a pass over
+ *     the arrays. Writing the file is left to a background thread, so the run doesn't wait on the disk. A checkpoint
+ *     only waits for the previous one to be written, so at most one is ever in memory.
+ *
+ * (3) The file is written next to its final name and then moved over it, so a run stopped while writing leaves the
+ *     previous checkpoint whole.
+ */
+public class Checkpoint implements AutoCloseable {
+
+    private static final int MAGIC = 0x4D47504F;    // "MGPO", the first four bytes of every checkpoint
+    private static final int VERSION = 2;           // The version of the format
+
+    private final Path            file;        // The file the checkpoints are written to
+    private final int             interval;    // The number of iterations between checkpoints
+    private final ExecutorService writer;      // Writes the checkpoints to the file, one after another
+    private Future<?>             pending;     // The last checkpoint handed to the writer, null before the first one
+
+    /**
+     * Initializes the checkpoints of a run, see MGPSO.setCheckpoint.
+     * @param file     The file the checkpoints are written to, it is replaced by every checkpoint.
+     * @param interval The number of iterations between checkpoints, at least 1.
+     */
+    public Checkpoint (Path file, int interval) {
+
+        if (interval < 1)
+            throw new IllegalArgumentException("The interval must be at least 1, got " + interval + ".");
+
+        this.file = file;
+        this.interval = interval;
+
+        // A daemon thread, so a run which never closes its checkpoints can still exit
+        writer = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        pending = null;
+
+    } // Constructor
+
+    /**
+     * @param t The iteration the run is at.
+     * @return  boolean, whether a checkpoint is due at iteration t.
+     */
+    public boolean isDue (int t) {
+        return t % interval == 0;
+    } // isDue
+
+    /**
+     * Saves the state of a run. The state is copied now and written to the file in the background, after the previous
+     * checkpoint is written.
+     * @param mgpso The run, between two iterations.
+     * @throws UncheckedIOException If writing the previous checkpoint failed.
+     */
+    public void save (MGPSO mgpso) {
+
+        await();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeHeader(out, mgpso.getP(), mgpso.Archive);
+            mgpso.writeState(out);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Unable to save the checkpoint.", e);
+        }
+
+        byte [] state = bytes.toByteArray();
+        pending = writer.submit(() -> {
+            write(state);
+            return null;
+        });
+
+    } // save
+
+    /**
+     * Waits for the last checkpoint to be written and stops the background thread.
+     * @throws UncheckedIOException If writing the last checkpoint failed.
+     */
+    @Override
+    public void close () {
+        try {
+            await();
+        }
+        finally {
+            writer.shutdown();
+        }
+    } // close
+
+    /**
+     * Resumes a run from its last checkpoint. The run then continues exactly as the run that saved the checkpoint would
+     * have, as long as it is set up the same way (e.g. setCheckpoint again for further checkpoints).
+     * @param file    The file the checkpoints of the run were written to.
+     * @param prob    The problem of the run, a new instance of the same problem is fine.
+     * @param archive An empty archive of the same type and capacity as the run's, e.g. from Main.archive.
+     * @return        MGPSO, the run as it was at the checkpoint.
+     * @throws IOException If the file can't be read or isn't a checkpoint.
+     */
+    public static MGPSO resume (Path file, Problem prob, Archive archive) throws IOException {
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file)))) {
+
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                throw new IOException("Not an MGPSO checkpoint: " + file + ".");
+
+            checkHeader(in, file, prob, archive);
+
+            return new MGPSO(prob, archive, in);
+
+        }
+
+    } // resume
+
+    /**
+     * @param mgpso The run, between two iterations.
+     * @return      byte [], the complete state of the run as a checkpoint holds it after its header, so two runs in
+     *              exactly the same state give the same bytes.
+     */
+    static byte [] state (MGPSO mgpso) {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            mgpso.writeState(out);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+
+    } // state
+
+    /**
+     * Writes what a checkpoint can only be resumed with: the type of problem, its dimensions and objectives, and the
+     * type of archive.
+     * @param out     The output the header is written to.
+     * @param prob    The problem of the run.
+     * @param archive The archive of the run.
+     * @throws IOException If writing fails.
+     */
+    private static void writeHeader (DataOutputStream out, Problem prob, Archive archive) throws IOException {
+        out.writeUTF(prob.getClass().getName());
+        out.writeInt(prob.n);
+        out.writeInt(prob.nObj);
+        out.writeUTF(archive.getClass().getName());
+    } // writeHeader
+
+    /**
+     * Checks a checkpoint can be resumed with a problem and an archive, see writeHeader.
+     * @param in      The input the header is read from.
+     * @param file    The file of the checkpoint.
+     * @param prob    The problem the run is resumed with.
+     * @param archive The archive the run is resumed with.
+     * @throws IOException If reading fails.
+     */
+    private static void checkHeader (DataInputStream in, Path file, Problem prob, Archive archive) throws IOException {
+
+        String problem = in.readUTF();
+        int n = in.readInt();
+        int nObj = in.readInt();
+        String type = in.readUTF();
+
+        if (!problem.equals(prob.getClass().getName()) || n != prob.n || nObj != prob.nObj)
+            throw new IllegalArgumentException("The checkpoint " + file + " is of " + problem + " with " + n +
+                                               " dimensions and " + nObj + " objectives, not of " +
+                                               prob.getClass().getName() + " with " + prob.n + " and " + prob.nObj +
+                                               ".");
+        if (!type.equals(archive.getClass().getName()))
+            throw new IllegalArgumentException("The checkpoint " + file + " has a " + type + ", not a " +
+                                               archive.getClass().getName() + ".");
+
+    } // checkHeader
+
+    /**
+     * Waits for the last checkpoint handed to the writer to be written.
+     * @throws UncheckedIOException If writing it failed.
+     */
+    private void await () {
+
+        if (pending == null)
+            return;
+
+        try {
+            pending.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the checkpoint to be written.", e);
+        }
+        catch (ExecutionException e) {
+            throw new UncheckedIOException("Unable to write the checkpoint to " + file + ".",
+                                           e.getCause() instanceof IOException ? (IOException) e.getCause() :
+                                                                                  new IOException(e.getCause()));
+        }
+        finally {
+            pending = null;
+        }
+
+    } // await
+
+    /**
+     * Writes a checkpoint to a temporary file, forces it to the disk and moves it over the file.
+     * @param state The checkpoint.
+     * @throws IOException If writing fails.
+     */
+    private void write (byte [] state) throws IOException {
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(state);
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            channel.force(true);
+        }
+
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+    } // write
+
+} // Checkpoint
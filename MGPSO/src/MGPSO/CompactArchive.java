@@ -0,0 +1,472 @@
+package MGPSO;
+
+import Benchmarks.Problem;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * This class represents an Archive which stores its particles as flat primitive arrays instead of Particle objects.
+ *
+ * Only the position (for the guide selection) and the fitnesses (for the archive management) of a particle are ever
+ * used once it is in the archive, so those are the only things stored:
+ *
+ * (1) positions, one block of n doubles per particle.
+ *
+ * (2) fitnesses, one block of nObj doubles per particle.
+ *
+ * (3) distances, the crowding distance of each particle.
+ *
+ * Particles are removed by moving the last particle into the freed slot, so the arrays never have holes. Dominance
+ * checks read the fitnesses sequentially instead of following a reference per particle.
+ *
+ * The pool inherited from Archive stays empty, the contents are read through size(), getFitness() and getPosition().
+ */
+public class CompactArchive extends Archive {
+
+    private int       n;            // Number of problem dimensions (stride of the positions)
+    private int       nObj;         // Number of objectives (stride of the fitnesses)
+    private int       size;         // The number of particles in the archive
+
+    private double [] positions;    // The position of each particle, n values per particle
+    private double [] fitnesses;    // The fitness of each particle on each objective, nObj values per particle
+    private double [] distances;    // The crowding distance of each particle
+
+    private int []    order;        // Scratch space for sorting the particles on one objective
+    private double [] keys;         // Scratch space for the values the particles are sorted on
+
+    /**
+     * Initializes the compact archive.
+     * @param rand The instance of random used throughout the implementation.
+     * @param prob The problem we're trying to optimize.
+     * @param c    The total number of particle allowed in the archive (capacity).
+     */
+    public CompactArchive (Random rand, Problem prob, int c) {
+
+        super(rand, prob, c);
+
+        n = prob.n;
+        nObj = prob.nObj;
+        size = 0;
+
+        // One extra slot for the particle added just before the archive is truncated
+        int initial = (int) Math.min((long) c + 1, 64);
+        positions = new double [initial * n];
+        fitnesses = new double [initial * nObj];
+        distances = new double [initial];
+        order = new int [initial];
+        keys = new double [initial];
+
+    } // Constructor
+
+    /**
+     * Tournament selection on the archive for the MGPSO velocity update, without allocating.
+     * @param k    The number of selected competitors.
+     * @param rand The instance of random the competitors are drawn with.
+     * @param out  Receives the position of the winner of the tournament (largest crowding distance).
+     */
+    @Override
+    public void selection (int k, Random rand, double [] out) {
+
+        if (stale)
+            calculateCrowdingDistance();
+
+        // Ties go to the competitor drawn last
+        int winner = rand.nextInt(size);
+        for (int i = 1; i < k; i++) {
+            int competitor = rand.nextInt(size);
+            if (distances[competitor] >= distances[winner])
+                winner = competitor;
+        }
+
+        System.arraycopy(positions, winner * n, out, 0, n);
+
+    } // selection
+
+    /**
+     * Checks if a particle is not dominated by any other in the archive.
+     * @param x The particle we're checking for non-domination.
+     * @return  boolean, true is the particle is non-dominated, false otherwise.
+     */
+    @Override
+    public boolean isNonDominated (Particle x) {
+
+        double [] f_x = x.getFitnesses();
+
+        for (int i = 0; i < size; i++)
+            if (weaklyDominates(i, f_x, 0) && !equals(i, f_x, 0))
+                return false;
+
+        return true;
+
+    } // isNonDominated
+
+    /**
+     * Checks if the passed in particle is in the archive.
+     * @param x The particle.
+     * @return  boolean, true if the particle is in the archive. Otherwise, not.
+     */
+    @Override
+    public boolean duplicate (Particle x) {
+
+        double [] f_x = x.getFitnesses();
+
+        for (int i = 0; i < size; i++)
+            if (equals(i, f_x, 0))
+                return true;
+
+        return false;
+
+    } // duplicate
+
+    /**
+     * Calculates the crowding distance of every particle in the archive, see Archive.calculateCrowdingDistance. The
+     * particles are sorted through an index array, so they never move.
+     */
+    @Override
+    public void calculateCrowdingDistance () {
+
+        Arrays.fill(distances, 0, size, 0);
+
+        if (size == 0) {
+            stale = false;
+            return;
+        }
+
+        for (int m = 0; m < nObj; m++) {
+
+            // Sort the particles based on the mth objective fitness values
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+                keys[i] = fitnesses[i * nObj + m];
+            }
+            sort(0, size - 1);
+
+            double objectiveMin = keys[order[0]];
+            double objectiveMax = keys[order[size - 1]];
+
+            for (int i = 0; i < size; i++) {
+
+                // The particles on either end of the axis have only an inside neighbour
+                if (i == 0 || i == size - 1)
+                    distances[order[i]] = Double.MAX_VALUE;
+
+                else if (objectiveMax != objectiveMin)
+                    distances[order[i]] += (keys[order[i + 1]] - keys[order[i - 1]]) / (objectiveMax - objectiveMin);
+
+            }
+
+        }
+
+        stale = false;
+
+    } // calculateCrowdingDistance
+
+    /**
+     * This method acts as the archive management strategy (AMS). The particle is copied into the archive's arrays.
+     * @param x The particle we're attempting to add to the archive.
+     */
+    @Override
+    public void update (Particle x) {
+
+        double [] f_x = x.getFitnesses();
+
+        // One sequential pass: x is rejected by the first particle weakly dominating it, and removes the ones it
+        // dominates. A particle dominated by x can't exist in the archive if x is itself dominated, so nothing is
+        // removed before x is rejected.
+        int i = 0;
+        while (i < size) {
+            if (weaklyDominates(i, f_x, 0))
+                return;
+            if (dominatedBy(i, f_x, 0))
+                removeAt(i);
+            else
+                i++;
+        }
+
+        append(x.getPosition(), 0, f_x, 0);
+
+    } // update
+
+    /**
+     * Adds a particle already known to be neither dominated by nor a duplicate of any particle in the archive, see
+     * Archive.accept. The particle is copied into the archive's arrays.
+     * @param x The particle being added.
+     */
+    @Override
+    protected void accept (Particle x) {
+        accept(x.getPosition(), x.getFitnesses(), 0);
+    } // accept
+
+    /**
+     * Adds a particle of flat arrays already known to be neither dominated by nor a duplicate of any particle in the
+     * archive, see Archive.accept. The particle is copied straight into the archive's arrays.
+     * @param positions The positions of several particles, n values per particle.
+     * @param fitnesses The fitnesses of the same particles, nObj values per particle.
+     * @param j         The index of the particle being added in both arrays.
+     */
+    @Override
+    protected void accept (double [] positions, double [] fitnesses, int j) {
+
+        // Remove the particles the new one dominates
+        int i = 0;
+        while (i < size) {
+            if (dominatedBy(i, fitnesses, j * nObj))
+                removeAt(i);
+            else
+                i++;
+        }
+
+        append(positions, j * n, fitnesses, j * nObj);
+
+    } // accept
+
+    /**
+     * Checks a fitness vector against the archive in one sequential pass, see Archive.accepts.
+     * @param fitnesses Fitness vectors, nObj values per vector.
+     * @param offset    The index of the first value of the vector checked.
+     * @return          boolean, true if no particle in the archive is at least as fit as the vector on every objective.
+     */
+    @Override
+    protected boolean accepts (double [] fitnesses, int offset) {
+
+        for (int i = 0; i < size; i++)
+            if (weaklyDominates(i, fitnesses, offset))
+                return false;
+
+        return true;
+
+    } // accepts
+
+    /**
+     * Removes the most crowded individual from the archive.
+     */
+    @Override
+    public void removeMostCrowded () {
+
+        if (stale)
+            calculateCrowdingDistance();
+
+        // The first particle is removed when several are equally crowded
+        int mostCrowded = 0;
+        for (int i = 1; i < size; i++)
+            if (distances[i] < distances[mostCrowded])
+                mostCrowded = i;
+
+        removeAt(mostCrowded);
+
+    } // removeMostCrowded
+
+    /**
+     * Replaces the particles of the archive, in the given order, with their crowding distances as given.
+     * @param size      The number of particles.
+     * @param positions The position of each particle, n values per particle.
+     * @param fitnesses The fitness of each particle on each objective, nObj values per particle.
+     * @param distances The crowding distance of each particle.
+     */
+    @Override
+    protected void restore (int size, double [] positions, double [] fitnesses, double [] distances) {
+
+        ensureCapacity(size);
+        System.arraycopy(positions, 0, this.positions, 0, size * n);
+        System.arraycopy(fitnesses, 0, this.fitnesses, 0, size * nObj);
+        System.arraycopy(distances, 0, this.distances, 0, size);
+        this.size = size;
+
+    } // restore
+
+    /**
+     * @return int, the number of particles in the archive.
+     */
+    @Override
+    public int size () {
+        return size;
+    } // size
+
+    /**
+     * @param i The index of a particle in the archive.
+     * @param m The objective.
+     * @return  double, the fitness of the particle on objective m.
+     */
+    @Override
+    public double getFitness (int i, int m) {
+        return fitnesses[i * nObj + m];
+    } // getFitness
+
+    /**
+     * @param i The index of a particle in the archive.
+     * @param d The dimension.
+     * @return  double, the position of the particle in dimension d.
+     */
+    @Override
+    public double getPosition (int i, int d) {
+        return positions[i * n + d];
+    } // getPosition
+
+    /**
+     * @param i The index of a particle in the archive.
+     * @return  double, the crowding distance of the particle as of the last time they were calculated.
+     */
+    @Override
+    public double getCrowdingDistance (int i) {
+        return distances[i];
+    } // getCrowdingDistance
+
+    /**
+     * Appends a particle to the end of the arrays, truncating the archive when it goes over capacity.
+     * @param position The position of the particle, from index from.
+     * @param from     The index of the first value of the position.
+     * @param f        The fitnesses of the particle, from index offset.
+     * @param offset   The index of the first value of the fitnesses.
+     */
+    private void append (double [] position, int from, double [] f, int offset) {
+
+        ensureCapacity(size + 1);
+        System.arraycopy(position, from, positions, size * n, n);
+        System.arraycopy(f, offset, fitnesses, size * nObj, nObj);
+        size++;
+        stale = true;
+
+        if (size > capacity) {
+            removeMostCrowded();
+        }
+
+    } // append
+
+    /**
+     * Removes a particle by moving the last particle of the archive into its slot.
+     * @param i The index of the particle being removed.
+     */
+    private void removeAt (int i) {
+
+        int last = size - 1;
+        if (i != last) {
+            System.arraycopy(positions, last * n, positions, i * n, n);
+            System.arraycopy(fitnesses, last * nObj, fitnesses, i * nObj, nObj);
+            distances[i] = distances[last];
+        }
+        size--;
+        stale = true;
+
+    } // removeAt
+
+    /**
+     * Grows the arrays to hold at least a number of particles.
+     * @param required The number of particles the arrays must hold.
+     */
+    private void ensureCapacity (int required) {
+
+        if (required <= distances.length)
+            return;
+
+        int grown = (int) Math.min(Math.max((long) distances.length * 2, required), (long) capacity + 1);
+        positions = Arrays.copyOf(positions, grown * n);
+        fitnesses = Arrays.copyOf(fitnesses, grown * nObj);
+        distances = Arrays.copyOf(distances, grown);
+        order = new int [grown];
+        keys = new double [grown];
+
+    } // ensureCapacity
+
+    /**
+     * @param i The index of a particle in the archive.
+     * @param f Fitness vectors.
+     * @param j The index of the first value of a fitness vector in f.
+     * @return  boolean, true if the particle is at least as fit as the vector on every objective.
+     */
+    private boolean weaklyDominates (int i, double [] f, int j) {
+        int offset = i * nObj;
+        for (int m = 0; m < nObj; m++)
+            if (fitnesses[offset + m] > f[j + m])
+                return false;
+        return true;
+    } // weaklyDominates
+
+    /**
+     * @param i The index of a particle in the archive.
+     * @param f Fitness vectors.
+     * @param j The index of the first value of a fitness vector in f.
+     * @return  boolean, true if the particle is dominated by the vector.
+     */
+    private boolean dominatedBy (int i, double [] f, int j) {
+        int offset = i * nObj;
+        for (int m = 0; m < nObj; m++)
+            if (f[j + m] > fitnesses[offset + m])
+                return false;
+        return !equals(i, f, j);
+    } // dominatedBy
+
+    /**
+     * @param i The index of a particle in the archive.
+     * @param f Fitness vectors.
+     * @param j The index of the first value of a fitness vector in f.
+     * @return  boolean, true if the particle has exactly the fitnesses of the vector, with the same semantics as
+     *          Arrays.equals.
+     */
+    private boolean equals (int i, double [] f, int j) {
+        int offset = i * nObj;
+        for (int m = 0; m < nObj; m++)
+            if (Double.doubleToLongBits(fitnesses[offset + m]) != Double.doubleToLongBits(f[j + m]))
+                return false;
+        return true;
+    } // equals
+
+    /**
+     * Sorts part of the order array on the keys of the particles (quicksort, insertion sort for short ranges).
+     * @param lo The first index of the range.
+     * @param hi The last index of the range.
+     */
+    private void sort (int lo, int hi) {
+
+        while (hi - lo > 16) {
+
+            // Median of three as the pivot
+            int mid = (lo + hi) >>> 1;
+            if (keys[order[mid]] < keys[order[lo]]) swap(mid, lo);
+            if (keys[order[hi]] < keys[order[lo]]) swap(hi, lo);
+            if (keys[order[hi]] < keys[order[mid]]) swap(hi, mid);
+            double pivot = keys[order[mid]];
+
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (keys[order[i]] < pivot) i++;
+                while (keys[order[j]] > pivot) j--;
+                if (i <= j) swap(i++, j--);
+            }
+
+            // Recurse into the smaller half, loop on the larger one
+            if (j - lo < hi - i) {
+                sort(lo, j);
+                lo = i;
+            }
+            else {
+                sort(i, hi);
+                hi = j;
+            }
+
+        }
+
+        for (int i = lo + 1; i <= hi; i++) {
+            int current = order[i];
+            int j = i - 1;
+            while (j >= lo && keys[order[j]] > keys[current]) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = current;
+        }
+
+    } // sort
+
+    /**
+     * Swaps two entries of the order array.
+     * @param i The first entry.
+     * @param j The second entry.
+     */
+    private void swap (int i, int j) {
+        int temp = order[i];
+        order[i] = order[j];
+        order[j] = temp;
+    } // swap
+
+} // CompactArchive
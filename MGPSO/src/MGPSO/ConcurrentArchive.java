@@ -0,0 +1,463 @@
+package MGPSO;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class represents an Archive which can be updated and selected from by many threads at once, around any other
+ * archive management strategy.
+ *
+ * (1) Reads never block. The contents of the archive are published as an immutable snapshot (flat arrays of the
+ *     positions, fitnesses and crowding distances) through a volatile reference, so selection and the accessors read a
+ *     consistent archive even while it is being updated.
+ *
+ * (2) Most updates don't write anything. A particle dominated by, or a duplicate of, a particle of the latest snapshot
+ *     is rejected without a lock, like the wrapped archive would reject it.
+ *
+ * (3) Writers rarely wait for each other. A particle which isn't rejected is put on a queue, and whichever writer gets
+ *     the lock applies every queued particle to the wrapped archive as one batch and publishes a new snapshot. The other
+ *     writers return straight away, their particles are applied by the writer holding the lock. Only when more than
+ *     MAX_PENDING particles are queued do writers wait for the lock, so the queue can't outgrow the writer.
+ *
+ * Updates are applied shortly after they are made rather than immediately: once no update is in progress, every update
+ * made so far is in the snapshot. flush applies the queued updates straight away.
+ *
+ * The pool inherited from Archive stays empty, the contents are read through size(), getFitness() and getPosition().
+ */
+public class ConcurrentArchive extends Archive {
+
+    private static final int MAX_PENDING = 1024;    // Queued particles before writers wait for the lock
+
+    private final Archive                              delegate;    // The archive management strategy being wrapped
+
+    private final ConcurrentLinkedQueue<Particle []>   pending;     // Updates waiting to be applied to the delegate
+    private final AtomicInteger                        queued;      // The number of particles waiting in pending
+    private final ReentrantLock                        writer;      // Held by the writer applying the pending updates
+    private volatile Snapshot                          snapshot;    // The contents of the archive as last published
+
+    /**
+     * Initializes a thread-safe archive around another archive. The other archive must not be used directly afterwards.
+     * @param archive The archive management strategy to use, empty.
+     */
+    public ConcurrentArchive (Archive archive) {
+
+        super(archive.r, archive.p, archive.capacity);
+
+        delegate = archive;
+        pending = new ConcurrentLinkedQueue<>();
+        queued = new AtomicInteger(0);
+        writer = new ReentrantLock();
+        snapshot = new Snapshot(delegate);
+
+    } // Constructor
+
+    /**
+     * Tournament selection on the archive's latest snapshot, without locking or allocating. Each thread must pass its own
+     * instance of random, unless it is safe to share between threads. The snapshot of a fresh archive can still be
+     * empty after an update, while another writer applies it, so an empty snapshot waits for the pending updates.
+     * @param k    The number of selected competitors.
+     * @param rand The instance of random the competitors are drawn with.
+     * @param out  Receives the position of the winner of the tournament (largest crowding distance).
+     * @throws IllegalStateException If the archive is empty, even after the pending updates.
+     */
+    @Override
+    public void selection (int k, Random rand, double [] out) {
+
+        Snapshot s = snapshot;
+        if (s.size == 0) {
+            flush();
+            s = snapshot;
+            if (s.size == 0)
+                throw new IllegalStateException("Selection from an empty archive.");
+        }
+
+        // Ties go to the competitor drawn last
+        int winner = rand.nextInt(s.size);
+        for (int i = 1; i < k; i++) {
+            int competitor = rand.nextInt(s.size);
+            if (s.distances[competitor] >= s.distances[winner])
+                winner = competitor;
+        }
+
+        System.arraycopy(s.positions, winner * p.n, out, 0, p.n);
+
+    } // selection
+
+    /**
+     * Nothing to do, the crowding distances of a snapshot are calculated when it is published.
+     */
+    @Override
+    public void prepareSelection () {
+    } // prepareSelection
+
+    /**
+     * Checks if a particle is not dominated by any other in the archive's latest snapshot.
+     * @param x The particle we're checking for non-domination.
+     * @return  boolean, true is the particle is non-dominated, false otherwise.
+     */
+    @Override
+    public boolean isNonDominated (Particle x) {
+
+        Snapshot s = snapshot;
+        double [] f_x = x.getFitnesses();
+
+        for (int i = 0; i < s.size; i++)
+            if (s.weaklyDominates(i, f_x) && !s.equals(i, f_x))
+                return false;
+
+        return true;
+
+    } // isNonDominated
+
+    /**
+     * Checks if the passed in particle is in the archive's latest snapshot.
+     * @param x The particle.
+     * @return  boolean, true if the particle is in the archive. Otherwise, not.
+     */
+    @Override
+    public boolean duplicate (Particle x) {
+
+        Snapshot s = snapshot;
+        double [] f_x = x.getFitnesses();
+
+        for (int i = 0; i < s.size; i++)
+            if (s.equals(i, f_x))
+                return true;
+
+        return false;
+
+    } // duplicate
+
+    /**
+     * Applies the pending updates, the crowding distances of a snapshot are calculated when it is published.
+     */
+    @Override
+    public void calculateCrowdingDistance () {
+        flush();
+    } // calculateCrowdingDistance
+
+    /**
+     * Queues a particle for the archive management strategy, unless the latest snapshot rejects it.
+     * @param x The particle we're attempting to add to the archive, it is copied when kept.
+     */
+    @Override
+    public void update (Particle x) {
+        if (isNonDominated(x) && !duplicate(x))
+            submit(new Particle [] {new Particle(x.getPosition(), x.getFitnesses(), 0, p)});
+    } // update
+
+    /**
+     * Queues a batch of particles for the archive management strategy. The batch is reduced to its own non-dominated
+     * particles, then to those the latest snapshot doesn't reject, so only those are copied and queued.
+     * @param batch The particles we're attempting to add to the archive, they are copied when kept.
+     */
+    @Override
+    public void updateBatch (Particle [] batch) {
+
+        double [] fitnesses = new double [batch.length * p.nObj];
+        for (int i = 0; i < batch.length; i++)
+            System.arraycopy(batch[i].getFitnesses(), 0, fitnesses, i * p.nObj, p.nObj);
+
+        int [] accepted = accepted(fitnesses, batch.length);
+        Particle [] copies = new Particle [accepted.length];
+        for (int j = 0; j < accepted.length; j++)
+            copies[j] = new Particle(batch[accepted[j]].getPosition(), batch[accepted[j]].getFitnesses(), 0, p);
+
+        submit(copies);
+
+    } // updateBatch
+
+    /**
+     * Queues every particle of a swarm for the archive management strategy, see updateBatch(Particle []).
+     * @param swarm The swarm whose particles we're attempting to add to the archive, they are copied when kept.
+     */
+    @Override
+    public void updateBatch (Swarm swarm) {
+
+        SwarmState state = swarm.getState();
+
+        int [] accepted = accepted(state.fitnesses, state.s);
+        Particle [] copies = new Particle [accepted.length];
+        for (int j = 0; j < accepted.length; j++)
+            copies[j] = new Particle(state.positions, state.fitnesses, accepted[j], p);
+
+        submit(copies);
+
+    } // updateBatch
+
+    /**
+     * Removes the most crowded individual from the archive, after the pending updates.
+     */
+    @Override
+    public void removeMostCrowded () {
+
+        writer.lock();
+        try {
+            applyPending();
+            delegate.removeMostCrowded();
+            snapshot = new Snapshot(delegate);
+        }
+        finally {
+            writer.unlock();
+        }
+
+    } // removeMostCrowded
+
+    /**
+     * Applies every pending update now, waiting for the writer currently applying updates if there is one.
+     */
+    public void flush () {
+
+        writer.lock();
+        try {
+            applyPending();
+        }
+        finally {
+            writer.unlock();
+        }
+
+    } // flush
+
+    /**
+     * @return boolean, true, the archive can be used by several threads at once.
+     */
+    @Override
+    public boolean isThreadSafe () {
+        return true;
+    } // isThreadSafe
+
+    /**
+     * Writes the complete contents of the wrapped archive, after the pending updates.
+     * @param out The output the contents are written to.
+     * @throws IOException If writing fails.
+     */
+    @Override
+    public void writeState (DataOutput out) throws IOException {
+
+        writer.lock();
+        try {
+            applyPending();
+            delegate.writeState(out);
+        }
+        finally {
+            writer.unlock();
+        }
+
+    } // writeState
+
+    /**
+     * Replaces the contents of the wrapped archive with the contents written by writeState and publishes them.
+     * @param in The input the contents are read from.
+     * @throws IOException If reading fails.
+     */
+    @Override
+    public void readState (DataInput in) throws IOException {
+
+        writer.lock();
+        try {
+            pending.clear();
+            queued.set(0);
+            delegate.readState(in);
+            r = delegate.r;
+            snapshot = new Snapshot(delegate);
+        }
+        finally {
+            writer.unlock();
+        }
+
+    } // readState
+
+    /**
+     * @return int, the number of particles in the archive's latest snapshot.
+     */
+    @Override
+    public int size () {
+        return snapshot.size;
+    } // size
+
+    /**
+     * @param i The index of a particle in the archive's latest snapshot.
+     * @param m The objective.
+     * @return  double, the fitness of the particle on objective m.
+     */
+    @Override
+    public double getFitness (int i, int m) {
+        return snapshot.fitnesses[i * p.nObj + m];
+    } // getFitness
+
+    /**
+     * @param i The index of a particle in the archive's latest snapshot.
+     * @param d The dimension.
+     * @return  double, the position of the particle in dimension d.
+     */
+    @Override
+    public double getPosition (int i, int d) {
+        return snapshot.positions[i * p.n + d];
+    } // getPosition
+
+    /**
+     * @param i The index of a particle in the archive's latest snapshot.
+     * @return  double, the crowding distance of the particle when the snapshot was published.
+     */
+    @Override
+    public double getCrowdingDistance (int i) {
+        return snapshot.distances[i];
+    } // getCrowdingDistance
+
+    /**
+     * Checks a fitness vector against the archive's latest snapshot in one pass, see Archive.accepts.
+     * @param fitnesses Fitness vectors, nObj values per vector.
+     * @param offset    The index of the first value of the vector checked.
+     * @return          boolean, true if no particle in the snapshot is at least as fit as the vector on every objective.
+     */
+    @Override
+    protected boolean accepts (double [] fitnesses, int offset) {
+
+        Snapshot s = snapshot;
+        for (int i = 0; i < s.size; i++)
+            if (weaklyDominates(s.fitnesses, i * s.nObj, fitnesses, offset, s.nObj))
+                return false;
+
+        return true;
+
+    } // accepts
+
+    /**
+     * @param fitnesses The fitness vectors of a batch of candidates, nObj values per vector.
+     * @param count     The number of candidates.
+     * @return          int [], the indices of the candidates which are non-dominated within the batch and which the
+     *                  latest snapshot doesn't reject.
+     */
+    private int [] accepted (double [] fitnesses, int count) {
+
+        int [] accepted = nonDominated(fitnesses, p.nObj, count);
+        int size = 0;
+        for (int i : accepted)
+            if (accepts(fitnesses, i * p.nObj))
+                accepted[size++] = i;
+
+        return Arrays.copyOf(accepted, size);
+
+    } // accepted
+
+    /**
+     * Queues a batch of particles, then applies the queue unless another writer is applying it. That writer checks the
+     * queue again after releasing the lock, so no update is left behind once every writer has returned.
+     * @param batch The particles, owned by the archive from now on.
+     */
+    private void submit (Particle [] batch) {
+
+        if (batch.length == 0)
+            return;
+
+        pending.add(batch);
+        queued.addAndGet(batch.length);
+
+        // Wait for the lock when the queue is long, so the writer applying it can keep up
+        if (queued.get() > MAX_PENDING) {
+            flush();
+            return;
+        }
+
+        while (!pending.isEmpty() && writer.tryLock()) {
+            try {
+                applyPending();
+            }
+            finally {
+                writer.unlock();
+            }
+        }
+
+    } // submit
+
+    /**
+     * Applies every queued batch to the delegate as one batch and publishes a new snapshot. The writer lock must be held.
+     */
+    private void applyPending () {
+
+        ArrayList<Particle> batch = new ArrayList<>();
+        Particle [] next;
+        while ((next = pending.poll()) != null) {
+            queued.addAndGet(-next.length);
+            for (Particle x : next)
+                batch.add(x);
+        }
+
+        if (batch.isEmpty())
+            return;
+
+        delegate.updateBatch(batch.toArray(new Particle [0]));
+        snapshot = new Snapshot(delegate);
+
+    } // applyPending
+
+    /**
+     * The contents of an archive at one point in time, never changed once published.
+     */
+    private static class Snapshot {
+
+        final int       size;          // The number of particles
+        final int       nObj;          // Number of objectives (stride of the fitnesses)
+        final double [] positions;     // The position of each particle, n values per particle
+        final double [] fitnesses;     // The fitness of each particle on each objective, nObj values per particle
+        final double [] distances;     // The crowding distance of each particle
+
+        /**
+         * Copies the contents of an archive, with up to date crowding distances.
+         * @param archive The archive.
+         */
+        Snapshot (Archive archive) {
+
+            archive.calculateCrowdingDistance();
+
+            int n = archive.p.n;
+            size = archive.size();
+            nObj = archive.p.nObj;
+            positions = new double [size * n];
+            fitnesses = new double [size * nObj];
+            distances = new double [size];
+
+            for (int i = 0; i < size; i++) {
+                for (int d = 0; d < n; d++)
+                    positions[i * n + d] = archive.getPosition(i, d);
+                for (int m = 0; m < nObj; m++)
+                    fitnesses[i * nObj + m] = archive.getFitness(i, m);
+                distances[i] = archive.getCrowdingDistance(i);
+            }
+
+        } // Constructor
+
+        /**
+         * @param i The index of a particle in the snapshot.
+         * @param f A fitness vector.
+         * @return  boolean, true if the particle is at least as fit as f on every objective.
+         */
+        boolean weaklyDominates (int i, double [] f) {
+            for (int m = 0; m < nObj; m++)
+                if (fitnesses[i * nObj + m] > f[m])
+                    return false;
+            return true;
+        } // weaklyDominates
+
+        /**
+         * @param i The index of a particle in the snapshot.
+         * @param f A fitness vector.
+         * @return  boolean, true if the particle has exactly the fitnesses f, with the same semantics as Arrays.equals.
+         */
+        boolean equals (int i, double [] f) {
+            for (int m = 0; m < nObj; m++)
+                if (Double.doubleToLongBits(fitnesses[i * nObj + m]) != Double.doubleToLongBits(f[m]))
+                    return false;
+            return true;
+        } // equals
+
+    } // Snapshot
+
+} // ConcurrentArchive
@@ -0,0 +1,373 @@
+package MGPSO;
+
+import Benchmarks.Problem;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * This class runs an experiment: a number of independent runs of MGPSO on each of a number of problems.
+ *
+ * (1) Every (problem, run) pair is a job on a work-stealing pool, by default with one thread per core. The jobs don't
+ *     share any state, so a sweep takes about the time of one job times the number of jobs over the number of cores.
+ *
+ * (2) Every job has its own seed, drawn from the experiment's seed in a fixed order, so a job can be repeated on its
+ *     own (see runJob) and the whole experiment can be repeated from its seed, whatever order the jobs finish in.
+ *
+ * (3) Every job writes its final archive, with the positions of its particles, to its own binary result file,
+ *     RunsTemp/problem_run.result like Main (see ResultFile, and ResultFile.openAll to load them all). The seed, wall
+ *     time and evaluations of every job are printed as it finishes and written to RunsTemp/experiment.csv at the end,
+ *     along with the throughput of the whole experiment.
+ *
+ * (4) In lockstep mode, the runs of each problem are one job instead, stepped together so their particles are evaluated
+ *     in one batch per iteration (see Lockstep). Every run still has its own seed and gives the same archive.
+ *
+ * (5) With checkpoints, every job saves its state every few iterations to RunsTemp/problem_run_seed.ckpt (see
+ *     Checkpoint) and resumes from it when the file is there, so an experiment which is stopped and run again with the
+ *     same seed picks every job up where it was and gives the same archives. The state of a job's termination criteria
+ *     is in its checkpoint too, so a resumed job stops at the same iteration, unless it has a time limit. A job's
+ *     checkpoint is deleted once it finishes. Lockstep jobs aren't checkpointed.
+ *
+ * (6) Every job stops at the number of iterations, or earlier when one of the experiment's other termination criteria
+ *     is met (see Termination), e.g. once the archive's hypervolume stops improving. The criterion which stopped each
+ *     job is printed and written to the summary. Lockstep jobs always run every iteration.
+ */
+public class Experiment {
+
+    private static final String DIRECTORY = "RunsTemp";    // Where the archives and the summary are written
+
+    private final String [] problems;      // The names of the problems
+    private final int       runs;          // The number of runs per problem
+    private final int       iterations;    // The number of MGPSO iterations per run
+    private final int       threads;       // The number of jobs run at once
+    private final long      seed;          // The experiment's seed, every job's seed is drawn from it
+    private boolean         lockstep;      // Whether the runs of each problem are stepped together as one job
+    private int             checkpoints;   // The number of iterations between a job's checkpoints, 0 for none
+    private Function<Problem, Termination []> termination; // Gives each job its own criteria to stop early, or null
+
+    /**
+     * Initializes an experiment.
+     * @param problems   The names of the problems, see Main.problem.
+     * @param runs       The number of runs per problem.
+     * @param iterations The number of MGPSO iterations per run.
+     * @param threads    The number of jobs run at once, e.g. the number of cores.
+     * @param seed       The experiment's seed.
+     */
+    public Experiment (String [] problems, int runs, int iterations, int threads, long seed) {
+
+        if (runs < 1 || iterations < 0 || threads < 1)
+            throw new IllegalArgumentException("An experiment needs at least one run and one thread.");
+
+        this.problems = problems.clone();
+        this.runs = runs;
+        this.iterations = iterations;
+        this.threads = threads;
+        this.seed = seed;
+
+        // DEFAULT: every run is its own job, without checkpoints, and runs every iteration
+        lockstep = false;
+        checkpoints = 0;
+        termination = null;
+
+    } // Constructor
+
+    /**
+     * Runs every job and waits for all of them, printing each job as it finishes and the throughput at the end.
+     * @return List<Result>, the result of every job in the order they finished.
+     */
+    public List<Result> run () {
+
+        try {
+            Files.createDirectories(Paths.get(DIRECTORY));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Unable to create " + DIRECTORY + ".", e);
+        }
+
+        int jobs = lockstep ? problems.length : problems.length * runs;
+        System.out.println("Experiment seed: " + seed + ", " + problems.length * runs + " runs as " + jobs + " jobs on " +
+                           threads + " threads\n");
+
+        // The seeds are drawn before any job starts, so they don't depend on the order the jobs run in
+        RandomStream r = new RandomStream(seed);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        CompletionService<List<Result>> completion = new ExecutorCompletionService<>(pool);
+        long start = System.nanoTime();
+        for (String problem : problems) {
+            long [] seeds = new long [runs];
+            for (int run = 1; run <= runs; run++) {
+                int job = run;
+                long jobSeed = r.nextLong();
+                seeds[run - 1] = jobSeed;
+                if (!lockstep)
+                    completion.submit(() -> List.of(runJob(problem, job, iterations, jobSeed, checkpoints,
+                                                           termination)));
+            }
+            if (lockstep)
+                completion.submit(() -> runLockstep(problem, iterations, seeds));
+        }
+
+        // The runs of a job share its wall time
+        List<Result> results = new ArrayList<>();
+        double busy = 0;
+        try {
+            for (int i = 0; i < jobs; i++) {
+                List<Result> job = completion.take().get();
+                busy += job.get(0).millis / 1000.0;
+                for (Result result : job) {
+                    results.add(result);
+                    System.out.println(result);
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the jobs.", e);
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException("A job failed.", e.getCause());
+        }
+        finally {
+            pool.shutdownNow();
+        }
+        double wall = (System.nanoTime() - start) / 1e9;
+
+        // Throughput, and how many jobs ran at once on average
+        long evaluations = 0;
+        for (Result result : results)
+            evaluations += result.evaluations;
+        System.out.printf("\n%d runs in %.1f s: %.2f runs/s, %.0f evaluations/s, %.1f jobs running at once on " +
+                          "average\n", results.size(), wall, results.size() / wall, evaluations / wall, busy / wall);
+
+        writeSummary(results);
+
+        return results;
+
+    } // run
+
+    /**
+     * Runs one job: MGPSO on a problem from a seed, writing the final archive to RunsTemp/problem_run.result.
+     * @param problemName The name of the problem, see Main.problem.
+     * @param run         The number of the run.
+     * @param iterations  The number of MGPSO iterations.
+     * @param seed        The job's seed.
+     * @return            Result, the job's seed, wall time and evaluations.
+     */
+    public static Result runJob (String problemName, int run, int iterations, long seed) {
+        return runJob(problemName, run, iterations, seed, 0, null);
+    } // runJob
+
+    /**
+     * Runs one job like runJob, saving a checkpoint every few iterations to RunsTemp/problem_run_seed.ckpt. When the
+     * file is already there the job resumes from it instead of starting over, and gives exactly the same archive. The
+     * checkpoint is deleted once the job finishes. The job stops early when one of the termination criteria is met,
+     * at the same iteration whether it was resumed or not (unless a criterion is a time limit).
+     * @param problemName The name of the problem, see Main.problem.
+     * @param run         The number of the run.
+     * @param iterations  The maximum number of MGPSO iterations.
+     * @param seed        The job's seed.
+     * @param checkpoints The number of iterations between checkpoints, 0 for none.
+     * @param termination Gives the job's own criteria to stop early from its problem, null for none.
+     * @return            Result, the job's seed, wall time (of this part of it when resumed), evaluations and the
+     *                    criterion which stopped it.
+     */
+    public static Result runJob (String problemName, int run, int iterations, long seed, int checkpoints,
+                                 Function<Problem, Termination []> termination) {
+
+        long start = System.nanoTime();
+
+        RandomStream r = new RandomStream(seed);
+        Problem problem = Main.problem(problemName);
+        Archive archive = Main.archive(r, problem);
+        Path file = Paths.get(DIRECTORY, problemName + "_" + run + "_" + seed + ".ckpt");
+
+        MGPSO mgpso;
+        try {
+            mgpso = checkpoints > 0 && Files.exists(file) ? Checkpoint.resume(file, problem, archive) :
+                                                            new MGPSO(r, problem, archive);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Unable to resume from " + file + ".", e);
+        }
+
+        Checkpoint checkpoint = checkpoints > 0 ? new Checkpoint(file, checkpoints) : null;
+        mgpso.setCheckpoint(checkpoint);
+        Termination [] criteria = termination == null ? new Termination [0] : termination.apply(problem);
+        Termination [] all = Arrays.copyOf(criteria, criteria.length + 1);
+        all[criteria.length] = Termination.iterations(iterations);
+        Termination stop = mgpso.run(all);
+        if (checkpoint != null)
+            checkpoint.close();
+
+        writeResult(problemName, run, seed, mgpso);
+
+        try {
+            Files.deleteIfExists(file);
+        }
+        catch (IOException e) {
+            System.out.println("Unable to delete " + file + ".");
+        }
+
+        return new Result(problemName, run, seed, (System.nanoTime() - start) / 1000000, mgpso.getEvaluations(),
+                          mgpso.Archive.size(), mgpso.getT(), stop.getName());
+
+    } // runJob
+
+    /**
+     * Runs the runs of a problem in lockstep, see Lockstep, writing the final archive of run i to
+     * RunsTemp/problem_i.result. Each run gives the same archive as runJob with the same seed.
+     * @param problemName The name of the problem, see Main.problem.
+     * @param iterations  The number of MGPSO iterations.
+     * @param seeds       The seed of each run, run i + 1 gets seeds[i].
+     * @return            List<Result>, the seed and evaluations of each run, with the wall time of them all.
+     */
+    public static List<Result> runLockstep (String problemName, int iterations, long [] seeds) {
+
+        long start = System.nanoTime();
+
+        Lockstep lockstep = Lockstep.of(Main.problem(problemName), seeds);
+        for (int t = 0; t < iterations; t++)
+            lockstep.iterate();
+
+        long millis = (System.nanoTime() - start) / 1000000;
+        List<Result> results = new ArrayList<>();
+        for (int i = 0; i < seeds.length; i++) {
+            MGPSO mgpso = lockstep.getRun(i);
+            writeResult(problemName, i + 1, seeds[i], mgpso);
+            results.add(new Result(problemName, i + 1, seeds[i], millis, mgpso.getEvaluations(), mgpso.Archive.size(),
+                                   mgpso.getT(), "iterations"));
+        }
+
+        return results;
+
+    } // runLockstep
+
+    /**
+     * Writes the final archive of a run to RunsTemp/problem_run.result, see ResultFile.
+     * @param problemName The name of the problem.
+     * @param run         The number of the run.
+     * @param seed        The run's seed.
+     * @param mgpso       The run, after its last iteration.
+     * @throws UncheckedIOException If writing fails, the job has nothing to show for itself then.
+     */
+    private static void writeResult (String problemName, int run, long seed, MGPSO mgpso) {
+
+        Path file = Paths.get(DIRECTORY, problemName + "_" + run + ResultFile.EXTENSION);
+        try {
+            ResultFile.write(file, problemName, run, seed, mgpso.getT(), mgpso.Archive);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Unable to write the result to " + file + ".", e);
+        }
+
+    } // writeResult
+
+    /**
+     * @param lockstep Whether the runs of each problem are stepped together as one job from now on (see Lockstep).
+     */
+    public void setLockstep (boolean lockstep) {
+        this.lockstep = lockstep;
+    } // setLockstep
+
+    /**
+     * @param checkpoints The number of iterations between the checkpoints of every job from now on, 0 for none (see
+     *                    runJob).
+     */
+    public void setCheckpoints (int checkpoints) {
+
+        if (checkpoints < 0)
+            throw new IllegalArgumentException("The number of iterations between checkpoints can't be negative.");
+
+        this.checkpoints = checkpoints;
+
+    } // setCheckpoints
+
+    /**
+     * Lets every job stop before the number of iterations from now on, once one of its criteria is met. Criteria watch
+     * a single run, so each job gets its own from the function.
+     * @param termination Gives a job's criteria from its problem, e.g. problem -> new Termination []
+     *                    {Termination.evaluations(10000)}, null to always run every iteration.
+     */
+    public void setTermination (Function<Problem, Termination []> termination) {
+        this.termination = termination;
+    } // setTermination
+
+    /**
+     * Writes the result of every job to RunsTemp/experiment.csv, one line per job in the order they were submitted.
+     * @param results The results.
+     */
+    private void writeSummary (List<Result> results) {
+
+        List<Result> sorted = new ArrayList<>(results);
+        sorted.sort((a, b) -> a.problem.equals(b.problem) ? Integer.compare(a.run, b.run) :
+                              Integer.compare(indexOf(a.problem), indexOf(b.problem)));
+
+        try (FileWriter f = new FileWriter(DIRECTORY + "/experiment.csv")) {
+            f.write("problem,run,seed,millis,evaluations,archive,iterations,stop\n");
+            for (Result result : sorted)
+                f.write(result.problem + "," + result.run + "," + result.seed + "," + result.millis + "," +
+                        result.evaluations + "," + result.archiveSize + "," + result.iterations + "," + result.stop +
+                        "\n");
+        }
+        catch (IOException e) {
+            System.out.println("Unable to print the experiment summary to file.");
+        }
+
+    } // writeSummary
+
+    /**
+     * @return int, the index of a problem in the experiment.
+     */
+    private int indexOf (String problem) {
+        for (int i = 0; i < problems.length; i++)
+            if (problems[i].equals(problem))
+                return i;
+        return -1;
+    } // indexOf
+
+    /**
+     * The result of one job.
+     */
+    public static class Result {
+
+        public final String problem;       // The name of the problem
+        public final int    run;           // The number of the run
+        public final long   seed;          // The job's seed
+        public final long   millis;        // The wall time of the job
+        public final long   evaluations;   // The number of particle evaluations
+        public final int    archiveSize;   // The number of particles in the final archive
+        public final int    iterations;    // The number of iterations the job ran
+        public final String stop;          // The name of the termination criterion which stopped the job
+
+        Result (String problem, int run, long seed, long millis, long evaluations, int archiveSize, int iterations,
+                String stop) {
+            this.problem = problem;
+            this.run = run;
+            this.seed = seed;
+            this.millis = millis;
+            this.evaluations = evaluations;
+            this.archiveSize = archiveSize;
+            this.iterations = iterations;
+            this.stop = stop;
+        } // Constructor
+
+        @Override
+        public String toString () {
+            return String.format("%s run %d: seed %d, %d ms, %d evaluations, %d archived, stopped by %s after %d " +
+                                 "iterations", problem, run, seed, millis, evaluations, archiveSize, stop, iterations);
+        } // toString
+
+    } // Result
+
+} // Experiment
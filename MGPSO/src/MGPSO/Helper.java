@@ -1,57 +1,154 @@
-package MGPSO;
-
-import java.util.Random;
-
-/**
- * This class is used as a place for general helpful methods for the MGPSO implementation.
- *
- * @author Liam McDevitt
- * Date: 2021-07-09
- */
-public class Helper {
-
-    /**
-     * Normalizes/Bounds an arrays contents by a lower and upper bound.
-     * @param x  The position we want in the bounds.
-     * @param lb The lower bound.
-     * @param ub The upper bound.
-     * @return   double [], the resulting normalized position within the bounds.
-     */
-    public static double [] normalize (double [] x, double [] lb, double [] ub) {
-        double [] result = new double [x.length];
-        for (int i = 0; i < x.length; i++) {
-            double value = x[i];
-            if (value < lb[i])
-                result[i] = lb[i];
-            else if (value > ub[i])
-                result[i] = ub[i];
-            else
-                result[i] = x[i];
-        }
-        return result;
-    } // normalize
-
-    /**
-     * @return double, range (0, 1).
-     */
-    public static double exclusive0to1 (Random r) {
-        double result = r.nextDouble();
-        while (result == 0)
-            result = r.nextDouble();
-        return result;
-    } // exclusive0to1
-
-    /**
-     * Adds two double arrays together (assuming they are the same size).
-     * @param a The first array.
-     * @param b The second array.
-     * @return  double [], a new array with the contents of a + b.
-     */
-    public static double [] add (double [] a, double [] b) {
-        double [] result = new double [a.length];
-        for (int i = 0; i < result.length; i++)
-            result[i] = a[i] + b[i];
-        return result;
-    } // add
-
-} // Helper
+package MGPSO;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class is used as a place for general helpful methods for the MGPSO implementation.
+ *
+ * @author Liam McDevitt
+ * Date: 2021-07-09
+ */
+public class Helper {
+
+    /**
+     * Normalizes/Bounds an arrays contents by a lower and upper bound.
+     * @param x  The position we want in the bounds.
+     * @param lb The lower bound.
+     * @param ub The upper bound.
+     * @return   double [], the resulting normalized position within the bounds.
+     */
+    public static double [] normalize (double [] x, double [] lb, double [] ub) {
+        double [] result = new double [x.length];
+        normalize(x, lb, ub, result, 0);
+        return result;
+    } // normalize
+
+    /**
+     * Normalizes/Bounds an arrays contents by a lower and upper bound, writing the result into an existing array.
+     * @param x      The position we want in the bounds.
+     * @param lb     The lower bound.
+     * @param ub     The upper bound.
+     * @param out    The array receiving the bounded position.
+     * @param offset The index in out the bounded position starts at.
+     */
+    public static void normalize (double [] x, double [] lb, double [] ub, double [] out, int offset) {
+        for (int i = 0; i < x.length; i++)
+            out[offset + i] = bound(x[i], lb[i], ub[i]);
+    } // normalize
+
+    /**
+     * Bounds a single value by a lower and upper bound.
+     * @param value The value we want in the bounds.
+     * @param lb    The lower bound.
+     * @param ub    The upper bound.
+     * @return      double, lb if value is below it, ub if value is above it, otherwise value.
+     */
+    public static double bound (double value, double lb, double ub) {
+        if (value < lb)
+            return lb;
+        else if (value > ub)
+            return ub;
+        else
+            return value;
+    } // bound
+
+    /**
+     * @return double, range (0, 1).
+     */
+    public static double exclusive0to1 (Random r) {
+        double result = r.nextDouble();
+        while (result == 0)
+            result = r.nextDouble();
+        return result;
+    } // exclusive0to1
+
+    /**
+     * Adds two double arrays together (assuming they are the same size).
+     * @param a The first array.
+     * @param b The second array.
+     * @return  double [], a new array with the contents of a + b.
+     */
+    public static double [] add (double [] a, double [] b) {
+        double [] result = new double [a.length];
+        for (int i = 0; i < result.length; i++)
+            result[i] = a[i] + b[i];
+        return result;
+    } // add
+
+    /**
+     * Calculates the hypervolume of the archive: the volume of objective space dominated by its particles and bounded
+     * by a reference point. Particles which don't dominate the reference point add nothing.
+     *
+     * The volume is cut into slices along the last objective, each slice being the hypervolume of the particles in it
+     * with one objective less, down to two objectives where it is one sweep over the sorted particles. That is exact
+     * for any number of objectives, and takes O(s^(nObj - 1) log s) time for s particles, which is quick for two or
+     * three objectives but grows fast with more.
+     * @param archive   The archive.
+     * @param reference The reference point, one value per objective.
+     * @return          double, the hypervolume of the archive.
+     */
+    public static double hypervolume (Archive archive, double [] reference) {
+
+        int nObj = reference.length;
+        List<double []> points = new ArrayList<>();
+        for (int i = 0; i < archive.size(); i++) {
+            double [] f = new double [nObj];
+            boolean inside = true;
+            for (int m = 0; m < nObj; m++) {
+                f[m] = archive.getFitness(i, m);
+                inside &= f[m] < reference[m];
+            }
+            if (inside)
+                points.add(f);
+        }
+
+        return hypervolume(points, nObj, reference);
+
+    } // hypervolume
+
+    /**
+     * Calculates the hypervolume of points on their first few objectives, see hypervolume(Archive, double []).
+     * @param points    The points, each one dominating the reference point.
+     * @param nObj      The number of objectives considered, the first nObj of each point.
+     * @param reference The reference point.
+     * @return          double, the hypervolume of the points.
+     */
+    private static double hypervolume (List<double []> points, int nObj, double [] reference) {
+
+        if (points.isEmpty())
+            return 0;
+
+        // Sorted on the last objective considered, the slice of a point reaches up to the next point
+        int last = nObj - 1;
+        List<double []> sorted = new ArrayList<>(points);
+        sorted.sort(Comparator.comparingDouble(point -> point[last]));
+
+        // Two objectives: each point adds the strip between it and the best point so far on the first objective
+        if (nObj == 2) {
+            double volume = 0;
+            double best = reference[0];
+            for (int i = 0; i < sorted.size(); i++) {
+                double [] point = sorted.get(i);
+                if (point[0] < best) {
+                    volume += (best - point[0]) * (reference[1] - point[1]);
+                    best = point[0];
+                }
+            }
+            return volume;
+        }
+
+        double volume = 0;
+        for (int i = 0; i < sorted.size(); i++) {
+            double next = i + 1 < sorted.size() ? sorted.get(i + 1)[last] : reference[last];
+            if (next > sorted.get(i)[last])
+                volume += (next - sorted.get(i)[last]) * hypervolume(sorted.subList(0, i + 1), nObj - 1, reference);
+        }
+
+        return volume;
+
+    } // hypervolume
+
+} // Helper
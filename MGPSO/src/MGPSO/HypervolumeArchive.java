@@ -0,0 +1,222 @@
+package MGPSO;
+
+import Benchmarks.Problem;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * This class represents a bi-objective Archive which, when it is over capacity, removes the particle with the smallest
+ * exclusive hypervolume contribution instead of the most crowded one.
+ *
+ * The exclusive contribution of a particle is the area dominated by it and by no other particle in the archive. With two
+ * objectives it is the box between the particle and its two neighbours in the sorted pool, so adding or removing a
+ * particle only changes the contributions of its neighbours. The contributions are kept in a sorted set, so finding the
+ * smallest one and updating the neighbours are O(log n).
+ *
+ * The hypervolume of the whole archive is kept up to date the same way, as the sum of one slab per particle that only
+ * depends on the particle and its next neighbour.
+ */
+public class HypervolumeArchive extends BiObjectiveArchive {
+
+    private double []                 reference;      // The reference point the hypervolume is measured from
+    private ArrayList<Contribution>   contributions;  // The contribution of each particle, in the same order as the pool
+    private TreeSet<Contribution>     smallest;       // The contributions sorted from smallest to largest
+    private long                      nextId;         // Breaks ties between equal contributions in the sorted set
+    private double                    hypervolume;    // The hypervolume of the archive relative to the reference point
+
+    /**
+     * Initializes the hypervolume archive.
+     * @param rand      The instance of random used throughout the implementation.
+     * @param prob      The problem we're trying to optimize, it must have exactly two objectives.
+     * @param c         The total number of particle allowed in the archive (capacity).
+     * @param reference The reference point, a point worse than every particle worth keeping on both objectives.
+     */
+    public HypervolumeArchive (Random rand, Problem prob, int c, double [] reference) {
+
+        super(rand, prob, c);
+
+        // Initialize the reference point
+        this.reference = reference.clone();
+
+        // Initialize an empty set of contributions
+        contributions = new ArrayList<>();
+        smallest = new TreeSet<>(Comparator.comparingDouble((Contribution contribution) -> contribution.value)
+                                           .thenComparingLong(contribution -> contribution.id));
+        nextId = 0;
+        hypervolume = 0;
+
+    } // Constructor
+
+    /**
+     * Removes the particle with the smallest exclusive hypervolume contribution from the archive.
+     */
+    @Override
+    public void removeMostCrowded () {
+
+        Particle x = smallest.first().particle;
+        int i = lowerBound(x.getFitnesses()[A]);
+        removeRange(i, i + 1);
+
+    } // removeMostCrowded
+
+    /**
+     * Inserts a particle into the pool, updating the hypervolume and the contributions of its neighbours.
+     * @param i The index the particle is inserted at, which keeps the pool sorted.
+     * @param x The particle being inserted.
+     */
+    @Override
+    protected void insert (int i, Particle x) {
+
+        // The slab of the previous particle ends at the new one from now on
+        hypervolume -= slab(i - 1);
+
+        super.insert(i, x);
+        Contribution contribution = new Contribution(x, nextId++);
+        contributions.add(i, contribution);
+        smallest.add(contribution);
+
+        hypervolume += slab(i - 1) + slab(i);
+
+        // Only the new particle and its neighbours have a different contribution
+        for (int j = i - 1; j <= i + 1; j++)
+            updateContribution(j);
+
+    } // insert
+
+    /**
+     * Removes a contiguous run of particles from the pool, updating the hypervolume and the contributions of the
+     * particles on either side of the run.
+     * @param from The index of the first particle removed.
+     * @param to   The index after the last particle removed.
+     */
+    @Override
+    protected void removeRange (int from, int to) {
+
+        for (int j = from - 1; j < to; j++)
+            hypervolume -= slab(j);
+
+        for (int j = from; j < to; j++)
+            smallest.remove(contributions.get(j));
+        contributions.subList(from, to).clear();
+        super.removeRange(from, to);
+
+        // The slab of the previous particle now ends at the particle after the run
+        hypervolume += slab(from - 1);
+
+        updateContribution(from - 1);
+        updateContribution(from);
+
+    } // removeRange
+
+    /**
+     * Writes the complete contents of the archive, see Archive.writeState, followed by the hypervolume and the id of
+     * each contribution, so ties between equal contributions are broken the same way after reading it back.
+     * @param out The output the contents are written to.
+     * @throws IOException If writing fails.
+     */
+    @Override
+    public void writeState (DataOutput out) throws IOException {
+
+        super.writeState(out);
+
+        out.writeDouble(hypervolume);
+        out.writeLong(nextId);
+        for (Contribution contribution : contributions)
+            out.writeLong(contribution.id);
+
+    } // writeState
+
+    /**
+     * Replaces the contents of the archive with the contents written by writeState, rebuilding the contributions.
+     * @param in The input the contents are read from.
+     * @throws IOException If reading fails.
+     */
+    @Override
+    public void readState (DataInput in) throws IOException {
+
+        super.readState(in);
+
+        hypervolume = in.readDouble();
+        nextId = in.readLong();
+        contributions.clear();
+        smallest.clear();
+        for (Particle x : pool)
+            contributions.add(new Contribution(x, in.readLong()));
+        for (int i = 0; i < pool.size(); i++)
+            updateContribution(i);
+
+    } // readState
+
+    /**
+     * @return double, the hypervolume of the archive relative to the reference point.
+     */
+    public double getHypervolume () {
+        return hypervolume;
+    } // getHypervolume
+
+    /**
+     * @return double [], a copy of the reference point.
+     */
+    public double [] getReference () {
+        return reference.clone();
+    } // getReference
+
+    /**
+     * @param i The index of a particle in the pool.
+     * @return  double, the area dominated by the particle from its value on objective A up to the next particle's.
+     */
+    private double slab (int i) {
+
+        if (i < 0 || i >= pool.size())
+            return 0;
+
+        double [] f = pool.get(i).getFitnesses();
+        double next = i + 1 < pool.size() ? Math.min(pool.get(i + 1).getFitnesses()[A], reference[A]) : reference[A];
+
+        return Math.max(0, next - f[A]) * Math.max(0, reference[B] - f[B]);
+
+    } // slab
+
+    /**
+     * Recalculates the exclusive contribution of the particle at an index of the pool from its neighbours.
+     * @param i The index of a particle in the pool, nothing happens when it is out of range.
+     */
+    private void updateContribution (int i) {
+
+        if (i < 0 || i >= pool.size())
+            return;
+
+        double [] f = pool.get(i).getFitnesses();
+        double nextA = i + 1 < pool.size() ? Math.min(pool.get(i + 1).getFitnesses()[A], reference[A]) : reference[A];
+        double previousB = i > 0 ? Math.min(pool.get(i - 1).getFitnesses()[B], reference[B]) : reference[B];
+
+        Contribution contribution = contributions.get(i);
+        smallest.remove(contribution);
+        contribution.value = Math.max(0, nextA - f[A]) * Math.max(0, previousB - f[B]);
+        smallest.add(contribution);
+
+    } // updateContribution
+
+    /**
+     * The exclusive hypervolume contribution of a particle in the archive.
+     */
+    private static class Contribution {
+
+        final Particle particle;    // The particle in the archive
+        final long     id;          // Unique per contribution, so equal values can live in the sorted set
+        double         value;       // The area dominated only by this particle
+
+        Contribution (Particle particle, long id) {
+            this.particle = particle;
+            this.id = id;
+            this.value = 0;
+        } // Constructor
+
+    } // Contribution
+
+} // HypervolumeArchive
@@ -0,0 +1,134 @@
+package MGPSO;
+
+import Benchmarks.Problem;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * This class steps several independent runs of MGPSO on the same problem in lockstep, evaluating the particles of all
+ * of them together.
+ *
+ * Every iteration the positions of every particle of every run are copied into one block and evaluated with a single
+ * call of Problem.objectives, then each run takes its fitnesses back and updates its bests and archive and moves its
+ * particles as usual. A vectorized evaluator, or one in another process (see RemoteProblem), then sees the particles of
+ * all the runs at once instead of one particle at a time.
+ *
+ * The runs share nothing but the problem: each has its own streams, swarms and archive, and the evaluation of a
+ * decision vector doesn't depend on the other vectors of the block. So each run is exactly the run it would have been
+ * on its own from the same seed (see Experiment.runJob), and the runs stay as independent as their seeds.
+ */
+public class Lockstep {
+
+    private final Problem    p;              // The problem every run optimizes
+    private final MGPSO []   runs;           // The runs
+    private final int []     offsets;        // The index of each run's first particle in the block
+
+    private final double []  xs;             // The positions of every particle of every run, n values per particle
+    private final double []  fitnesses;      // Their fitnesses, nObj values per particle
+
+    private ExecutorService  executor;       // Steps the runs at the same time after evaluating, null for one by one
+
+    /**
+     * Initializes the lockstep of several runs.
+     * @param prob The problem every run optimizes.
+     * @param runs The runs, each created on prob and not iterated yet or at the same iteration as the others.
+     */
+    public Lockstep (Problem prob, MGPSO... runs) {
+
+        p = prob;
+        this.runs = runs.clone();
+
+        // The runs' particles one run after another
+        offsets = new int [runs.length + 1];
+        for (int i = 0; i < runs.length; i++)
+            offsets[i + 1] = offsets[i] + runs[i].particles();
+
+        xs = new double [offsets[runs.length] * p.n];
+        fitnesses = new double [offsets[runs.length] * p.nObj];
+
+        // DEFAULT: the runs are stepped one after another
+        executor = null;
+
+    } // Constructor
+
+    /**
+     * Initializes the lockstep of one run per seed, each created like Experiment.runJob creates it.
+     * @param prob  The problem every run optimizes.
+     * @param seeds The seed of each run.
+     * @return      Lockstep, the runs in lockstep.
+     */
+    public static Lockstep of (Problem prob, long... seeds) {
+
+        MGPSO [] runs = new MGPSO [seeds.length];
+        for (int i = 0; i < seeds.length; i++) {
+            RandomStream r = new RandomStream(seeds[i]);
+            runs[i] = new MGPSO(r, prob, Main.archive(r, prob));
+        }
+
+        return new Lockstep(prob, runs);
+
+    } // of
+
+    /**
+     * Performs one iteration of every run: one evaluation of the block of all their particles, then each run's update
+     * and move.
+     */
+    public void iterate () {
+
+        for (int i = 0; i < runs.length; i++)
+            runs[i].gather(xs, offsets[i] * p.n);
+
+        p.objectives(xs, 0, offsets[runs.length], fitnesses);
+
+        if (executor == null) {
+            for (int i = 0; i < runs.length; i++)
+                runs[i].iterate(fitnesses, offsets[i] * p.nObj);
+            return;
+        }
+
+        ArrayList<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < runs.length; i++) {
+            int run = i;
+            tasks.add(() -> {
+                runs[run].iterate(fitnesses, offsets[run] * p.nObj);
+                return null;
+            });
+        }
+
+        MGPSO.invokeAll(executor, tasks);
+
+    } // iterate
+
+    /**
+     * Steps the runs at the same time on an executor after each evaluation from now on. The runs share no state, so the
+     * results are exactly the same. The executor isn't shut down by Lockstep.
+     * @param executor The executor, null to step the runs one after another.
+     */
+    public void setExecutor (ExecutorService executor) {
+        this.executor = executor;
+    } // setExecutor
+
+    /**
+     * @param i The index of a run.
+     * @return  MGPSO, the run.
+     */
+    public MGPSO getRun (int i) {
+        return runs[i];
+    } // getRun
+
+    /**
+     * @return int, the number of runs.
+     */
+    public int size () {
+        return runs.length;
+    } // size
+
+    /**
+     * @return int, the number of decision vectors evaluated together per iteration.
+     */
+    public int getBatchSize () {
+        return offsets[runs.length];
+    } // getBatchSize
+
+} // Lockstep
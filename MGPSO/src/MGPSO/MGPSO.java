@@ -1,107 +1,1024 @@
-package MGPSO;
-
-import Benchmarks.Problem;
-import java.util.Random;
-
-/**
- * This class is an implementation of the MGPSO algorithm based on the original PhD thesis and resulting MGPSO paper.
- *
- * @author Liam McDevitt
- * Date: 2021-07-06
- */
-public class MGPSO {
-
-    private Random   r;               // The random instance used for this run's seed
-    private Problem  p;               // The multi-objective problem we're trying to solving
-
-    public Archive  Archive;          // The archive management strategy
-    private Swarm [] S;               // One swarm per objective
-
-    private int      t;               // To keep track of the current MGPSO iteration
-
-    /**
-     * Initialize an MGPSO object.
-     * @param rand            The instance of random used throughout the implementation.
-     * @param prob            The problem we're trying to optimize.
-     * @param numOfParticles  The total number of particles split between all swarms.
-     */
-    public MGPSO (Random rand, Problem prob, int numOfParticles) {
-
-        // Initialize instance of random
-        r = rand;
-
-        // Initialize problem
-        p = prob;
-
-        // Initialize the archive
-        Archive = new Archive(r, p, numOfParticles);
-
-        // Initialize the swarms
-        S = new Swarm [p.nObj];
-
-        // Initialize S1
-        S[0] = new Swarm(r, p, 0, p.S1);
-
-        // Initialize S2
-        S[1] = new Swarm(r, p, 1, p.S2);
-
-        // Initialize the MGPSO starting iteration
-        t = 0;
-
-    } // Constructor
-
-    /**
-     * This method performs one iteration of the MGPSO algorithm when called.
-     */
-    public void iterate () {
-
-        // Update swarms & archive
-        for (int m = 0; m < p.nObj; m++) {
-            for (int i = 0; i < S[m].size(); i++) {
-                Particle particle = S[m].getParticles()[i];
-                double [] f = p.objectives(particle.getPosition());
-                particle.setFitnesses(f);
-                if (f[m] < particle.getBestFitness()) {
-                    particle.setBestPosition(particle.getPosition());
-                    particle.setBestFitness(f[m]);
-                    if (f[m] < S[m].getBestFitness())
-                        S[m].setiBest(i);
-                }
-                Archive.update(new Particle (particle));
-            }
-        }
-
-        // Move particles through the search space
-        for (int m = 0; m < p.nObj; m++) {
-            for (int i = 0; i < S[m].size(); i++) {
-                Particle particle = S[m].getParticles()[i];
-                double [] a = Archive.selection(p.T);
-                double [] v = new double [p.n];
-                double lambda = S[m].getLambda();
-                for (int d = 0; d < p.n; d++) {
-                    double r1 = Helper.exclusive0to1(r);
-                    double r2 = Helper.exclusive0to1(r);
-                    double r3 = Helper.exclusive0to1(r);
-                    v[d] =  (p.w * particle.getVelocity()[d]) +
-                            (p.c1 * r1 * (particle.getBestPosition()[d] - particle.getPosition()[d])) +
-                            (lambda * p.c2 * r2 * (S[m].getBestPosition()[d] - particle.getPosition()[d])) +
-                            ((1 - lambda) * p.c3 * r3 * (a[d] - particle.getPosition()[d]));
-                }
-                particle.setVelocity(v);
-                particle.setPosition(Helper.add(particle.getPosition(), v));
-            }
-        }
-
-        // Increment iteration counter
-        t++;
-
-    } // iterate
-
-    /**
-     * @return int, the current iteration of the MGPSO algorithm.
-     */
-    public int getT() {
-        return t;
-    } // getT
-
-} // MGPSO
+package MGPSO;
+
+import Benchmarks.Problem;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+/**
+ * This class is an implementation of the MGPSO algorithm based on the original PhD thesis and resulting MGPSO paper.
+ *
+ * @author Liam McDevitt
+ * Date: 2021-07-06
+ */
+public class MGPSO {
+
+    private RandomStream r;           // The run's stream, every swarm's stream is split from it
+    private Problem  p;               // The multi-objective problem we're trying to solving
+
+    public Archive  Archive;          // The archive management strategy
+    private Swarm [] S;               // One swarm per objective
+
+    private int      t;               // To keep track of the current MGPSO iteration
+    private long     evaluations;     // The number of particle evaluations so far
+
+    // Scratch space, one row per swarm so the swarms can be stepped at the same time
+    private double [][] a;           // The archive guide of the particle being moved
+
+    private ExecutorService executor; // Evaluates the particles in parallel, null to evaluate them one after another
+    private int      batchSize;       // The number of particles each parallel evaluation task evaluates
+    private ExecutorService swarmExecutor; // Steps each swarm on its own thread, null to step them one after another
+
+    private boolean  vectorized;      // Whether particles move through the vectorizable kernel (see moveVectorized)
+    private double [][] b;           // The swarm best position of the particle being moved
+    private double [][] r1;          // The cognitive random numbers of the particle being moved
+    private double [][] r2;          // The social random numbers of the particle being moved
+    private double [][] r3;          // The archive random numbers of the particle being moved
+
+    private Surrogate surrogate;      // Predicts the fitnesses of moved particles, null to evaluate every particle
+    private double   surrogateBudget; // The largest share of each swarm truly evaluated per iteration (see screen)
+    private boolean  screening;       // Whether only the chosen particles are evaluated this iteration
+    private boolean [][] chosen;     // Whether each particle of each swarm is evaluated this iteration
+    private double [] predicted;      // The predicted fitnesses of the particle being screened
+    private double [] improvement;    // The predicted improvement of each particle of the swarm being screened
+    private boolean [] front;         // Whether each particle of the swarm being screened is predicted to be archived
+    private int []   promising;       // The promising particles of the swarm being screened, most promising first
+    private long     screened;        // The number of evaluations the surrogate saved so far
+
+    private Checkpoint checkpoint;    // Saves the state of the run every few iterations, null for no checkpoints
+    private Termination [] criteria;  // The criteria of the run in progress (see run), null outside of run
+    private byte []  resumed;         // The state of the criteria read from a checkpoint, null once run restored it
+
+    /**
+     * Initialize an MGPSO object.
+     * @param rand            The instance of random used throughout the implementation.
+     * @param prob            The problem we're trying to optimize.
+     * @param numOfParticles  The total number of particles split between all swarms.
+     */
+    public MGPSO (Random rand, Problem prob, int numOfParticles) {
+
+        // The archive holds as many particles as there are in all swarms
+        this(rand, prob, new Archive(rand, prob, numOfParticles));
+
+    } // Constructor
+
+    /**
+     * Initialize an MGPSO object with a specific archive implementation.
+     *
+     * Each swarm and each particle draws from its own stream, split from the run's stream in a fixed order. The archive
+     * guide of a particle is selected with the particle's stream, the archive's own instance of random is left alone.
+     * @param rand            The run's instance of random, a RandomStream seeded with the run's seed.
+     * @param prob            The problem we're trying to optimize.
+     * @param archive         The archive management strategy to use.
+     */
+    public MGPSO (Random rand, Problem prob, Archive archive) {
+
+        // Initialize the run's stream
+        r = RandomStream.of(rand);
+
+        // Initialize problem
+        p = prob;
+
+        // Initialize the archive
+        Archive = archive;
+
+        // Initialize one swarm per objective
+        S = new Swarm [p.nObj];
+        for (int m = 0; m < p.nObj; m++)
+            S[m] = new Swarm(r.split(), p, m, p.swarmSize(m));
+
+        // Initialize the MGPSO starting iteration
+        t = 0;
+        evaluations = 0;
+
+        initialize();
+
+    } // Constructor
+
+    /**
+     * Initializes an MGPSO object from the state written by writeState, see Checkpoint.resume. Nothing is drawn or
+     * evaluated, the run continues exactly where it was written. The settings which don't change the results (the
+     * executors and the vectorized kernel) are back to their defaults.
+     * @param prob    The problem we're trying to optimize, the same one as when the state was written.
+     * @param archive An empty archive of the same type as when the state was written, the archive's contents are read
+     *                into it.
+     * @param in      The input the state is read from.
+     * @throws IOException If reading fails.
+     */
+    MGPSO (Problem prob, Archive archive, DataInput in) throws IOException {
+
+        r = RandomStream.read(in);
+        p = prob;
+        Archive = archive;
+
+        t = in.readInt();
+        evaluations = in.readLong();
+        long screened = in.readLong();
+
+        S = new Swarm [p.nObj];
+        for (int m = 0; m < p.nObj; m++)
+            S[m] = new Swarm(p, m, in);
+
+        Archive.readState(in);
+
+        initialize();
+
+        this.screened = screened;
+        if (in.readBoolean()) {
+            surrogateBudget = in.readDouble();
+            surrogate = new Surrogate(p, in);
+        }
+
+        resumed = new byte [in.readInt()];
+        in.readFully(resumed);
+
+    } // Constructor
+
+    /**
+     * Initializes the scratch space and the default settings, once the swarms are created.
+     */
+    private void initialize () {
+
+        // Initialize the scratch space, so iterating doesn't allocate
+        a = new double [p.nObj][p.n];
+        b = new double [p.nObj][p.n];
+        r1 = new double [p.nObj][p.n];
+        r2 = new double [p.nObj][p.n];
+        r3 = new double [p.nObj][p.n];
+
+        // DEFAULT: swarms and particles are stepped one after another and move through the scalar loop
+        executor = null;
+        batchSize = 1;
+        swarmExecutor = null;
+        vectorized = false;
+
+        // DEFAULT: every particle is evaluated, without a surrogate
+        surrogate = null;
+        surrogateBudget = 1;
+        screening = false;
+        chosen = new boolean [p.nObj][];
+        for (int m = 0; m < p.nObj; m++)
+            chosen[m] = new boolean [S[m].size()];
+        predicted = new double [p.nObj];
+        int largest = 0;
+        for (int m = 0; m < p.nObj; m++)
+            largest = Math.max(largest, S[m].size());
+        improvement = new double [largest];
+        front = new boolean [largest];
+        promising = new int [largest];
+        screened = 0;
+
+        // DEFAULT: no checkpoints, outside of run
+        checkpoint = null;
+        criteria = null;
+        resumed = null;
+
+    } // initialize
+
+    /**
+     * Writes the complete state of the run: its stream, iteration and counters, every swarm, the archive, the
+     * surrogate and the termination criteria of the run in progress, read back by MGPSO(Problem, Archive, DataInput).
+     * The state is only consistent between iterations.
+     * @param out The output the state is written to.
+     * @throws IOException If writing fails.
+     */
+    void writeState (DataOutput out) throws IOException {
+
+        r.write(out);
+        out.writeInt(t);
+        out.writeLong(evaluations);
+        out.writeLong(screened);
+
+        for (int m = 0; m < p.nObj; m++)
+            S[m].writeState(out);
+
+        Archive.writeState(out);
+
+        out.writeBoolean(surrogate != null);
+        if (surrogate != null) {
+            out.writeDouble(surrogateBudget);
+            surrogate.writeState(out);
+        }
+
+        // The criteria are written as one block, only run knows which criteria read it back
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream state = new DataOutputStream(bytes)) {
+            state.writeInt(criteria == null ? 0 : criteria.length);
+            if (criteria != null)
+                for (Termination criterion : criteria) {
+                    state.writeUTF(criterion.getName());
+                    criterion.writeState(state);
+                }
+        }
+        out.writeInt(bytes.size());
+        out.write(bytes.toByteArray());
+
+    } // writeState
+
+    /**
+     * This method performs one iteration of the MGPSO algorithm when called.
+     */
+    public void iterate () {
+
+        // Update swarms & archive
+        evaluate();
+
+        // Move particles through the search space
+        move();
+
+        // Increment iteration counter
+        t++;
+
+        // Save the state of the run when a checkpoint is due
+        if (checkpoint != null && checkpoint.isDue(t))
+            checkpoint.save(this);
+
+    } // iterate
+
+    /**
+     * Iterates until one of a number of criteria is met, e.g. a maximum number of evaluations or the archive's
+     * hypervolume stagnating (see Termination). The criteria are checked before every iteration, so a run whose
+     * criterion is already met doesn't iterate at all.
+     *
+     * The state of the criteria is part of the run's checkpoints, so a run resumed from a checkpoint (see
+     * Checkpoint.resume) and given the same criteria again picks them up where they were instead of starting them over.
+     * @param criteria The criteria, at least one, every one watching only this run.
+     * @return         Termination, the criterion which stopped the run, the first one given when several are met at
+     *                 once.
+     * @throws IllegalArgumentException If the run was resumed from a checkpoint saved with other criteria.
+     */
+    public Termination run (Termination... criteria) {
+
+        if (criteria.length == 0)
+            throw new IllegalArgumentException("A run needs at least one termination criterion.");
+
+        if (resumed == null)
+            for (Termination criterion : criteria)
+                criterion.start(this);
+        else
+            restore(criteria);
+
+        this.criteria = criteria;
+        try {
+            while (true) {
+                for (Termination criterion : criteria)
+                    if (criterion.isMet(this))
+                        return criterion;
+                iterate();
+            }
+        }
+        finally {
+            this.criteria = null;
+        }
+
+    } // run
+
+    /**
+     * Restores the state of a run's criteria from the checkpoint the run was resumed from, see writeState. Criteria
+     * are started over when the checkpoint was saved outside of run.
+     * @param criteria The criteria of the run, the same ones (by name and in order) as when the checkpoint was saved.
+     * @throws IllegalArgumentException If the checkpoint was saved with other criteria.
+     */
+    private void restore (Termination [] criteria) {
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(resumed))) {
+
+            int count = in.readInt();
+            if (count == 0)
+                for (Termination criterion : criteria)
+                    criterion.start(this);
+            else if (count != criteria.length)
+                throw new IllegalArgumentException("The run was saved with " + count + " termination criteria, " +
+                                                   "not " + criteria.length + ".");
+            else
+                for (Termination criterion : criteria) {
+                    String name = in.readUTF();
+                    if (!name.equals(criterion.getName()))
+                        throw new IllegalArgumentException("The run was saved with a " + name + " criterion, " +
+                                                           "not a " + criterion.getName() + " one.");
+                    criterion.readState(this, in);
+                }
+
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Unable to restore the termination criteria.", e);
+        }
+        finally {
+            resumed = null;
+        }
+
+    } // restore
+
+    /**
+     * Evaluates every particle of every swarm, updating the personal bests, the swarm bests and the archive.
+     *
+     * All the particles are evaluated first, in parallel when an executor is set, and each swarm then updates its own
+     * personal bests and swarm best, on its own thread when a swarm executor is set. The archive is then updated one swarm
+     * at a time in a fixed order, so the results are exactly the same whether anything ran in parallel or not.
+     *
+     * With a surrogate, only the particles chosen by screen are evaluated. The others are left unevaluated, with the
+     * worst possible fitnesses like a swarm's initial state, so they update neither a best nor the archive.
+     */
+    private void evaluate () {
+
+        screening = screen();
+
+        if (executor != null)
+            evaluateInParallel();
+
+        update(executor == null);
+
+    } // evaluate
+
+    /**
+     * Updates the personal bests and swarm bests, each swarm on its own thread when a swarm executor is set, then the
+     * archive and the surrogate one swarm at a time in a fixed order, from the fitnesses of the particles.
+     * @param evaluate Whether each swarm evaluates its particles first, false when they were evaluated already.
+     */
+    private void update (boolean evaluate) {
+
+        // Update swarms, in a plain loop without a swarm executor since the lambda would be allocated on every call
+        if (swarmExecutor == null) {
+            for (int m = 0; m < p.nObj; m++)
+                update(m, evaluate);
+        }
+        else {
+            forEachSwarm(m -> update(m, evaluate));
+        }
+
+        // Update archive & surrogate
+        for (int m = 0; m < p.nObj; m++) {
+            Archive.updateBatch(S[m]);
+            SwarmState state = S[m].getState();
+            for (int i = 0; i < state.s; i++) {
+                if (screening && !chosen[m][i]) {
+                    screened++;
+                    continue;
+                }
+                evaluations++;
+                if (surrogate != null)
+                    surrogate.add(state.positions, i * p.n, state.fitnesses, i * p.nObj);
+            }
+        }
+
+    } // update
+
+    /**
+     * Updates the personal bests and the swarm best of a swarm, from the fitnesses of its particles.
+     * @param m        The index of the swarm.
+     * @param evaluate Whether the swarm evaluates its particles first.
+     */
+    private void update (int m, boolean evaluate) {
+
+        SwarmState state = S[m].getState();
+        if (evaluate)
+            evaluate(m, 0, state.s);
+        for (int i = 0; i < state.s; i++) {
+            double f = state.fitnesses[i * p.nObj + m];
+            if (f < state.bestFitnesses[i]) {
+                state.savePersonalBest(i);
+                state.bestFitnesses[i] = f;
+                if (f < S[m].getBestFitness())
+                    S[m].setiBest(i);
+            }
+        }
+
+    } // update
+
+    /**
+     * @return int, the number of particles in all the swarms, the number of decision vectors gather copies.
+     */
+    int particles () {
+
+        int total = 0;
+        for (int m = 0; m < p.nObj; m++)
+            total += S[m].size();
+
+        return total;
+
+    } // particles
+
+    /**
+     * Copies the positions of every particle of every swarm, one swarm after another, into a block of decision vectors,
+     * so they can be evaluated together with other runs' (see Lockstep).
+     * @param xs     The block of decision vectors.
+     * @param offset The index in xs the first position is copied to.
+     */
+    void gather (double [] xs, int offset) {
+
+        for (int m = 0; m < p.nObj; m++) {
+            SwarmState state = S[m].getState();
+            System.arraycopy(state.positions, 0, xs, offset, state.s * p.n);
+            offset += state.s * p.n;
+        }
+
+    } // gather
+
+    /**
+     * Performs one iteration of MGPSO with the particles already evaluated: fitnesses holds the fitnesses of the
+     * positions copied by gather, in the same order. Only iterate screens with the surrogate, here every particle was
+     * evaluated.
+     * @param fitnesses The block of fitnesses, nObj values per particle.
+     * @param offset    The index in fitnesses of the first particle's fitness.
+     */
+    void iterate (double [] fitnesses, int offset) {
+
+        for (int m = 0; m < p.nObj; m++) {
+            SwarmState state = S[m].getState();
+            System.arraycopy(fitnesses, offset, state.fitnesses, 0, state.s * p.nObj);
+            offset += state.s * p.nObj;
+        }
+
+        screening = false;
+        update(false);
+        move();
+        t++;
+
+        if (checkpoint != null && checkpoint.isDue(t))
+            checkpoint.save(this);
+
+    } // iterate
+
+    /**
+     * Evaluates a range of particles of a swarm. While screening, runs of chosen particles are evaluated as one batch and
+     * the other particles are given the worst possible fitnesses.
+     * @param m    The index of the swarm.
+     * @param from The index of the first particle.
+     * @param to   The index after the last particle.
+     */
+    private void evaluate (int m, int from, int to) {
+
+        SwarmState state = S[m].getState();
+        if (!screening) {
+            p.objectives(state.positions, from, to, state.fitnesses);
+            return;
+        }
+
+        int i = from;
+        while (i < to) {
+            if (!chosen[m][i]) {
+                Arrays.fill(state.fitnesses, i * p.nObj, (i + 1) * p.nObj, Double.MAX_VALUE);
+                i++;
+                continue;
+            }
+            int run = i;
+            while (run < to && chosen[m][run])
+                run++;
+            p.objectives(state.positions, i, run, state.fitnesses);
+            i = run;
+        }
+
+    } // evaluate
+
+    /**
+     * Chooses which particles are worth a true evaluation this iteration, from the surrogate's predictions.
+     *
+     * A particle is promising when its predicted fitness improves its personal best, or when its predicted fitnesses
+     * aren't weakly dominated by the archive. Of each swarm at most a surrogateBudget share of the particles is chosen:
+     * the swarm's best particle, so the swarm best stays a true evaluation, then the promising particles predicted to
+     * enter the archive, then the others, each by their predicted improvement of their personal best.
+     * @return boolean, whether screening is on this iteration, false without a surrogate or before it's ready.
+     */
+    private boolean screen () {
+
+        if (surrogate == null || !surrogate.fit())
+            return false;
+
+        for (int m = 0; m < p.nObj; m++) {
+
+            SwarmState state = S[m].getState();
+            int limit = Math.max(1, (int) Math.ceil(surrogateBudget * state.s));
+
+            int size = 0;
+            for (int i = 0; i < state.s; i++) {
+                surrogate.predict(state.positions, i * p.n, predicted);
+                improvement[i] = predicted[m] - state.bestFitnesses[i];
+                front[i] = !archiveDominates(predicted);
+                if (improvement[i] < 0 || front[i])
+                    promising[size++] = i;
+            }
+
+            // Stable insertion sort: the ones predicted to enter the archive first, then by predicted improvement
+            for (int k = 1; k < size; k++) {
+                int i = promising[k];
+                int j = k - 1;
+                while (j >= 0 && morePromising(i, promising[j])) {
+                    promising[j + 1] = promising[j];
+                    j--;
+                }
+                promising[j + 1] = i;
+            }
+
+            Arrays.fill(chosen[m], false);
+            chosen[m][S[m].getiBest()] = true;
+            int count = 1;
+            for (int k = 0; k < size && count < limit; k++)
+                if (!chosen[m][promising[k]]) {
+                    chosen[m][promising[k]] = true;
+                    count++;
+                }
+
+        }
+
+        return true;
+
+    } // screen
+
+    /**
+     * @param i The index of a particle of the swarm being screened.
+     * @param j The index of another particle of the same swarm.
+     * @return  boolean, whether particle i goes strictly before particle j when choosing the particles to evaluate.
+     */
+    private boolean morePromising (int i, int j) {
+        if (front[i] != front[j])
+            return front[i];
+        return Double.compare(improvement[i], improvement[j]) < 0;
+    } // morePromising
+
+    /**
+     * @param fitnesses The fitnesses of a vector on every objective.
+     * @return          boolean, whether a particle of the archive weakly dominates them.
+     */
+    private boolean archiveDominates (double [] fitnesses) {
+
+        for (int j = 0; j < Archive.size(); j++) {
+            boolean dominates = true;
+            for (int k = 0; k < p.nObj && dominates; k++)
+                dominates = Archive.getFitness(j, k) <= fitnesses[k];
+            if (dominates)
+                return true;
+        }
+
+        return false;
+
+    } // archiveDominates
+
+    /**
+     * Evaluates every particle of every swarm on the executor, batchSize particles per task, and waits for all of them.
+     * The problem's objectives must be safe to call from several threads at once.
+     */
+    private void evaluateInParallel () {
+
+        ArrayList<Callable<Void>> tasks = new ArrayList<>();
+        for (int m = 0; m < p.nObj; m++) {
+            SwarmState state = S[m].getState();
+            for (int from = 0; from < state.s; from += batchSize) {
+                int first = from;
+                int last = Math.min(from + batchSize, state.s);
+                int swarm = m;
+                tasks.add(() -> {
+                    evaluate(swarm, first, last);
+                    return null;
+                });
+            }
+        }
+
+        invokeAll(executor, tasks);
+
+    } // evaluateInParallel
+
+    /**
+     * Moves every particle of every swarm through the search space, each swarm on its own thread when a swarm executor
+     * is set. The crowding distances are brought up to date first, so the archive is only read while the swarms move.
+     * Without a swarm executor this doesn't allocate once the archive is up to date (see AllocationCheck).
+     */
+    void move () {
+
+        Archive.prepareSelection();
+
+        // A plain loop, since the method reference forEachSwarm takes would be allocated on every call
+        if (swarmExecutor == null) {
+            for (int m = 0; m < p.nObj; m++)
+                move(m);
+        }
+        else {
+            forEachSwarm(this::move);
+        }
+
+    } // move
+
+    /**
+     * Moves every particle of a swarm through the search space. The velocities, positions and archive guides are written
+     * into existing arrays, so this doesn't allocate. Only the swarm's own state, streams and scratch space are written.
+     * @param m The index of the swarm.
+     */
+    private void move (int m) {
+
+        SwarmState state = S[m].getState();
+        double lambda = S[m].getLambda();
+        double [] a = this.a[m];
+        for (int i = 0; i < state.s; i++) {
+            RandomStream stream = S[m].getStream(i);
+            Archive.selection(p.T, stream, a);
+            int particle = i * p.n;
+            int best = S[m].getiBest() * p.n;
+            if (vectorized) {
+                moveVectorized(m, stream, particle, best, lambda);
+                continue;
+            }
+            for (int d = 0; d < p.n; d++) {
+                double r1 = Helper.exclusive0to1(stream);
+                double r2 = Helper.exclusive0to1(stream);
+                double r3 = Helper.exclusive0to1(stream);
+                double position = state.positions[particle + d];
+                double v =  (p.w * state.velocities[particle + d]) +
+                            (p.c1 * r1 * (state.bestPositions[particle + d] - position)) +
+                            (lambda * p.c2 * r2 * (state.positions[best + d] - position)) +
+                            ((1 - lambda) * p.c3 * r3 * (a[d] - position));
+                state.velocities[particle + d] = v;
+
+                // Keeps the particle's position within the bounds of the search space
+                state.positions[particle + d] = Helper.bound(position + v, p.mins[d], p.maxs[d]);
+            }
+        }
+
+    } // move
+
+    /**
+     * Moves one particle through the search space with a loop the JIT compiler can turn into SIMD instructions.
+     *
+     * Drawing random numbers is inherently sequential, so they are drawn first, in the same order as the scalar loop.
+     * The update itself is then a loop over plain arrays without calls or branches: the inertia, cognitive, social and
+     * archive terms, then the bounds as a min/max. Each term is computed with the same operations in the same order as
+     * the scalar loop, so the particle ends up in exactly the same place.
+     * @param m        The index of the particle's swarm.
+     * @param stream   The particle's stream.
+     * @param particle The offset of the particle in the swarm's position blocks.
+     * @param best     The offset of the swarm's best particle in the swarm's position blocks.
+     * @param lambda   The archive balance coefficient of the swarm.
+     */
+    private void moveVectorized (int m, RandomStream stream, int particle, int best, double lambda) {
+
+        double [] r1 = this.r1[m];
+        double [] r2 = this.r2[m];
+        double [] r3 = this.r3[m];
+        for (int d = 0; d < p.n; d++) {
+            r1[d] = Helper.exclusive0to1(stream);
+            r2[d] = Helper.exclusive0to1(stream);
+            r3[d] = Helper.exclusive0to1(stream);
+        }
+
+        // The swarm's best particle lives in the same array as the particle being moved, a copy of it shows the JIT that
+        // reading it and writing the particle don't overlap
+        SwarmState state = S[m].getState();
+        double [] a = this.a[m];
+        double [] b = this.b[m];
+        System.arraycopy(state.positions, best, b, 0, p.n);
+
+        double [] positions = state.positions;
+        double [] velocities = state.velocities;
+        double [] bestPositions = state.bestPositions;
+        double w = p.w;
+        double c1 = p.c1;
+        double social = lambda * p.c2;
+        double archive = (1 - lambda) * p.c3;
+
+        for (int d = 0; d < p.n; d++) {
+            double position = positions[particle + d];
+            double v =  (w * velocities[particle + d]) +
+                        (c1 * r1[d] * (bestPositions[particle + d] - position)) +
+                        (social * r2[d] * (b[d] - position)) +
+                        (archive * r3[d] * (a[d] - position));
+            velocities[particle + d] = v;
+            positions[particle + d] = Math.min(Math.max(position + v, p.mins[d]), p.maxs[d]);
+        }
+
+    } // moveVectorized
+
+    /**
+     * Performs an action for every swarm, each on its own thread of the swarm executor when one is set, and waits for all
+     * of them. The action must only write the state of the swarm it is given.
+     * @param action The action, given the index of a swarm.
+     */
+    private void forEachSwarm (IntConsumer action) {
+
+        if (swarmExecutor == null) {
+            for (int m = 0; m < p.nObj; m++)
+                action.accept(m);
+            return;
+        }
+
+        ArrayList<Callable<Void>> tasks = new ArrayList<>();
+        for (int m = 0; m < p.nObj; m++) {
+            int swarm = m;
+            tasks.add(() -> {
+                action.accept(swarm);
+                return null;
+            });
+        }
+
+        invokeAll(swarmExecutor, tasks);
+
+    } // forEachSwarm
+
+    /**
+     * Runs tasks on an executor and waits for all of them.
+     * @param pool  The executor.
+     * @param tasks The tasks.
+     */
+    static void invokeAll (ExecutorService pool, List<Callable<Void>> tasks) {
+
+        try {
+            for (Future<Void> task : pool.invokeAll(tasks))
+                task.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the MGPSO tasks.", e);
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException("An MGPSO task failed.", e.getCause());
+        }
+
+    } // invokeAll
+
+    /**
+     * Runs MGPSO asynchronously (steady-state) for a number of particle evaluations, instead of in iterations.
+     *
+     * Every particle is a task on the pool: it is evaluated, updates its personal best, its swarm's best and the archive,
+     * then moves and is resubmitted, without waiting for any other particle. A slow evaluation then only holds up its own
+     * particle. The personal and swarm best updates hold the swarm's lock, and the archive update and the selection of
+     * the archive guide hold the archive's lock unless the archive is thread-safe (see ConcurrentArchive). The evaluations
+     * and moves don't hold any lock. A particle moves towards its swarm's best position as of the best particle's last
+     * evaluation, which is copied under the swarm's lock, since the best particle may be moving at the same time.
+     *
+     * The order the particles finish in depends on the evaluation times, so the results of an asynchronous run are not
+     * reproducible from the seed. The iteration counter becomes the number of evaluations per particle.
+     * @param pool   The worker pool, at most one task per particle is queued on it at any time.
+     * @param budget The number of particle evaluations to perform before returning.
+     */
+    public void iterateAsync (ExecutorService pool, long budget) {
+
+        // Every particle keeps evaluating while there are evaluations left in the budget
+        AtomicLong remaining = new AtomicLong(budget);
+        AtomicLong performed = new AtomicLong(0);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        int total = 0;
+        for (int m = 0; m < p.nObj; m++)
+            total += S[m].size();
+        CountDownLatch finished = new CountDownLatch(total);
+
+        // The position of each swarm's best particle as of its last evaluation
+        double [][] bests = new double [p.nObj][p.n];
+        for (int m = 0; m < p.nObj; m++)
+            S[m].getState().copyPosition(S[m].getiBest(), bests[m]);
+
+        for (int m = 0; m < p.nObj; m++)
+            for (int i = 0; i < S[m].size(); i++)
+                pool.execute(new AsyncParticle(pool, m, i, bests[m], remaining, performed, failure, finished));
+
+        // Wait for every particle to finish, stopping them all early if interrupted
+        boolean interrupted = false;
+        while (true) {
+            try {
+                finished.await();
+                break;
+            }
+            catch (InterruptedException e) {
+                interrupted = true;
+                remaining.set(0);
+            }
+        }
+
+        evaluations += performed.get();
+        t = (int) (evaluations / total);
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running MGPSO asynchronously.");
+        }
+        if (failure.get() != null)
+            throw new IllegalStateException("Evaluating a particle failed.", failure.get());
+
+    } // iterateAsync
+
+    /**
+     * Evaluates the particles on an executor from now on, e.g. a ForkJoinPool, one particle per task.
+     * @param executor The executor, null to evaluate the particles one after another.
+     */
+    public void setExecutor (ExecutorService executor) {
+        setExecutor(executor, 1);
+    } // setExecutor
+
+    /**
+     * Evaluates the particles on an executor from now on, e.g. a ForkJoinPool. The executor isn't shut down by MGPSO.
+     * @param executor  The executor, null to evaluate the particles one after another.
+     * @param batchSize The number of particles each task evaluates, larger batches suit cheaper objectives.
+     */
+    public void setExecutor (ExecutorService executor, int batchSize) {
+        this.executor = executor;
+        this.batchSize = Math.max(1, batchSize);
+    } // setExecutor
+
+    /**
+     * Steps each swarm on its own thread of an executor from now on. The swarms evaluate their particles and update their
+     * bests at the same time, the archive is updated one swarm at a time in a fixed order, then the swarms move their
+     * particles at the same time while only reading the archive. Every swarm draws from its own streams, so the results
+     * are exactly the same as stepping the swarms one after another. The executor isn't shut down by MGPSO.
+     * @param swarmExecutor The executor, e.g. a fixed pool with one thread per swarm, null to step the swarms one after
+     *                      another.
+     */
+    public void setSwarmExecutor (ExecutorService swarmExecutor) {
+        this.swarmExecutor = swarmExecutor;
+    } // setSwarmExecutor
+
+    /**
+     * Screens the moved particles with a surrogate from now on, so only the ones predicted to improve their personal best
+     * or to enter the archive are truly evaluated, at most a budget share of each swarm per iteration. The surrogate
+     * learns from every true evaluation, every particle is evaluated until it is ready. Only iterate screens, iterateAsync
+     * evaluates every particle.
+     * @param surrogate The surrogate, null to evaluate every particle.
+     * @param budget    The largest share of each swarm's particles truly evaluated per iteration, in (0, 1].
+     */
+    public void setSurrogate (Surrogate surrogate, double budget) {
+
+        if (!(budget > 0 && budget <= 1))
+            throw new IllegalArgumentException("The budget must be in (0, 1], got " + budget + ".");
+
+        this.surrogate = surrogate;
+        surrogateBudget = budget;
+
+    } // setSurrogate
+
+    /**
+     * Saves the state of the run to a checkpoint every few iterations from now on, see Checkpoint. Only iterate saves
+     * checkpoints, iterateAsync isn't reproducible. The checkpoint isn't closed by MGPSO.
+     * @param checkpoint The checkpoint, null for no checkpoints.
+     */
+    public void setCheckpoint (Checkpoint checkpoint) {
+        this.checkpoint = checkpoint;
+    } // setCheckpoint
+
+    /**
+     * @param vectorized Whether particles move through the vectorizable kernel (true) or the scalar loop (false).
+     */
+    public void setVectorized (boolean vectorized) {
+        this.vectorized = vectorized;
+    } // setVectorized
+
+    /**
+     * @return Problem, the problem the run is optimizing.
+     */
+    Problem getP () {
+        return p;
+    } // getP
+
+    /**
+     * @return int, the current iteration of the MGPSO algorithm.
+     */
+    public int getT() {
+        return t;
+    } // getT
+
+    /**
+     * @return long, the number of particle evaluations so far.
+     */
+    public long getEvaluations () {
+        return evaluations;
+    } // getEvaluations
+
+    /**
+     * @return long, the number of particle evaluations the surrogate saved so far (see setSurrogate).
+     */
+    public long getScreened () {
+        return screened;
+    } // getScreened
+
+    /**
+     * One particle of an asynchronous run, see iterateAsync. It only writes its own slice of its swarm's state outside
+     * the archive's lock, and has its own scratch space, so particles can evaluate and move at the same time.
+     */
+    private class AsyncParticle implements Runnable {
+
+        private final ExecutorService            pool;         // The pool the particle is resubmitted to
+        private final int                        m;            // The index of the particle's swarm
+        private final int                        i;            // The index of the particle in its swarm
+        private final double []                  best;         // The swarm's best position, shared by the swarm
+        private final AtomicLong                 remaining;    // The evaluations left in the run's budget
+        private final AtomicLong                 performed;    // The evaluations performed by every particle
+        private final AtomicReference<Throwable> failure;      // The first failure of any particle
+        private final CountDownLatch             finished;     // Counted down once the particle stops
+
+        private final double [] x;         // Scratch space for the particle's position
+        private final double [] f;         // Scratch space for the particle's fitnesses
+        private final double [] a;         // Scratch space for the particle's archive guide
+        private final double [] b;         // Scratch space for the particle's swarm best position
+
+        AsyncParticle (ExecutorService pool, int m, int i, double [] best, AtomicLong remaining, AtomicLong performed,
+                       AtomicReference<Throwable> failure, CountDownLatch finished) {
+            this.pool = pool;
+            this.m = m;
+            this.i = i;
+            this.best = best;
+            this.remaining = remaining;
+            this.performed = performed;
+            this.failure = failure;
+            this.finished = finished;
+            x = new double [p.n];
+            f = new double [p.nObj];
+            a = new double [p.n];
+            b = new double [p.n];
+        } // Constructor
+
+        /**
+         * Evaluates the particle, updates the bests and the archive, moves the particle and resubmits it.
+         */
+        @Override
+        public void run () {
+
+            try {
+
+                if (failure.get() != null || remaining.getAndDecrement() <= 0) {
+                    finished.countDown();
+                    return;
+                }
+
+                SwarmState state = S[m].getState();
+                RandomStream stream = S[m].getStream(i);
+                int particle = i * p.n;
+
+                // Evaluate the particle
+                state.copyPosition(i, x);
+                p.objectives(x, f);
+
+                // Update personal best & swarm best, under the swarm's lock
+                synchronized (S[m]) {
+                    System.arraycopy(f, 0, state.fitnesses, i * p.nObj, p.nObj);
+                    if (f[m] < state.bestFitnesses[i]) {
+                        state.savePersonalBest(i);
+                        state.bestFitnesses[i] = f[m];
+                        if (f[m] < S[m].getBestFitness())
+                            S[m].setiBest(i);
+                    }
+                    if (S[m].getiBest() == i)
+                        System.arraycopy(x, 0, best, 0, p.n);
+
+                    // The best particle's own slice may be changing, so its copy is used
+                    System.arraycopy(best, 0, b, 0, p.n);
+                }
+                performed.incrementAndGet();
+
+                // Update archive & select the archive guide, under the archive's lock unless it is thread-safe
+                if (Archive.isThreadSafe())
+                    updateArchive(state, stream);
+                else {
+                    synchronized (Archive) {
+                        updateArchive(state, stream);
+                    }
+                }
+
+                // Move the particle
+                double lambda = S[m].getLambda();
+                for (int d = 0; d < p.n; d++) {
+                    double r1 = Helper.exclusive0to1(stream);
+                    double r2 = Helper.exclusive0to1(stream);
+                    double r3 = Helper.exclusive0to1(stream);
+                    double position = state.positions[particle + d];
+                    double v =  (p.w * state.velocities[particle + d]) +
+                                (p.c1 * r1 * (state.bestPositions[particle + d] - position)) +
+                                (lambda * p.c2 * r2 * (b[d] - position)) +
+                                ((1 - lambda) * p.c3 * r3 * (a[d] - position));
+                    state.velocities[particle + d] = v;
+                    state.positions[particle + d] = Helper.bound(position + v, p.mins[d], p.maxs[d]);
+                }
+
+                pool.execute(this);
+
+            }
+            catch (Throwable e) {
+                failure.compareAndSet(null, e);
+                finished.countDown();
+            }
+
+        } // run
+
+        /**
+         * Offers the particle to the archive and selects its archive guide.
+         * @param state  The state of the particle's swarm.
+         * @param stream The particle's stream.
+         */
+        private void updateArchive (SwarmState state, RandomStream stream) {
+            Archive.updateBatch(new Particle [] {S[m].getParticles()[i]});
+            Archive.selection(p.T, stream, a);
+        } // updateArchive
+
+    } // AsyncParticle
+
+} // MGPSO
@@ -1,79 +1,169 @@
-package MGPSO;
-
-import Benchmarks.*;
-import java.util.*;
-
-/**
- * This class is the main class of the MGPSO package. It acts as a place to run the algorithm.
- *
- * Running this will run MGPSO on the ZDT problems for 2000 iterations for 30 runs. This can be changed within the
- * creation of the main constructor.
- *
- * @author Liam McDevitt
- */
-public class Main {
-
-    private Random r;    // Our shared instance of random throughout the package
-    private long   seed; // The seed we use to initialize our instance of random
-
-    /**
-     * This is the main constructor to the MGPSO package.
-     * @param run             The current run we're on.
-     * @param problemName     The current problem we're trying to solve.
-     * @param numOfIterations The number of iterations we want to run the MGPSO for.
-     */
-    public Main (int run, String problemName, int numOfIterations) {
-
-        // Initialize our instance of random with a random seed
-        r = new Random();
-        seed = r.nextLong();
-        r.setSeed(seed);
-        System.out.println("Seed: " + seed + "\n");
-
-        // Initialize problem
-        Problem problem = null;
-        switch(problemName) {
-            case "ZDT1" -> problem = new ZDT1();
-            case "ZDT2" -> problem = new ZDT2();
-            case "ZDT3" -> problem = new ZDT3();
-            case "ZDT4" -> problem = new ZDT4();
-            case "ZDT6" -> problem = new ZDT6();
-            default -> System.out.println("Problem not found.");
-        }
-
-        // Initialize MGPSO
-        MGPSO mgpso = new MGPSO(r, problem, 50);
-
-        // Iterate MGPSO
-        while (mgpso.getT() < numOfIterations)
-            mgpso.iterate();
-
-        // If you would just like to see the archive at the end, uncomment this line.
-        //mgpso.Archive.printArchive();
-
-        // Print out final POF
-        mgpso.Archive.printArchiveMinimal();
-
-        // Print archive to file
-        mgpso.Archive.printArchiveToFile(run, problemName);
-
-    } // Constructor
-
-    public static void main(String[] args) {
-
-        // Setting up run settings
-        int numOfRuns = 30;
-        int numOfIterations = 2000;
-        String [] problems = {"ZDT1", "ZDT2", "ZDT3", "ZDT4", "ZDT6"};
-
-        // Running the program
-        Main m;
-        for (int i = 1; i <= numOfRuns; i++)
-            for (String problem : problems)
-                m = new Main(i, problem, numOfIterations);
-
-        // If you'd like to just do one run, use this line and comment out the above loops.
-        //m = new Main (1, "ZDT1", 2000);
-
-    }
-}
+package MGPSO;
+
+import Benchmarks.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * This class is the main class of the MGPSO package. It acts as a place to run the algorithm.
+ *
+ * Running this will run MGPSO on the ZDT problems for 2000 iterations for 30 runs, the runs in parallel (see
+ * Experiment). This can be changed within main. The DTLZ and WFG problems can be run by name too, with 3 objectives.
+ *
+ * Every run saves a checkpoint every 500 iterations, so an experiment which is stopped can be run again with the seed
+ * it printed to continue where it was. Every run does all 2000 iterations unless a tolerance is given, then a run stops
+ * once its archive's hypervolume improved by less than that fraction (e.g. 1e-5) over the last 300 iterations. Most
+ * of the iterations of ZDT1 and ZDT2 come after they converged, but ZDT4 and ZDT6 keep improving slowly and lose
+ * quality when stopped early.
+ *
+ * @author Liam McDevitt
+ */
+public class Main {
+
+    private RandomStream r;    // The run's stream, the swarms, particles and archive get their own streams split from it
+    private long         seed; // The seed we use to initialize the run's stream
+
+    /**
+     * This is the main constructor to the MGPSO package.
+     * @param run             The current run we're on.
+     * @param problemName     The current problem we're trying to solve.
+     * @param numOfIterations The number of iterations we want to run the MGPSO for.
+     */
+    public Main (int run, String problemName, int numOfIterations) {
+
+        // Initialize the run's stream with a random seed
+        seed = new Random().nextLong();
+        r = new RandomStream(seed);
+        System.out.println("Seed: " + seed + "\n");
+
+        // Initialize problem
+        Problem problem = problem(problemName);
+
+        // Initialize MGPSO
+        MGPSO mgpso = new MGPSO(r, problem, archive(r, problem));
+
+        // Iterate MGPSO
+        while (mgpso.getT() < numOfIterations)
+            mgpso.iterate();
+
+        // If you would just like to see the archive at the end, uncomment this line.
+        //mgpso.Archive.printArchive();
+
+        // Print out final POF
+        mgpso.Archive.printArchiveMinimal();
+
+        // Write archive to file, see ResultFile
+        Path file = Paths.get("RunsTemp", problemName + "_" + run + ResultFile.EXTENSION);
+        try {
+            Files.createDirectories(file.getParent());
+            ResultFile.write(file, problemName, run, seed, mgpso.getT(), mgpso.Archive);
+        }
+        catch (IOException e) {
+            System.out.println("Unable to write the archive to file.");
+        }
+
+    } // Constructor
+
+    /**
+     * @param problemName The name of a benchmark problem, e.g. ZDT1, DTLZ2 or WFG4.
+     * @return            Problem, a new instance of the problem with its default parameters.
+     */
+    public static Problem problem (String problemName) {
+
+        return switch (problemName) {
+            case "ZDT1" -> new ZDT1();
+            case "ZDT2" -> new ZDT2();
+            case "ZDT3" -> new ZDT3();
+            case "ZDT4" -> new ZDT4();
+            case "ZDT6" -> new ZDT6();
+            case "DTLZ1" -> new DTLZ1();
+            case "DTLZ2" -> new DTLZ2();
+            case "DTLZ3" -> new DTLZ3();
+            case "DTLZ4" -> new DTLZ4();
+            case "DTLZ5" -> new DTLZ5();
+            case "DTLZ6" -> new DTLZ6();
+            case "DTLZ7" -> new DTLZ7();
+            case "WFG1" -> new WFG1();
+            case "WFG2" -> new WFG2();
+            case "WFG3" -> new WFG3();
+            case "WFG4" -> new WFG4();
+            case "WFG5" -> new WFG5();
+            case "WFG6" -> new WFG6();
+            case "WFG7" -> new WFG7();
+            case "WFG8" -> new WFG8();
+            case "WFG9" -> new WFG9();
+            default -> throw new IllegalArgumentException("Problem not found: " + problemName + ".");
+        };
+
+    } // problem
+
+    /**
+     * @param r       The run's stream, the archive's stream is split from it.
+     * @param problem The problem.
+     * @return        Archive, an empty archive of 50 particles, kept sorted when the problem has two objectives (e.g.
+     *                ZDT).
+     */
+    public static Archive archive (RandomStream r, Problem problem) {
+        return problem.nObj == 2 ? new BiObjectiveArchive(r.split(), problem, 50) : new Archive(r.split(), problem, 50);
+    } // archive
+
+    /**
+     * @param problem The problem.
+     * @return        double [], the reference point the hypervolume of the problem's archives is measured from: 11 on
+     *                every objective of a ZDT problem (g is at most 10), one more than the largest value on the true
+     *                front on objective m of a WFG problem (2 * (m + 1)) and on the last objective of DTLZ7 (2 * nObj),
+     *                and 2 on the other objectives of the DTLZ problems.
+     */
+    public static double [] reference (Problem problem) {
+
+        double [] reference = new double [problem.nObj];
+        for (int m = 0; m < problem.nObj; m++) {
+            if (problem instanceof ZDT)
+                reference[m] = 11;
+            else if (problem instanceof WFG)
+                reference[m] = 2 * (m + 1) + 1;
+            else if (problem instanceof DTLZ7 && m == problem.nObj - 1)
+                reference[m] = 2 * problem.nObj + 1;
+            else
+                reference[m] = 2;
+        }
+
+        return reference;
+
+    } // reference
+
+    /**
+     * Runs every (problem, run) pair as an independent job on all the machine's cores, see Experiment.
+     * @param args The number of threads (optional, defaults to the number of cores), then the experiment's seed
+     *             (optional, defaults to a random seed, give the seed of a stopped experiment to resume it), then the
+     *             hypervolume tolerance to stop runs early (optional, defaults to running every iteration).
+     */
+    public static void main(String[] args) {
+
+        // Setting up run settings
+        int numOfRuns = 30;
+        int numOfIterations = 2000;
+        int checkpoints = 500;
+        int window = 300;
+        String [] problems = {"ZDT1", "ZDT2", "ZDT3", "ZDT4", "ZDT6"};
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : new Random().nextLong();
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 0;
+
+        // Running the program
+        Experiment experiment = new Experiment(problems, numOfRuns, numOfIterations, threads, seed);
+        experiment.setCheckpoints(checkpoints);
+        if (tolerance > 0)
+            experiment.setTermination(problem -> new Termination [] {
+                Termination.hypervolume(reference(problem), window, tolerance)
+            });
+        experiment.run();
+
+        // If you'd like to just do one run, use this line and comment out the above lines.
+        //new Main(1, "ZDT1", 2000);
+
+    }
+}
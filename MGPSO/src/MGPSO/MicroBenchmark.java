@@ -0,0 +1,230 @@
+package MGPSO;
+
+import Benchmarks.Problem;
+import Benchmarks.ZDT1;
+import Benchmarks.ZDT2;
+import Benchmarks.ZDT3;
+import Benchmarks.ZDT4;
+import Benchmarks.ZDT6;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * This class measures the building blocks of MGPSO one at a time, instead of timing whole runs of Main:
+ *
+ * (1) Archive.update, Archive.selection and Archive.calculateCrowdingDistance for every archive, at sizes 50 to 50,000.
+ *
+ * (2) One MGPSO.iterate() for each ZDT problem.
+ *
+ * (3) Problem.objectives for one decision vector, at 10 to 10,000 dimensions, with and without the vectorized sums.
+ *
+ * Each benchmark is warmed up first, so it is measured after the JIT compiled it, then measured for several iterations
+ * of a fixed time. The time per operation is printed with its spread over the iterations, along with the bytes the
+ * measuring thread allocated per operation (the normalized allocation rate of the JMH GC profiler).
+ *
+ * The same benchmarks are in the JMH module (jmh/src, run with gradle jmh), which forks a JVM per benchmark and reports
+ * the allocations through the GC profiler. This class is a quick check of the same numbers without a build.
+ *
+ * Usage: java MGPSO.MicroBenchmark [milliseconds per iteration, default 500] [filter, a part of the benchmark names]
+ */
+public class MicroBenchmark {
+
+    private static final int []    SIZES = {50, 500, 5000, 50000};       // The archive sizes measured
+    private static final int []    DIMENSIONS = {10, 100, 1000, 10000};  // The problem dimensions measured
+    private static final int       WARMUP = 3;                           // Warm up iterations per benchmark
+    private static final int       MEASURED = 5;                         // Measured iterations per benchmark
+    static final int               CANDIDATES = 4096;                    // Candidate particles cycled through by update
+
+    private static long            millis;                               // The length of each iteration
+    private static String          filter;                               // Only benchmarks whose name contains this run
+    private static volatile double sink;                                 // Keeps the JIT from removing measured work
+
+    /**
+     * A measured operation.
+     */
+    private interface Operation {
+
+        /**
+         * Performs the operation once.
+         * @return double, a result of the operation, so it isn't optimized away.
+         */
+        double run ();
+
+    } // Operation
+
+    /**
+     * Runs the benchmarks.
+     * @param args The milliseconds per iteration and a filter on the benchmark names (both optional).
+     */
+    public static void main (String[] args) {
+
+        millis = args.length > 0 ? Long.parseLong(args[0]) : 500;
+        filter = args.length > 1 ? args[1] : "";
+
+        System.out.printf("%-58s %14s %12s %14s\n", "Benchmark", "ns/op", "error", "B/op");
+
+        // Archive update, selection & crowding distance
+        String [] archives = {"Archive", "BiObjectiveArchive", "CompactArchive", "NDTreeArchive"};
+        for (String archive : archives) {
+            for (int size : SIZES) {
+
+                Problem p = new ZDT1();
+                Particle [] candidates = front(p, CANDIDATES, new RandomStream(size));
+
+                Archive a = archive(archive, p, size);
+                a.updateBatch(front(p, size, new RandomStream(-size)));
+                int [] next = {0};
+                measure(archive + ".update", "size=" + size, () -> {
+                    a.update(new Particle(candidates[next[0]++ & (CANDIDATES - 1)]));
+                    return a.size();
+                });
+
+                RandomStream r = new RandomStream(1);
+                double [] guide = new double [p.n];
+                measure(archive + ".selection", "size=" + size, () -> {
+                    a.selection(p.T, r, guide);
+                    return guide[0];
+                });
+
+                measure(archive + ".calculateCrowdingDistance", "size=" + size, () -> {
+                    a.calculateCrowdingDistance();
+                    return a.getCrowdingDistance(0);
+                });
+
+            }
+        }
+
+        // MGPSO iteration
+        Problem [] problems = {new ZDT1(), new ZDT2(), new ZDT3(), new ZDT4(), new ZDT6()};
+        for (int i = 0; i < problems.length; i++) {
+            Problem p = problems[i];
+            RandomStream r = new RandomStream(i);
+            MGPSO mgpso = new MGPSO(r, p, new BiObjectiveArchive(r.split(), p, 50));
+            measure("MGPSO.iterate", p.getClass().getSimpleName(), () -> {
+                mgpso.iterate();
+                return mgpso.getT();
+            });
+        }
+
+        // Problem evaluation
+        for (int n : DIMENSIONS) {
+            for (boolean vectorized : new boolean [] {false, true}) {
+                Problem [] scaled = {new ZDT1(n), new ZDT2(n), new ZDT3(n), new ZDT4(n), new ZDT6(n)};
+                for (Problem p : scaled) {
+                    p.setVectorized(vectorized);
+                    double [] x = new double [n];
+                    RandomStream r = new RandomStream(n);
+                    for (int d = 0; d < n; d++)
+                        x[d] = p.mins[d] + r.nextDouble() * (p.maxs[d] - p.mins[d]);
+                    double [] out = new double [p.nObj];
+                    measure(p.getClass().getSimpleName() + ".objectives",
+                            "n=" + n + (vectorized ? " vectorized" : ""), () -> {
+                        p.objectives(x, out);
+                        return out[1];
+                    });
+                }
+            }
+        }
+
+    } // main
+
+    /**
+     * Warms up and measures an operation, printing its time and allocations per operation.
+     * @param name      The name of the benchmark.
+     * @param parameter The parameters of the benchmark.
+     * @param operation The operation.
+     */
+    private static void measure (String name, String parameter, Operation operation) {
+
+        if (!name.contains(filter))
+            return;
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        for (int i = 0; i < WARMUP; i++)
+            iteration(operation);
+
+        double [] nanos = new double [MEASURED];
+        long operations = 0;
+        long allocated = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < MEASURED; i++) {
+            long start = System.nanoTime();
+            long count = iteration(operation);
+            nanos[i] = (double) (System.nanoTime() - start) / count;
+            operations += count;
+        }
+        allocated = threads.getThreadAllocatedBytes(thread) - allocated;
+
+        // The mean and the half width of its 99.9% confidence interval, like JMH's error
+        double mean = Arrays.stream(nanos).average().orElse(0);
+        double variance = Arrays.stream(nanos).map(t -> (t - mean) * (t - mean)).sum() / (MEASURED - 1);
+        double error = 8.610 * Math.sqrt(variance / MEASURED);
+
+        System.out.printf("%-58s %14.1f %12.1f %14.1f\n", name + " " + parameter, mean, error,
+                          (double) allocated / operations);
+
+    } // measure
+
+    /**
+     * Performs an operation repeatedly for one iteration.
+     * @param operation The operation.
+     * @return          long, the number of times the operation was performed.
+     */
+    private static long iteration (Operation operation) {
+
+        long end = System.nanoTime() + millis * 1000000;
+        long count = 0;
+        double result = 0;
+        do {
+            result += operation.run();
+            count++;
+        } while (System.nanoTime() < end);
+        sink = result;
+
+        return count;
+
+    } // iteration
+
+    /**
+     * @param name     The name of an archive class.
+     * @param p        The problem.
+     * @param capacity The capacity of the archive.
+     * @return         Archive, an empty archive of that class.
+     */
+    static Archive archive (String name, Problem p, int capacity) {
+
+        RandomStream r = new RandomStream(capacity);
+        switch (name) {
+            case "BiObjectiveArchive": return new BiObjectiveArchive(r, p, capacity);
+            case "HypervolumeArchive": return new HypervolumeArchive(r, p, capacity, Main.reference(p));
+            case "CompactArchive":     return new CompactArchive(r, p, capacity);
+            case "NDTreeArchive":      return new NDTreeArchive(r, p, capacity);
+            case "ConcurrentArchive":  return new ConcurrentArchive(new Archive(r, p, capacity));
+            default:                   return new Archive(r, p, capacity);
+        }
+
+    } // archive
+
+    /**
+     * @param p     The problem, ZDT1.
+     * @param count The number of particles.
+     * @param r     The stream the positions are drawn from.
+     * @return      Particle [], evaluated particles on the Pareto-optimal front of ZDT1, none dominating another, so
+     *              every update of a full archive inserts a particle and removes one.
+     */
+    static Particle [] front (Problem p, int count, RandomStream r) {
+
+        Particle [] particles = new Particle [count];
+        for (int i = 0; i < count; i++) {
+            double [] position = new double [p.n];
+            position[0] = r.nextDouble();
+            particles[i] = new Particle(position, new double [p.n], p, 0);
+            particles[i].setFitnesses(p.objectives(position));
+        }
+
+        return particles;
+
+    } // front
+
+} // MicroBenchmark
@@ -0,0 +1,669 @@
+package MGPSO;
+
+import Benchmarks.Problem;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class represents an Archive for any number of objectives, indexed by an ND-Tree.
+ *
+ * The ND-Tree comes from Jaszkiewicz & Lust in https://doi.org/10.1109/TEVC.2018.2799684. Every node of the tree keeps
+ * an approximation of the ideal point (the best value on each objective) and the nadir point (the worst value on each
+ * objective) of the particles below it. When a new particle is offered to the archive:
+ *
+ * (1) If the nadir point of a node weakly dominates the particle, every particle below the node does, so the new one is
+ *     rejected without looking any further.
+ *
+ * (2) If the particle dominates the ideal point of a node, it dominates every particle below the node, so the whole
+ *     subtree is removed at once.
+ *
+ * (3) If the particle is neither better nor worse than the box spanned by the two points, nothing below the node can
+ *     dominate or be dominated by it, so the subtree is skipped.
+ *
+ * The two points are only ever widened, never shrunk when particles are removed. That keeps them valid bounds for the
+ * particles below the node, so the three rules above stay correct.
+ *
+ * The particles are also kept in the pool, in no particular order, for tournament selection and printing.
+ */
+public class NDTreeArchive extends Archive {
+
+    private int                                 maxLeafSize;   // The number of particles a leaf holds before splitting
+    private int                                 numChildren;   // The number of children a leaf is split into
+    private Node                                root;          // The root of the ND-Tree, null when the archive is empty
+    private IdentityHashMap<Particle, Integer>  index;         // The index of each particle in the pool
+    private ArrayList<Particle>                 removed;       // Scratch space for the particles an update removes
+
+    /**
+     * Initializes the ND-Tree archive with the leaf size and branching factor suggested in the original paper.
+     * @param rand The instance of random used throughout the implementation.
+     * @param prob The problem we're trying to optimize.
+     * @param c    The total number of particle allowed in the archive (capacity), Integer.MAX_VALUE for unbounded.
+     */
+    public NDTreeArchive (Random rand, Problem prob, int c) {
+        this(rand, prob, c, 20, prob.nObj + 1);
+    } // Constructor
+
+    /**
+     * Initializes the ND-Tree archive.
+     * @param rand        The instance of random used throughout the implementation.
+     * @param prob        The problem we're trying to optimize.
+     * @param c           The total number of particle allowed in the archive (capacity), Integer.MAX_VALUE for unbounded.
+     * @param leafSize    The number of particles a leaf holds before it is split.
+     * @param branching   The number of children a full leaf is split into.
+     */
+    public NDTreeArchive (Random rand, Problem prob, int c, int leafSize, int branching) {
+
+        super(rand, prob, c);
+
+        if (branching < 2 || branching > leafSize + 1)
+            throw new IllegalArgumentException("The branching factor must be between 2 and the leaf size + 1.");
+
+        // Initialize the shape of the tree
+        maxLeafSize = leafSize;
+        numChildren = branching;
+
+        // Initialize an empty tree
+        root = null;
+        index = new IdentityHashMap<>();
+        removed = new ArrayList<>();
+
+    } // Constructor
+
+    /**
+     * Checks if a particle is not dominated by any other in the pool.
+     * @param x The particle we're checking for non-domination.
+     * @return  boolean, true is the particle is non-dominated, false otherwise.
+     */
+    @Override
+    public boolean isNonDominated (Particle x) {
+        return root == null || !isDominated(root, x.getFitnesses());
+    } // isNonDominated
+
+    /**
+     * Checks if the passed in particle is in the archive.
+     * @param x The particle.
+     * @return  boolean, true if the particle is in the archive. Otherwise, not.
+     */
+    @Override
+    public boolean duplicate (Particle x) {
+        return root != null && contains(root, x.getFitnesses());
+    } // duplicate
+
+    /**
+     * Checks a fitness vector against the pool in one walk down the tree, see Archive.accepts.
+     * @param fitnesses Fitness vectors, nObj values per vector.
+     * @param offset    The index of the first value of the vector checked.
+     * @return          boolean, true if no particle in the pool is at least as fit as the vector on every objective.
+     */
+    @Override
+    protected boolean accepts (double [] fitnesses, int offset) {
+        return root == null || !isWeaklyDominated(root, fitnesses, offset);
+    } // accepts
+
+    /**
+     * Calculates the crowding distance of every particle in the archive. The pool order is used as an index into the
+     * tree, so the pool is left in its order (see Archive.crowdingDistances).
+     */
+    @Override
+    public void calculateCrowdingDistance () {
+
+        crowdingDistances(pool);
+
+        // The crowding distances are now up to date with the pool
+        stale = false;
+
+    } // calculateCrowdingDistance
+
+    /**
+     * This method acts as the archive management strategy (AMS).
+     * @param x The particle we're attempting to add to the archive.
+     */
+    @Override
+    public void update (Particle x) {
+
+        double [] f_x = x.getFitnesses();
+
+        if (root == null) {
+            root = new Node(f_x);
+        }
+        else {
+
+            // Reject x if it is weakly dominated, otherwise remove everything it dominates
+            removed.clear();
+            if (!updateNode(root, f_x, removed))
+                return;
+            for (int i = 0; i < removed.size(); i++) {
+                removeFromPool(removed.get(i));
+                recycle(removed.get(i));
+            }
+
+            // Everything in the tree may have been dominated by x
+            if (root.isEmpty())
+                root = new Node(f_x);
+
+        }
+
+        insert(root, x);
+        index.put(x, pool.size());
+        pool.add(x);
+        stale = true;
+
+        if (pool.size() > capacity) {
+            removeMostCrowded();
+        }
+
+    } // update
+
+    /**
+     * Adds a particle already known to be neither dominated by nor a duplicate of any particle in the pool, see
+     * Archive.accept. The walk down the tree which removes the particles dominated by x is the same one that would
+     * reject x, so there is no separate check to skip and the particle goes through update.
+     * @param x The particle being added, the archive keeps it as it is.
+     */
+    @Override
+    protected void accept (Particle x) {
+        update(x);
+    } // accept
+
+    /**
+     * Removes the most crowded individual from the archive.
+     */
+    @Override
+    public void removeMostCrowded () {
+
+        // Calculate the crowding distances of the particle's in the archive to ensure they're up to date
+        if (stale)
+            calculateCrowdingDistance();
+
+        // Finding the most crowded particle, the first one in the pool when several are equally crowded
+        Particle mostCrowded = pool.get(0);
+        for (Particle particle : pool)
+            if (particle.crowdingDistance < mostCrowded.crowdingDistance)
+                mostCrowded = particle;
+
+        remove(root, mostCrowded);
+        if (root.isEmpty())
+            root = null;
+        removeFromPool(mostCrowded);
+        recycle(mostCrowded);
+
+        // Removing a particle changes the crowding distances of its neighbours
+        stale = true;
+
+    } // removeMostCrowded
+
+    /**
+     * Writes the complete contents of the archive, see Archive.writeState, followed by the tree. The tree decides the
+     * order dominated particles are removed in, so it is written as it is rather than rebuilt when read back.
+     * @param out The output the contents are written to.
+     * @throws IOException If writing fails.
+     */
+    @Override
+    public void writeState (DataOutput out) throws IOException {
+
+        super.writeState(out);
+
+        out.writeBoolean(root != null);
+        if (root != null)
+            writeNode(out, root);
+
+    } // writeState
+
+    /**
+     * Replaces the contents of the archive with the contents written by writeState, tree included.
+     * @param in The input the contents are read from.
+     * @throws IOException If reading fails.
+     */
+    @Override
+    public void readState (DataInput in) throws IOException {
+
+        super.readState(in);
+
+        index.clear();
+        for (int i = 0; i < pool.size(); i++)
+            index.put(pool.get(i), i);
+
+        root = in.readBoolean() ? readNode(in) : null;
+
+    } // readState
+
+    /**
+     * Writes a subtree: the box of the node, then the pool index of each particle of a leaf or each child of any other
+     * node.
+     * @param out  The output the subtree is written to.
+     * @param node The root of the subtree.
+     * @throws IOException If writing fails.
+     */
+    private void writeNode (DataOutput out, Node node) throws IOException {
+
+        for (int m = 0; m < p.nObj; m++) {
+            out.writeDouble(node.ideal[m]);
+            out.writeDouble(node.nadir[m]);
+        }
+
+        out.writeBoolean(node.isLeaf());
+        if (node.isLeaf()) {
+            out.writeInt(node.points.size());
+            for (Particle x : node.points)
+                out.writeInt(index.get(x));
+        }
+        else {
+            out.writeInt(node.children.size());
+            for (Node child : node.children)
+                writeNode(out, child);
+        }
+
+    } // writeNode
+
+    /**
+     * Reads a subtree written with writeNode, once the pool is read.
+     * @param in The input the subtree is read from.
+     * @return   Node, the root of the subtree.
+     * @throws IOException If reading fails.
+     */
+    private Node readNode (DataInput in) throws IOException {
+
+        double [] ideal = new double [p.nObj];
+        double [] nadir = new double [p.nObj];
+        for (int m = 0; m < p.nObj; m++) {
+            ideal[m] = in.readDouble();
+            nadir[m] = in.readDouble();
+        }
+        Node node = new Node(ideal);
+        node.nadir = nadir;
+
+        boolean leaf = in.readBoolean();
+        int count = in.readInt();
+        if (leaf) {
+            for (int i = 0; i < count; i++)
+                node.points.add(pool.get(in.readInt()));
+        }
+        else {
+            node.points = null;
+            node.children = new ArrayList<>();
+            for (int i = 0; i < count; i++)
+                node.children.add(readNode(in));
+        }
+
+        return node;
+
+    } // readNode
+
+    /**
+     * Removes the particles dominated by a new fitness vector from a subtree, unless the new vector is itself weakly
+     * dominated.
+     * @param node    The root of the subtree.
+     * @param f       The new fitness vector.
+     * @param removed Collects the particles removed from the subtree.
+     * @return        boolean, false if f is weakly dominated by a particle in the subtree (nothing is removed then).
+     */
+    private boolean updateNode (Node node, double [] f, ArrayList<Particle> removed) {
+
+        // (1) Every particle below the node weakly dominates f
+        if (weaklyDominates(node.nadir, f))
+            return false;
+
+        // (2) f dominates every particle below the node
+        if (weaklyDominates(f, node.ideal) && !Arrays.equals(f, node.ideal)) {
+            node.collect(removed);
+            node.clear();
+            return true;
+        }
+
+        // (3) f is outside of the box spanned by the node, so nothing below it is comparable with f
+        if (!weaklyDominates(node.ideal, f) && !weaklyDominates(f, node.nadir))
+            return true;
+
+        if (node.isLeaf()) {
+            for (int i = node.points.size() - 1; i >= 0; i--) {
+                double [] f_i = node.points.get(i).getFitnesses();
+                if (weaklyDominates(f_i, f))
+                    return false;
+                if (weaklyDominates(f, f_i)) {
+                    removed.add(node.points.get(i));
+                    node.points.remove(i);
+                }
+            }
+        }
+        else {
+            for (int i = node.children.size() - 1; i >= 0; i--) {
+                Node child = node.children.get(i);
+                if (!updateNode(child, f, removed))
+                    return false;
+                if (child.isEmpty())
+                    node.children.remove(i);
+            }
+            node.collapse();
+        }
+
+        return true;
+
+    } // updateNode
+
+    /**
+     * Inserts a particle, known to be non-dominated, into a subtree.
+     * @param node The root of the subtree.
+     * @param x    The particle being inserted.
+     */
+    private void insert (Node node, Particle x) {
+
+        double [] f_x = x.getFitnesses();
+
+        // Walk down towards the child whose box is the closest to x, widening the boxes along the way
+        while (!node.isLeaf()) {
+            node.widen(f_x);
+            Node closest = node.children.get(0);
+            for (Node child : node.children)
+                if (child.distance(f_x) < closest.distance(f_x))
+                    closest = child;
+            node = closest;
+        }
+
+        node.points.add(x);
+        node.widen(f_x);
+
+        if (node.points.size() > maxLeafSize)
+            split(node);
+
+    } // insert
+
+    /**
+     * Splits a full leaf into numChildren children. The first child starts from the particle the furthest away from the
+     * others on average, each next child from the particle the furthest away from the children started so far, and the
+     * remaining particles join the child whose box is the closest.
+     * @param leaf The leaf being split.
+     */
+    private void split (Node leaf) {
+
+        ArrayList<Particle> points = leaf.points;
+        ArrayList<Node> children = new ArrayList<>(numChildren);
+
+        // Picking the starting particle of each child
+        ArrayList<Particle> remaining = new ArrayList<>(points);
+        ArrayList<Particle> seeds = new ArrayList<>(numChildren);
+        seeds.add(furthest(remaining, remaining));
+        remaining.remove(seeds.get(0));
+        while (seeds.size() < numChildren) {
+            Particle seed = furthest(remaining, seeds);
+            seeds.add(seed);
+            remaining.remove(seed);
+        }
+        for (Particle seed : seeds) {
+            Node child = new Node(seed.getFitnesses());
+            child.points.add(seed);
+            children.add(child);
+        }
+
+        // Assigning the remaining particles to the closest child
+        for (Particle particle : remaining) {
+            double [] f = particle.getFitnesses();
+            Node closest = children.get(0);
+            for (Node child : children)
+                if (child.distance(f) < closest.distance(f))
+                    closest = child;
+            closest.points.add(particle);
+            closest.widen(f);
+        }
+
+        leaf.points = null;
+        leaf.children = children;
+
+    } // split
+
+    /**
+     * @param candidates The particles to choose from.
+     * @param others     The particles distances are measured to.
+     * @return           Particle, the candidate with the largest average distance to the others.
+     */
+    private static Particle furthest (ArrayList<Particle> candidates, ArrayList<Particle> others) {
+
+        Particle result = candidates.get(0);
+        double largest = -1;
+        for (Particle candidate : candidates) {
+            double sum = 0;
+            for (Particle other : others)
+                sum += Math.sqrt(squaredDistance(candidate.getFitnesses(), other.getFitnesses()));
+            if (sum > largest) {
+                largest = sum;
+                result = candidate;
+            }
+        }
+
+        return result;
+
+    } // furthest
+
+    /**
+     * Removes one particle from a subtree, pruning the nodes left empty on the way back up.
+     * @param node The root of the subtree.
+     * @param x    The particle being removed.
+     * @return     boolean, true if the particle was found and removed.
+     */
+    private boolean remove (Node node, Particle x) {
+
+        double [] f_x = x.getFitnesses();
+        if (!weaklyDominates(node.ideal, f_x) || !weaklyDominates(f_x, node.nadir))
+            return false;
+
+        if (node.isLeaf())
+            return node.points.remove(x);
+
+        for (int i = 0; i < node.children.size(); i++) {
+            Node child = node.children.get(i);
+            if (remove(child, x)) {
+                if (child.isEmpty())
+                    node.children.remove(i);
+                node.collapse();
+                return true;
+            }
+        }
+
+        return false;
+
+    } // remove
+
+    /**
+     * @param node The root of a subtree.
+     * @param f    A fitness vector.
+     * @return     boolean, true if a particle in the subtree dominates f.
+     */
+    private static boolean isDominated (Node node, double [] f) {
+
+        if (!weaklyDominates(node.ideal, f))
+            return false;
+
+        if (node.isLeaf()) {
+            for (Particle particle : node.points) {
+                double [] f_i = particle.getFitnesses();
+                if (weaklyDominates(f_i, f) && !Arrays.equals(f_i, f))
+                    return true;
+            }
+            return false;
+        }
+
+        for (Node child : node.children)
+            if (isDominated(child, f))
+                return true;
+
+        return false;
+
+    } // isDominated
+
+    /**
+     * @param node The root of a subtree.
+     * @param f    Fitness vectors.
+     * @param j    The index of the first value of a fitness vector in f.
+     * @return     boolean, true if a particle in the subtree is at least as fit as the vector on every objective.
+     */
+    private boolean isWeaklyDominated (Node node, double [] f, int j) {
+
+        if (!weaklyDominates(node.ideal, 0, f, j, p.nObj))
+            return false;
+
+        // Every particle below the node weakly dominates the vector
+        if (weaklyDominates(node.nadir, 0, f, j, p.nObj))
+            return true;
+
+        if (node.isLeaf()) {
+            for (Particle particle : node.points)
+                if (weaklyDominates(particle.getFitnesses(), 0, f, j, p.nObj))
+                    return true;
+            return false;
+        }
+
+        for (Node child : node.children)
+            if (isWeaklyDominated(child, f, j))
+                return true;
+
+        return false;
+
+    } // isWeaklyDominated
+
+    /**
+     * @param node The root of a subtree.
+     * @param f    A fitness vector.
+     * @return     boolean, true if a particle in the subtree has exactly the fitness vector f.
+     */
+    private static boolean contains (Node node, double [] f) {
+
+        if (!weaklyDominates(node.ideal, f) || !weaklyDominates(f, node.nadir))
+            return false;
+
+        if (node.isLeaf()) {
+            for (Particle particle : node.points)
+                if (Arrays.equals(particle.getFitnesses(), f))
+                    return true;
+            return false;
+        }
+
+        for (Node child : node.children)
+            if (contains(child, f))
+                return true;
+
+        return false;
+
+    } // contains
+
+    /**
+     * Removes a particle from the pool by moving the last particle of the pool into its place.
+     * @param x The particle being removed.
+     */
+    private void removeFromPool (Particle x) {
+
+        int i = index.remove(x);
+        Particle last = pool.remove(pool.size() - 1);
+        if (last != x) {
+            pool.set(i, last);
+            index.put(last, i);
+        }
+
+    } // removeFromPool
+
+    /**
+     * @param a The first vector.
+     * @param b The second vector.
+     * @return  double, the squared euclidean distance between a and b.
+     */
+    private static double squaredDistance (double [] a, double [] b) {
+        double sum = 0;
+        for (int m = 0; m < a.length; m++)
+            sum += (a[m] - b[m]) * (a[m] - b[m]);
+        return sum;
+    } // squaredDistance
+
+    /**
+     * A node of the ND-Tree. A leaf holds particles, any other node holds children.
+     */
+    private static class Node {
+
+        double []           ideal;       // Lower bound on each objective for the particles below this node
+        double []           nadir;       // Upper bound on each objective for the particles below this node
+        ArrayList<Particle> points;      // The particles of a leaf, null for other nodes
+        ArrayList<Node>     children;    // The children of a node, null for leaves
+
+        /**
+         * Initializes an empty leaf whose box is the single point f.
+         * @param f The fitness vector the box starts from.
+         */
+        Node (double [] f) {
+            ideal = f.clone();
+            nadir = f.clone();
+            points = new ArrayList<>();
+            children = null;
+        } // Constructor
+
+        boolean isLeaf () {
+            return points != null;
+        } // isLeaf
+
+        boolean isEmpty () {
+            return isLeaf() ? points.isEmpty() : children.isEmpty();
+        } // isEmpty
+
+        /**
+         * Widens the box of this node so it contains f.
+         * @param f A fitness vector.
+         */
+        void widen (double [] f) {
+            for (int m = 0; m < f.length; m++) {
+                if (f[m] < ideal[m]) ideal[m] = f[m];
+                if (f[m] > nadir[m]) nadir[m] = f[m];
+            }
+        } // widen
+
+        /**
+         * @param f A fitness vector.
+         * @return  double, the squared distance from f to the middle of the box of this node.
+         */
+        double distance (double [] f) {
+            double sum = 0;
+            for (int m = 0; m < f.length; m++) {
+                double d = f[m] - (ideal[m] + nadir[m]) / 2;
+                sum += d * d;
+            }
+            return sum;
+        } // distance
+
+        /**
+         * Adds every particle below this node to a list.
+         * @param result The list the particles are added to.
+         */
+        void collect (ArrayList<Particle> result) {
+            if (isLeaf())
+                for (Particle particle : points)
+                    result.add(particle);
+            else
+                for (Node child : children)
+                    child.collect(result);
+        } // collect
+
+        /**
+         * Turns this node into an empty leaf.
+         */
+        void clear () {
+            points = new ArrayList<>();
+            children = null;
+        } // clear
+
+        /**
+         * Replaces a node left with a single child by that child.
+         */
+        void collapse () {
+            if (!isLeaf() && children.size() == 1) {
+                Node child = children.get(0);
+                ideal = child.ideal;
+                nadir = child.nadir;
+                points = child.points;
+                children = child.children;
+            }
+        } // collapse
+
+    } // Node
+
+} // NDTreeArchive
@@ -0,0 +1,165 @@
+package MGPSO;
+
+import Benchmarks.Problem;
+import java.util.Arrays;
+
+/**
+ * This class is a Particle whose state lives in a SwarmState, so the particles of a swarm can still be handed out as
+ * Particle objects.
+ *
+ * Java arrays can't be sliced, so every getter returning an array returns a copy of the particle's slice. Writing into
+ * those arrays doesn't change the particle, the setters must be used instead.
+ */
+public class ParticleView extends Particle {
+
+    private SwarmState state;    // The state of the swarm this particle belongs to
+    private int        i;        // The index of this particle in the swarm
+
+    /**
+     * Initializes a view of one particle of a swarm.
+     * @param swarmState The state of the swarm.
+     * @param index      The index of the particle in the swarm.
+     * @param prob       The multi-objective problem.
+     * @param objIndex   The particle's primary objective.
+     */
+    public ParticleView (SwarmState swarmState, int index, Problem prob, int objIndex) {
+
+        super(prob, objIndex);
+
+        state = swarmState;
+        i = index;
+
+    } // Constructor
+
+    /**
+     * @return double [], a copy of the particle's position.
+     */
+    @Override
+    public double [] getPosition () {
+        return getPositionCopy();
+    } // getPosition
+
+    /**
+     * @return double [], a copy of the particle's position.
+     */
+    @Override
+    public double [] getPositionCopy () {
+        return Arrays.copyOfRange(state.positions, i * state.n, (i + 1) * state.n);
+    } // getPositionCopy
+
+    /**
+     * @return double [], a copy of the particle's velocity.
+     */
+    @Override
+    public double [] getVelocity () {
+        return getVelocityCopy();
+    } // getVelocity
+
+    /**
+     * @return double [], a copy of the particle's velocity.
+     */
+    @Override
+    public double [] getVelocityCopy () {
+        return Arrays.copyOfRange(state.velocities, i * state.n, (i + 1) * state.n);
+    } // getVelocityCopy
+
+    /**
+     * @return double [], a copy of the particle's best position.
+     */
+    @Override
+    public double [] getBestPosition () {
+        return getBestPositionCopy();
+    } // getBestPosition
+
+    /**
+     * @return double [], a copy of the particle's best position.
+     */
+    @Override
+    public double [] getBestPositionCopy () {
+        return Arrays.copyOfRange(state.bestPositions, i * state.n, (i + 1) * state.n);
+    } // getBestPositionCopy
+
+    /**
+     * @return double, the fitness of the particle's current position.
+     */
+    @Override
+    public double getFitness () {
+        return state.fitnesses[i * state.nObj + getM()];
+    } // getFitness
+
+    /**
+     * @return double [], a copy of the fitness of the particle on each objective function.
+     */
+    @Override
+    public double [] getFitnesses () {
+        return getFitnessesCopy();
+    } // getFitnesses
+
+    /**
+     * @return double [], a copy of the fitness of the particle on each objective function.
+     */
+    @Override
+    public double [] getFitnessesCopy () {
+        return Arrays.copyOfRange(state.fitnesses, i * state.nObj, (i + 1) * state.nObj);
+    } // getFitnessesCopy
+
+    /**
+     * @return double, the fitness of the best position found so far by the particle.
+     */
+    @Override
+    public double getBestFitness () {
+        return state.bestFitnesses[i];
+    } // getBestFitness
+
+    /**
+     * Copies the position past in to the current position of the particle, within the bounds of the search space.
+     * @param position The particle's new position.
+     */
+    @Override
+    public void setPosition (double [] position) {
+        Helper.normalize(position, getP().mins, getP().maxs, state.positions, i * state.n);
+    } // setPosition
+
+    /**
+     * Copies the velocity past in to the current velocity of the particle.
+     * @param velocity The particle's new velocity.
+     */
+    @Override
+    public void setVelocity (double [] velocity) {
+        System.arraycopy(velocity, 0, state.velocities, i * state.n, state.n);
+    } // setVelocity
+
+    /**
+     * Copies the position past in to the current best position found so far of the particle.
+     * @param bestPosition The new best position found by the particle.
+     */
+    @Override
+    public void setBestPosition (double [] bestPosition) {
+        System.arraycopy(bestPosition, 0, state.bestPositions, i * state.n, state.n);
+    } // setBestPosition
+
+    /**
+     * @param fitness The new fitness of the particle's position.
+     */
+    @Override
+    public void setFitness (double fitness) {
+        state.fitnesses[i * state.nObj + getM()] = fitness;
+    } // setFitness
+
+    /**
+     * @param fitness The new fitnesses of the particle's position on each objective.
+     */
+    @Override
+    public void setFitnesses (double [] fitness) {
+        System.arraycopy(fitness, 0, state.fitnesses, i * state.nObj, state.nObj);
+    } // setFitnesses
+
+    /**
+     * @param bestFitness The new fitness of the particle's best found position.
+     */
+    @Override
+    public void setBestFitness (double bestFitness) {
+        state.bestFitnesses[i] = bestFitness;
+    } // setBestFitness
+
+} // ParticleView
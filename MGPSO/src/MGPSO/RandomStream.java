@@ -0,0 +1,188 @@
+package MGPSO;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * This class is a stream of pseudo-random numbers which can be split into independent streams, so every swarm, every
+ * particle and the archive can draw from their own stream instead of sharing one instance of random.
+ *
+ * The numbers are generated with the SplitMix64 algorithm, the algorithm of java.util.SplittableRandom. A stream is
+ * just two longs: a seed which is advanced by a gamma on every draw. Splitting a stream draws the seed and gamma of a new
+ * stream from it, so the streams of a run are all derived deterministically from the run's seed.
+ *
+ * It extends Random so it can be passed anywhere an instance of random is expected. Unlike Random, a stream is not safe
+ * to share between threads, each thread must draw from its own stream.
+ */
+public class RandomStream extends Random {
+
+    private static final long serialVersionUID = 1L;                // Random is serializable, so a stream is too
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;  // The gamma of a stream created from a seed
+    private static final double DOUBLE_UNIT = 0x1.0p-53;            // 1 / 2^53, turns 53 random bits into a double
+
+    private long seed;     // Advanced by gamma on every draw
+    private long gamma;    // An odd number, different for every split stream
+
+    /**
+     * Initializes a stream from a seed.
+     * @param seed The seed of the stream.
+     */
+    public RandomStream (long seed) {
+        this(seed, GOLDEN_GAMMA);
+    } // Constructor
+
+    /**
+     * Initializes a stream with a specific state, e.g. one saved with getSeed and getGamma.
+     * @param seed  The seed of the stream.
+     * @param gamma The gamma of the stream, it must be odd.
+     */
+    public RandomStream (long seed, long gamma) {
+
+        // Random's constructor calls setSeed, which the state is set after
+        super(seed);
+
+        this.seed = seed;
+        this.gamma = gamma;
+
+    } // Constructor
+
+    /**
+     * Returns the stream itself when the instance of random is already a stream, or a new stream seeded from it.
+     * @param rand An instance of random.
+     * @return     RandomStream, a stream which can be split.
+     */
+    public static RandomStream of (Random rand) {
+        if (rand instanceof RandomStream)
+            return (RandomStream) rand;
+        return new RandomStream(rand.nextLong());
+    } // of
+
+    /**
+     * Splits off a new stream. The new stream and this one then produce independent numbers.
+     * @return RandomStream, the new stream.
+     */
+    public RandomStream split () {
+        return new RandomStream(nextLong(), mixGamma(nextSeed()));
+    } // split
+
+    /**
+     * Resets the stream as if it was created from a seed.
+     * @param seed The new seed.
+     */
+    @Override
+    public void setSeed (long seed) {
+        super.setSeed(seed);
+        this.seed = seed;
+        this.gamma = GOLDEN_GAMMA;
+    } // setSeed
+
+    /**
+     * @param bits The number of random bits.
+     * @return     int, the highest bits of the next random long.
+     */
+    @Override
+    protected int next (int bits) {
+        return (int) (mix64(nextSeed()) >>> (64 - bits));
+    } // next
+
+    /**
+     * @return int, the next random int.
+     */
+    @Override
+    public int nextInt () {
+        return mix32(nextSeed());
+    } // nextInt
+
+    /**
+     * @return long, the next random long.
+     */
+    @Override
+    public long nextLong () {
+        return mix64(nextSeed());
+    } // nextLong
+
+    /**
+     * @return double, the next random double in the range [0, 1).
+     */
+    @Override
+    public double nextDouble () {
+        return (mix64(nextSeed()) >>> 11) * DOUBLE_UNIT;
+    } // nextDouble
+
+    /**
+     * @return long, the current seed of the stream.
+     */
+    public long getSeed () {
+        return seed;
+    } // getSeed
+
+    /**
+     * @return long, the gamma of the stream.
+     */
+    public long getGamma () {
+        return gamma;
+    } // getGamma
+
+    /**
+     * Writes the state of the stream, so it can be read back to continue exactly where it is (see Checkpoint).
+     * @param out The output the state is written to.
+     * @throws IOException If writing fails.
+     */
+    public void write (DataOutput out) throws IOException {
+        out.writeLong(seed);
+        out.writeLong(gamma);
+    } // write
+
+    /**
+     * Reads a stream written with write.
+     * @param in The input the state is read from.
+     * @return   RandomStream, a stream with the state as it was written.
+     * @throws IOException If reading fails.
+     */
+    public static RandomStream read (DataInput in) throws IOException {
+        long seed = in.readLong();
+        long gamma = in.readLong();
+        return new RandomStream(seed, gamma);
+    } // read
+
+    /**
+     * @return long, the seed after advancing it by one step.
+     */
+    private long nextSeed () {
+        return seed += gamma;
+    } // nextSeed
+
+    /**
+     * @param z A seed.
+     * @return  long, the seed's bits mixed together (variant 13 of Stafford's mixing functions).
+     */
+    private static long mix64 (long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    } // mix64
+
+    /**
+     * @param z A seed.
+     * @return  int, the high half of the seed's bits mixed together (variant 4 of Stafford's mixing functions).
+     */
+    private static int mix32 (long z) {
+        z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+        return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+    } // mix32
+
+    /**
+     * @param z A seed.
+     * @return  long, an odd gamma with enough bit transitions to give a good stream.
+     */
+    private static long mixGamma (long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        int transitions = Long.bitCount(z ^ (z >>> 1));
+        return (transitions < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    } // mixGamma
+
+} // RandomStream
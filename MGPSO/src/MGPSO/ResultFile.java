@@ -0,0 +1,276 @@
+package MGPSO;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class is the result of a run in a compact binary file: the final archive, with the positions of its particles,
+ * and what the run was.
+ *
+ * (1) A header of 40 bytes: the format ("MGPR" and a version), the seed, the number of the run, the iterations it ran,
+ *     n, nObj, the number of particles and the length of the problem's name, followed by the name in UTF-8, padded to a
+ *     multiple of 8 bytes.
+ *
+ * (2) nObj fixed-width columns of doubles, the fitness of every particle on one objective after another.
+ *
+ * (3) n fixed-width columns of doubles, the position of every particle in one dimension after another.
+ *
+ * Everything is little-endian, so the columns can be read in place as doubles on most machines. A file is written with
+ * one write through a channel, and read by mapping it into memory, so opening it only parses the header and a column is
+ * read straight from the page cache when it is used. Loading thousands of results (see openAll) then takes a few
+ * milliseconds instead of parsing every line of thousands of text files.
+ */
+public class ResultFile {
+
+    public static final String EXTENSION = ".result";      // The extension of result files
+
+    private static final int MAGIC = 0x5250474D;            // "MGPR" in little-endian, the first bytes of every result
+    private static final int VERSION = 1;                   // The version of the format
+    private static final int HEADER = 40;                   // The length of the fixed part of the header
+
+    private final Path         file;          // The file the result was read from
+    private final String       problem;       // The name of the problem
+    private final long         seed;          // The seed of the run
+    private final int          run;           // The number of the run
+    private final int          iterations;    // The number of iterations the run ran
+    private final int          n;             // Number of problem dimensions
+    private final int          nObj;          // Number of objectives
+    private final int          size;          // The number of particles in the archive
+    private final DoubleBuffer fitnesses;     // The fitness columns, size values per objective
+    private final DoubleBuffer positions;     // The position columns, size values per dimension
+
+    /**
+     * Reads the header of a mapped result file.
+     * @param file   The file.
+     * @param buffer The contents of the file, little-endian.
+     * @throws IOException If the file isn't a result file.
+     */
+    private ResultFile (Path file, ByteBuffer buffer) throws IOException {
+
+        this.file = file;
+
+        if (buffer.capacity() < HEADER || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+            throw new IOException("Not an MGPSO result file: " + file + ".");
+
+        seed = buffer.getLong(8);
+        run = buffer.getInt(16);
+        iterations = buffer.getInt(20);
+        n = buffer.getInt(24);
+        nObj = buffer.getInt(28);
+        size = buffer.getInt(32);
+        int length = buffer.getInt(36);
+
+        int columns = padded(HEADER + length);
+        if (buffer.capacity() != columns + (long) size * (nObj + n) * Double.BYTES)
+            throw new IOException("The result file " + file + " is truncated or corrupt.");
+
+        byte [] name = new byte [length];
+        buffer.get(HEADER, name);
+        problem = new String(name, StandardCharsets.UTF_8);
+
+        fitnesses = column(buffer, columns, size * nObj);
+        positions = column(buffer, columns + size * nObj * Double.BYTES, size * n);
+
+    } // Constructor
+
+    /**
+     * Writes the result of a run.
+     * @param file       The file, replaced when it exists.
+     * @param problem    The name of the problem, see Main.problem.
+     * @param run        The number of the run.
+     * @param seed       The seed of the run.
+     * @param iterations The number of iterations the run ran.
+     * @param archive    The final archive of the run.
+     * @throws IOException If writing fails.
+     */
+    public static void write (Path file, String problem, int run, long seed, int iterations, Archive archive)
+            throws IOException {
+
+        int n = archive.p.n;
+        int nObj = archive.p.nObj;
+        int size = archive.size();
+        byte [] name = problem.getBytes(StandardCharsets.UTF_8);
+        int columns = padded(HEADER + name.length);
+
+        ByteBuffer buffer = ByteBuffer.allocate(columns + size * (nObj + n) * Double.BYTES);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(seed).putInt(run).putInt(iterations).putInt(n).putInt(nObj)
+              .putInt(size).putInt(name.length).put(name);
+
+        buffer.position(columns);
+        for (int m = 0; m < nObj; m++)
+            for (int i = 0; i < size; i++)
+                buffer.putDouble(archive.getFitness(i, m));
+        for (int d = 0; d < n; d++)
+            for (int i = 0; i < size; i++)
+                buffer.putDouble(archive.getPosition(i, d));
+
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+
+    } // write
+
+    /**
+     * Opens a result file by mapping it into memory. Only the header is read now, the columns as they are used.
+     * @param file The file.
+     * @return     ResultFile, the result.
+     * @throws IOException If the file can't be read or isn't a result file.
+     */
+    public static ResultFile open (Path file) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return new ResultFile(file, buffer);
+        }
+
+    } // open
+
+    /**
+     * Opens every result file in a directory, see open.
+     * @param directory The directory, e.g. RunsTemp.
+     * @return          List<ResultFile>, the results in the order of their file names.
+     * @throws IOException If a file can't be read or isn't a result file.
+     */
+    public static List<ResultFile> openAll (Path directory) throws IOException {
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : stream)
+                files.add(file);
+        }
+        files.sort(null);
+
+        List<ResultFile> results = new ArrayList<>();
+        for (Path file : files)
+            results.add(open(file));
+
+        return results;
+
+    } // openAll
+
+    /**
+     * @param i The index of a particle in the archive.
+     * @param m The objective.
+     * @return  double, the fitness of the particle on objective m.
+     */
+    public double getFitness (int i, int m) {
+        return fitnesses.get(m * size + i);
+    } // getFitness
+
+    /**
+     * @param i The index of a particle in the archive.
+     * @param d The dimension.
+     * @return  double, the position of the particle in dimension d.
+     */
+    public double getPosition (int i, int d) {
+        return positions.get(d * size + i);
+    } // getPosition
+
+    /**
+     * @param m The objective.
+     * @return  DoubleBuffer, a read-only view of the fitness of every particle on objective m, without copying.
+     */
+    public DoubleBuffer getFitnesses (int m) {
+        return fitnesses.duplicate().position(m * size).limit((m + 1) * size).slice();
+    } // getFitnesses
+
+    /**
+     * @param d The dimension.
+     * @return  DoubleBuffer, a read-only view of the position of every particle in dimension d, without copying.
+     */
+    public DoubleBuffer getPositions (int d) {
+        return positions.duplicate().position(d * size).limit((d + 1) * size).slice();
+    } // getPositions
+
+    /**
+     * @return Path, the file the result was read from.
+     */
+    public Path getFile () {
+        return file;
+    } // getFile
+
+    /**
+     * @return String, the name of the problem.
+     */
+    public String getProblem () {
+        return problem;
+    } // getProblem
+
+    /**
+     * @return long, the seed of the run.
+     */
+    public long getSeed () {
+        return seed;
+    } // getSeed
+
+    /**
+     * @return int, the number of the run.
+     */
+    public int getRun () {
+        return run;
+    } // getRun
+
+    /**
+     * @return int, the number of iterations the run ran.
+     */
+    public int getIterations () {
+        return iterations;
+    } // getIterations
+
+    /**
+     * @return int, the number of problem dimensions.
+     */
+    public int getN () {
+        return n;
+    } // getN
+
+    /**
+     * @return int, the number of objectives.
+     */
+    public int getNObj () {
+        return nObj;
+    } // getNObj
+
+    /**
+     * @return int, the number of particles in the archive.
+     */
+    public int size () {
+        return size;
+    } // size
+
+    /**
+     * @param length A number of bytes.
+     * @return       int, the smallest multiple of 8 bytes at least that long, so the columns are aligned as doubles.
+     */
+    private static int padded (int length) {
+        return (length + Double.BYTES - 1) / Double.BYTES * Double.BYTES;
+    } // padded
+
+    /**
+     * @param buffer The contents of a result file, little-endian.
+     * @param offset The index of the first byte of the columns.
+     * @param count  The number of doubles in the columns.
+     * @return       DoubleBuffer, a read-only view of the columns.
+     */
+    private static DoubleBuffer column (ByteBuffer buffer, int offset, int count) {
+        return buffer.duplicate().position(offset).limit(offset + count * Double.BYTES).slice()
+                     .order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().asReadOnlyBuffer();
+    } // column
+
+} // ResultFile
@@ -0,0 +1,92 @@
+package MGPSO;
+
+import Benchmarks.DTLZ2;
+import Benchmarks.Problem;
+import Benchmarks.ZDT1;
+import Benchmarks.ZDT3;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * This class checks that a run resumed from a checkpoint stops where the run which saved it would have (see
+ * Checkpoint and Termination).
+ *
+ * For a few problems and criteria with state (the hypervolume and insertions windows), a run is first stopped by its
+ * criteria without checkpoints. The same run is then repeated saving a checkpoint every few iterations, and resumed
+ * from the last checkpoint it saved, which is within a window of where it stopped. The resumed run must stop at the
+ * same iteration, on the same criterion, with exactly the same state.
+ *
+ * Usage: java MGPSO.ResumeCheck [seed, default 1], exits with status 1 when the check fails.
+ */
+public class ResumeCheck {
+
+    private static final int ITERATIONS = 3000;     // The most iterations a run does
+    private static final int INTERVAL = 37;         // The iterations between checkpoints, not a divisor of the windows
+
+    /**
+     * Runs the check.
+     * @param args The seed of the runs (optional).
+     * @throws IOException If the checkpoint can't be written or read.
+     */
+    public static void main (String[] args) throws IOException {
+
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 1;
+        Path file = Files.createTempFile("resume", ".ckpt");
+
+        boolean passed = true;
+        try {
+            Problem [] problems = {new ZDT1(), new ZDT3(), new DTLZ2()};
+            for (Problem p : problems) {
+                for (boolean hypervolume : new boolean [] {true, false}) {
+
+                    RandomStream r = new RandomStream(seed);
+                    MGPSO whole = new MGPSO(r, p, Main.archive(r, p));
+                    Termination stop = whole.run(criteria(p, hypervolume));
+
+                    r = new RandomStream(seed);
+                    MGPSO saved = new MGPSO(r, p, Main.archive(r, p));
+                    try (Checkpoint checkpoint = new Checkpoint(file, INTERVAL)) {
+                        saved.setCheckpoint(checkpoint);
+                        saved.run(criteria(p, hypervolume));
+                    }
+
+                    MGPSO resumed = Checkpoint.resume(file, p, Main.archive(new RandomStream(seed), p));
+                    int from = resumed.getT();
+                    Termination resumedStop = resumed.run(criteria(p, hypervolume));
+
+                    boolean same = resumed.getT() == whole.getT() && resumedStop.getName().equals(stop.getName()) &&
+                                   Arrays.equals(Checkpoint.state(resumed), Checkpoint.state(whole));
+                    System.out.println(p.getClass().getSimpleName() + ", " + stop.getName() + ": stopped at " +
+                                       whole.getT() + ", resumed at " + from + " and stopped at " + resumed.getT() +
+                                       " on " + resumedStop.getName() + (same ? "" : ", DIFFERS"));
+                    if (!same)
+                        passed = false;
+
+                }
+            }
+        }
+        finally {
+            Files.deleteIfExists(file);
+        }
+
+        System.out.println(passed ? "\nPASSED" : "\nFAILED");
+        if (!passed)
+            System.exit(1);
+
+    } // main
+
+    /**
+     * @param p           The problem.
+     * @param hypervolume Whether the run stops on its hypervolume stagnating, or else on few insertions.
+     * @return            Termination [], new criteria for one run.
+     */
+    private static Termination [] criteria (Problem p, boolean hypervolume) {
+        return new Termination [] {
+            hypervolume ? Termination.hypervolume(Main.reference(p), 300, 1e-5) : Termination.insertions(100, 0.5),
+            Termination.iterations(ITERATIONS)
+        };
+    } // criteria
+
+} // ResumeCheck
@@ -0,0 +1,284 @@
+package MGPSO;
+
+import Benchmarks.Problem;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * This class is a cheap model of a problem's objectives, learned from the evaluations made so far, used by MGPSO to
+ * decide which moved particles are worth a true evaluation (see MGPSO.setSurrogate).
+ *
+ * (1) It remembers the most recent capacity evaluations, their positions scaled to [0, 1] by the problem's bounds.
+ *
+ * (2) Each objective is predicted by a cubic radial basis function (RBF) interpolant with a linear tail,
+ *     s(x) = sum_j w_j ||x - c_j||^3 + b_0 + b . x, through the remembered evaluations. All objectives share the same
+ *     centers, so one system of equations is solved for all of them at once.
+ *
+ * (3) The system is only solved again when evaluations were added since the last fit. A small ridge on the diagonal
+ *     keeps it solvable when two remembered positions are equal.
+ *
+ * The model is ready once it remembers at least 2 * (n + 1) evaluations, enough to determine the linear tail.
+ */
+public class Surrogate {
+
+    private static final double RIDGE = 1e-8;   // Added to the diagonal of the kernel block of the system
+
+    private final Problem  p;          // The problem being modelled
+    private final int      capacity;   // The maximum number of evaluations remembered
+
+    private final double [] centers;   // The scaled positions of the remembered evaluations, n values per evaluation
+    private final double [] values;    // The fitnesses of the remembered evaluations, nObj values per evaluation
+    private int             count;     // The number of evaluations remembered
+    private int             next;      // The slot the next evaluation is written to, the oldest once full
+    private boolean         fitted;    // Whether the weights are up to date with the remembered evaluations
+
+    private double []       weights;   // The kernel weight of each center on each objective, nObj values per center
+    private double []       tail;      // The constant and linear coefficients of each objective, nObj values per term
+    private final double [] scaled;    // Scratch, the scaled position being predicted
+
+    /**
+     * Initializes an empty surrogate.
+     * @param prob     The problem being modelled.
+     * @param capacity The maximum number of evaluations remembered, at least 2 * (n + 1). Fitting takes time cubic in
+     *                 it and predicting time linear in it.
+     */
+    public Surrogate (Problem prob, int capacity) {
+
+        if (capacity < 2 * (prob.n + 1))
+            throw new IllegalArgumentException("The capacity must be at least " + 2 * (prob.n + 1) + ", got " +
+                                               capacity + ".");
+
+        p = prob;
+        this.capacity = capacity;
+
+        centers = new double [capacity * p.n];
+        values = new double [capacity * p.nObj];
+        count = 0;
+        next = 0;
+        fitted = false;
+
+        scaled = new double [p.n];
+
+    } // Constructor
+
+    /**
+     * Initializes a surrogate from the state written by writeState, e.g. from a checkpoint (see Checkpoint). The model
+     * is fitted again on first use, from the same evaluations, so it predicts exactly what the written one would have.
+     * @param prob The problem being modelled, the same one as when the state was written.
+     * @param in   The input the state is read from.
+     * @throws IOException If reading fails.
+     */
+    Surrogate (Problem prob, DataInput in) throws IOException {
+
+        this(prob, in.readInt());
+
+        count = in.readInt();
+        next = in.readInt();
+        for (int i = 0; i < count * p.n; i++)
+            centers[i] = in.readDouble();
+        for (int i = 0; i < count * p.nObj; i++)
+            values[i] = in.readDouble();
+
+    } // Constructor
+
+    /**
+     * Writes the remembered evaluations and where the next one goes, see Surrogate(Problem, DataInput).
+     * @param out The output the state is written to.
+     * @throws IOException If writing fails.
+     */
+    void writeState (DataOutput out) throws IOException {
+
+        out.writeInt(capacity);
+        out.writeInt(count);
+        out.writeInt(next);
+        for (int i = 0; i < count * p.n; i++)
+            out.writeDouble(centers[i]);
+        for (int i = 0; i < count * p.nObj; i++)
+            out.writeDouble(values[i]);
+
+    } // writeState
+
+    /**
+     * Remembers a true evaluation, replacing the oldest one when full.
+     * @param xs      The array holding the decision vector.
+     * @param offset  The index of the first decision variable in xs.
+     * @param fs      The array holding the fitnesses of the vector.
+     * @param fOffset The index of the fitness on the first objective in fs.
+     */
+    public void add (double [] xs, int offset, double [] fs, int fOffset) {
+
+        scale(xs, offset, centers, next * p.n);
+        System.arraycopy(fs, fOffset, values, next * p.nObj, p.nObj);
+
+        next = (next + 1) % capacity;
+        count = Math.min(count + 1, capacity);
+        fitted = false;
+
+    } // add
+
+    /**
+     * Fits the model to the remembered evaluations, unless it already is.
+     * @return boolean, whether the model is ready to predict.
+     */
+    public boolean fit () {
+
+        if (fitted)
+            return true;
+        if (count < 2 * (p.n + 1))
+            return false;
+
+        // The interpolation system [K P; P' 0] [w; b] = [f; 0], with K the kernel between the centers and P the rows
+        // [1, c_j]
+        int size = count + p.n + 1;
+        double [] A = new double [size * size];
+        double [] B = new double [size * p.nObj];
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < i; j++) {
+                double phi = kernel(centers, i * p.n, centers, j * p.n);
+                A[i * size + j] = phi;
+                A[j * size + i] = phi;
+            }
+            A[i * size + i] = RIDGE;
+            A[i * size + count] = 1;
+            A[count * size + i] = 1;
+            for (int d = 0; d < p.n; d++) {
+                A[i * size + count + 1 + d] = centers[i * p.n + d];
+                A[(count + 1 + d) * size + i] = centers[i * p.n + d];
+            }
+            System.arraycopy(values, i * p.nObj, B, i * p.nObj, p.nObj);
+        }
+
+        if (!solve(A, B, size, p.nObj))
+            return false;
+
+        weights = new double [count * p.nObj];
+        tail = new double [(p.n + 1) * p.nObj];
+        System.arraycopy(B, 0, weights, 0, weights.length);
+        System.arraycopy(B, count * p.nObj, tail, 0, tail.length);
+        fitted = true;
+
+        return true;
+
+    } // fit
+
+    /**
+     * Predicts the fitnesses of a decision vector. The model must be fitted (see fit).
+     * @param xs     The array holding the decision vector.
+     * @param offset The index of the first decision variable in xs.
+     * @param out    Receives the predicted fitness on each objective.
+     */
+    public void predict (double [] xs, int offset, double [] out) {
+
+        scale(xs, offset, scaled, 0);
+
+        for (int m = 0; m < p.nObj; m++)
+            out[m] = tail[m];
+        for (int d = 0; d < p.n; d++)
+            for (int m = 0; m < p.nObj; m++)
+                out[m] += tail[(d + 1) * p.nObj + m] * scaled[d];
+
+        for (int j = 0; j < count; j++) {
+            double phi = kernel(scaled, 0, centers, j * p.n);
+            for (int m = 0; m < p.nObj; m++)
+                out[m] += weights[j * p.nObj + m] * phi;
+        }
+
+    } // predict
+
+    /**
+     * @return int, the number of evaluations remembered.
+     */
+    public int size () {
+        return count;
+    } // size
+
+    /**
+     * Scales a decision vector to [0, 1] in every dimension by the problem's bounds.
+     * @param xs        The array holding the decision vector.
+     * @param offset    The index of the first decision variable in xs.
+     * @param out       Receives the scaled vector.
+     * @param outOffset The index in out the scaled vector starts at.
+     */
+    private void scale (double [] xs, int offset, double [] out, int outOffset) {
+        for (int d = 0; d < p.n; d++)
+            out[outOffset + d] = (xs[offset + d] - p.mins[d]) / (p.maxs[d] - p.mins[d]);
+    } // scale
+
+    /**
+     * @return double, the cubic kernel ||x - y||^3 between two scaled vectors.
+     */
+    private double kernel (double [] x, int xOffset, double [] y, int yOffset) {
+
+        double sum = 0;
+        for (int d = 0; d < p.n; d++) {
+            double diff = x[xOffset + d] - y[yOffset + d];
+            sum += diff * diff;
+        }
+        double r = Math.sqrt(sum);
+
+        return r * r * r;
+
+    } // kernel
+
+    /**
+     * Solves A X = B in place by Gaussian elimination with partial pivoting, leaving X in B.
+     * @param A       The matrix, size * size values by rows, destroyed.
+     * @param B       The right hand sides, size * columns values by rows, receives the solutions.
+     * @param size    The number of equations.
+     * @param columns The number of right hand sides.
+     * @return        boolean, false when the matrix is singular.
+     */
+    private static boolean solve (double [] A, double [] B, int size, int columns) {
+
+        for (int k = 0; k < size; k++) {
+
+            // Pivot on the largest value left in the column
+            int pivot = k;
+            for (int i = k + 1; i < size; i++)
+                if (Math.abs(A[i * size + k]) > Math.abs(A[pivot * size + k]))
+                    pivot = i;
+            if (Math.abs(A[pivot * size + k]) < 1e-14)
+                return false;
+            if (pivot != k) {
+                swap(A, k * size, pivot * size, size);
+                swap(B, k * columns, pivot * columns, columns);
+            }
+
+            for (int i = k + 1; i < size; i++) {
+                double factor = A[i * size + k] / A[k * size + k];
+                if (factor == 0)
+                    continue;
+                for (int j = k; j < size; j++)
+                    A[i * size + j] -= factor * A[k * size + j];
+                for (int j = 0; j < columns; j++)
+                    B[i * columns + j] -= factor * B[k * columns + j];
+            }
+
+        }
+
+        // Back substitution
+        for (int k = size - 1; k >= 0; k--)
+            for (int j = 0; j < columns; j++) {
+                double sum = B[k * columns + j];
+                for (int i = k + 1; i < size; i++)
+                    sum -= A[k * size + i] * B[i * columns + j];
+                B[k * columns + j] = sum / A[k * size + k];
+            }
+
+        return true;
+
+    } // solve
+
+    /**
+     * Swaps two rows of a matrix.
+     */
+    private static void swap (double [] M, int a, int b, int length) {
+        for (int i = 0; i < length; i++) {
+            double temp = M[a + i];
+            M[a + i] = M[b + i];
+            M[b + i] = temp;
+        }
+    } // swap
+
+} // Surrogate
@@ -1,152 +1,265 @@
-package MGPSO;
-
-import Benchmarks.Problem;
-
-import java.util.Random;
-
-/**
- * This class represents a swarm of particles. Each swarm optimizes one objective of our multi-objective problem.
- *
- * @author Liam McDevitt
- * Date: 2021-07-05
- *
- */
-public class Swarm {
-
-    private Random      r;            // The random instance used for this run's seed
-    private Problem     p;            // The multi-objective problem we're trying to solving
-    private int         m;            // Objective index - the specific objective this swarm is optimizing
-    private int         s;            // The number of particles in the swarm
-
-    private Particle [] particles;    // The particles which make up the swarm
-    private int         iBest;        // The index of the best particle in the swarm
-    private double      lambda;       // The archive balance coefficient [Exploitation vs. Exploration]
-
-    /**
-     * Initializes a swarm of particles.
-     * @param rand     The instance of random used throughout the implementation.
-     * @param prob     The problem we're trying to optimize.
-     * @param objIndex The specific objective of the problem this swarm is optimizing.
-     * @param size     The size of the swarm, i.e, the number of particles.
-     */
-    public Swarm (Random rand, Problem prob, int objIndex, int size) {
-
-        // Initialize instance of random
-        r = rand;
-
-        // Initialize problem
-        p = prob;
-
-        // Initialize objective index
-        m = objIndex;
-
-        // Initialize size of swarm
-        s = size;
-
-        // Initialize particles array
-        particles = new Particle [s];
-
-        // DEFAULT: setting the best particle in the swarm to the first one that's created
-        // This will be altered when determining the neighbourhood best
-        iBest = 0;
-
-        // Initialize the particles of the swarm randomly within the search space
-        for (int i = 0; i < particles.length; i++) {
-
-            double [] pos = new double [p.n]; // Position for a new particle
-            double [] vel = new double [p.n]; // Velocity for a new particle
-
-            // Initialize position randomly within the search space
-            for (int j = 0; j < p.n; j++) {
-                pos[j] = (r.nextDouble() * (p.maxs[j] - p.mins[j])) + p.mins[j];
-                vel[j] = 0; // Initialize velocity to zero
-            }
-
-            // Create particle with the newly generated position and velocity
-            particles[i] = new Particle (pos, vel, p, m);
-
-            // Set the particle's best position so far to its first
-            particles[i].setBestPosition(pos);
-
-            // Calculate the newly generated particles fitness on its objective function
-            double [] f = p.objectives(pos);
-            particles[i].setFitnesses(f);
-            particles[i].setBestFitness(f[m]);
-
-            // Determining the neighbourhood best position
-            if (particles[i].getFitness() < getBestFitness())
-                iBest = i;
-
-        }
-
-        // Initialize archive balance coefficient -> U(0, 1)
-        lambda = Helper.exclusive0to1(r);
-
-    } // Constructor
-
-    /**
-     * @return Particle [], the swarm's particle's reference.
-     */
-    public Particle [] getParticles () {
-        return particles;
-    } // getParticles
-
-    /**
-     * @return Particle [], a copy of the swarm's particles.
-     */
-    public Particle [] getParticlesCopy () {
-        Particle [] result = new Particle [particles.length];
-        for (int i = 0; i < result.length; i++)
-            result[i] = new Particle (particles[i]);
-        return result;
-    } // getParticlesCopy
-
-    /**
-     * @return double [], the swarm's best position reference.
-     */
-    public double [] getBestPosition () {
-        return particles[iBest].getPosition();
-    } // getBestPosition
-
-    /**
-     * @return double [], a copy of the swarm's best position.
-     */
-    public double [] getBestPositionCopy () {
-        return particles[iBest].getBestPositionCopy();
-    } // getBestPositionCopy
-
-    /**
-     * @return double, the fitness of the best particle found so far within the swarm.
-     */
-    public double getBestFitness() {
-        return particles[iBest].getFitness();
-    } // getBestFitness
-
-    /**
-     * @return double, the archive balance coefficient.
-     */
-    public double getLambda () {
-        return lambda;
-    } // getLambda
-
-    /**
-     * @return int, the objective this swarm is optimizing.
-     */
-    public int getM() {
-        return m;
-    } // getM
-
-    /**
-     * @return int, the number of particles in the swarm.
-     */
-    public int size () {return particles.length; }; // size
-
-    /**
-     * Setting the new found best particle index in the swarm to the current one.
-     * @param iBest The new index of the best particle within the swarm.
-     */
-    public void setiBest(int iBest) {
-        this.iBest = iBest;
-    } // setiBest
-
-} // Swarm
+package MGPSO;
+
+import Benchmarks.Problem;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * This class represents a swarm of particles. Each swarm optimizes one objective of our multi-objective problem.
+ *
+ * @author Liam McDevitt
+ * Date: 2021-07-05
+ *
+ */
+public class Swarm {
+
+    private RandomStream r;           // The swarm's own stream, split from the run's stream
+    private RandomStream [] streams;  // The stream of each particle, split from the swarm's stream
+    private Problem     p;            // The multi-objective problem we're trying to solving
+    private int         m;            // Objective index - the specific objective this swarm is optimizing
+    private int         s;            // The number of particles in the swarm
+
+    private SwarmState  state;        // The positions, velocities and fitnesses of the particles in the swarm
+    private Particle [] particles;    // Views of the particles which make up the swarm
+    private int         iBest;        // The index of the best particle in the swarm
+    private double      lambda;       // The archive balance coefficient [Exploitation vs. Exploration]
+
+    /**
+     * Initializes a swarm of particles.
+     * @param rand     The swarm's instance of random, each particle gets its own stream split from it.
+     * @param prob     The problem we're trying to optimize.
+     * @param objIndex The specific objective of the problem this swarm is optimizing.
+     * @param size     The size of the swarm, i.e, the number of particles.
+     */
+    public Swarm (Random rand, Problem prob, int objIndex, int size) {
+
+        // Initialize the swarm's stream
+        r = RandomStream.of(rand);
+
+        // Initialize problem
+        p = prob;
+
+        // Initialize objective index
+        m = objIndex;
+
+        // Initialize size of swarm
+        s = size;
+
+        // Initialize the swarm's state and a view of each particle in it
+        state = new SwarmState(s, p.n, p.nObj);
+        particles = new Particle [s];
+        streams = new RandomStream [s];
+
+        // DEFAULT: setting the best particle in the swarm to the first one that's created
+        // This will be altered when determining the neighbourhood best
+        iBest = 0;
+
+        // Initialize the particles of the swarm randomly within the search space
+        double [] pos = new double [p.n]; // Position for a new particle
+        for (int i = 0; i < s; i++) {
+
+            // Initialize position randomly within the search space from the particle's stream, the velocity starts at zero
+            streams[i] = r.split();
+            for (int j = 0; j < p.n; j++)
+                pos[j] = (streams[i].nextDouble() * (p.maxs[j] - p.mins[j])) + p.mins[j];
+            System.arraycopy(pos, 0, state.positions, i * p.n, p.n);
+
+            // Create a view of the particle
+            particles[i] = new ParticleView(state, i, p, m);
+
+            // Set the particle's best position so far to its first
+            state.savePersonalBest(i);
+
+            // Calculate the newly generated particles fitness on its objective function
+            p.objectives(state.positions, i, i + 1, state.fitnesses);
+            double f = state.fitnesses[i * p.nObj + m];
+            state.bestFitnesses[i] = f;
+
+            // Determining the neighbourhood best position
+            if (f < getBestFitness())
+                iBest = i;
+
+        }
+
+        // Initialize archive balance coefficient -> U(0, 1)
+        lambda = Helper.exclusive0to1(r);
+
+    } // Constructor
+
+    /**
+     * Initializes a swarm from the state written by writeState, e.g. from a checkpoint (see Checkpoint). Nothing is
+     * drawn or evaluated, the swarm continues exactly where it was written.
+     * @param prob     The problem we're trying to optimize, the same one as when the state was written.
+     * @param objIndex The specific objective of the problem this swarm is optimizing.
+     * @param in       The input the state is read from.
+     * @throws IOException If reading fails.
+     */
+    Swarm (Problem prob, int objIndex, DataInput in) throws IOException {
+
+        p = prob;
+        m = objIndex;
+
+        // The swarm's stream and the stream of each particle
+        r = RandomStream.read(in);
+        s = in.readInt();
+        streams = new RandomStream [s];
+        for (int i = 0; i < s; i++)
+            streams[i] = RandomStream.read(in);
+
+        // The state of the particles, and a view of each particle in it
+        state = new SwarmState(s, p.n, p.nObj);
+        read(in, state.positions);
+        read(in, state.velocities);
+        read(in, state.bestPositions);
+        read(in, state.fitnesses);
+        read(in, state.bestFitnesses);
+        particles = new Particle [s];
+        for (int i = 0; i < s; i++)
+            particles[i] = new ParticleView(state, i, p, m);
+
+        iBest = in.readInt();
+        lambda = in.readDouble();
+
+    } // Constructor
+
+    /**
+     * Writes the complete state of the swarm: its streams, the state of its particles, its best particle and its
+     * archive balance coefficient. The swarm is read back with Swarm(Problem, int, DataInput).
+     * @param out The output the state is written to.
+     * @throws IOException If writing fails.
+     */
+    void writeState (DataOutput out) throws IOException {
+
+        r.write(out);
+        out.writeInt(s);
+        for (int i = 0; i < s; i++)
+            streams[i].write(out);
+
+        write(out, state.positions);
+        write(out, state.velocities);
+        write(out, state.bestPositions);
+        write(out, state.fitnesses);
+        write(out, state.bestFitnesses);
+
+        out.writeInt(iBest);
+        out.writeDouble(lambda);
+
+    } // writeState
+
+    /**
+     * Writes an array of values as one block of bytes, in the same big-endian order as writeDouble. One block is much
+     * cheaper than a call per value for the arrays of a large swarm.
+     * @param out    The output the values are written to.
+     * @param values The values.
+     * @throws IOException If writing fails.
+     */
+    private static void write (DataOutput out, double [] values) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(values.length * Double.BYTES);
+        block.asDoubleBuffer().put(values);
+        out.write(block.array());
+    } // write
+
+    /**
+     * Reads an array of values written with write.
+     * @param in     The input the values are read from.
+     * @param values Receives as many values as it holds.
+     * @throws IOException If reading fails.
+     */
+    private static void read (DataInput in, double [] values) throws IOException {
+        byte [] block = new byte [values.length * Double.BYTES];
+        in.readFully(block);
+        ByteBuffer.wrap(block).asDoubleBuffer().get(values);
+    } // read
+
+    /**
+     * @return SwarmState, the swarm's state reference.
+     */
+    public SwarmState getState () {
+        return state;
+    } // getState
+
+    /**
+     * @param i The index of a particle in the swarm.
+     * @return  RandomStream, the particle's own stream.
+     */
+    public RandomStream getStream (int i) {
+        return streams[i];
+    } // getStream
+
+    /**
+     * @return Particle [], views of the swarm's particles.
+     */
+    public Particle [] getParticles () {
+        return particles;
+    } // getParticles
+
+    /**
+     * @return Particle [], a copy of the swarm's particles.
+     */
+    public Particle [] getParticlesCopy () {
+        Particle [] result = new Particle [particles.length];
+        for (int i = 0; i < result.length; i++)
+            result[i] = new Particle (particles[i]);
+        return result;
+    } // getParticlesCopy
+
+    /**
+     * @return double [], a copy of the current position of the swarm's best particle.
+     */
+    public double [] getBestPosition () {
+        return particles[iBest].getPositionCopy();
+    } // getBestPosition
+
+    /**
+     * @return double [], a copy of the swarm's best position.
+     */
+    public double [] getBestPositionCopy () {
+        return particles[iBest].getBestPositionCopy();
+    } // getBestPositionCopy
+
+    /**
+     * @return double, the fitness of the best particle found so far within the swarm.
+     */
+    public double getBestFitness() {
+        return state.fitnesses[iBest * p.nObj + m];
+    } // getBestFitness
+
+    /**
+     * @return double, the archive balance coefficient.
+     */
+    public double getLambda () {
+        return lambda;
+    } // getLambda
+
+    /**
+     * @return int, the objective this swarm is optimizing.
+     */
+    public int getM() {
+        return m;
+    } // getM
+
+    /**
+     * @return int, the number of particles in the swarm.
+     */
+    public int size () {return particles.length; }; // size
+
+    /**
+     * @return int, the index of the best particle in the swarm.
+     */
+    public int getiBest() {
+        return iBest;
+    } // getiBest
+
+    /**
+     * Setting the new found best particle index in the swarm to the current one.
+     * @param iBest The new index of the best particle within the swarm.
+     */
+    public void setiBest(int iBest) {
+        this.iBest = iBest;
+    } // setiBest
+
+} // Swarm
@@ -0,0 +1,67 @@
+package MGPSO;
+
+import java.util.Arrays;
+
+/**
+ * This class holds the state of every particle of a swarm in contiguous blocks of memory.
+ *
+ * Particle i owns the slice [i * n, (i + 1) * n) of positions, velocities and bestPositions, and the slice
+ * [i * nObj, (i + 1) * nObj) of fitnesses. Loops over the particles and dimensions of a swarm then read and write
+ * memory sequentially instead of jumping between separate arrays on the heap.
+ *
+ * The arrays are public so the MGPSO update loops can index them directly, like the fields of Problem.
+ */
+public class SwarmState {
+
+    public final int       s;               // The number of particles in the swarm
+    public final int       n;               // Number of problem dimensions
+    public final int       nObj;            // The number of objectives for the problem
+
+    public final double [] positions;       // Current position of each particle, n values per particle
+    public final double [] velocities;      // Current velocity of each particle, n values per particle
+    public final double [] bestPositions;   // Personal best position of each particle, n values per particle
+    public final double [] fitnesses;       // Current fitness of each particle on each objective, nObj values per particle
+    public final double [] bestFitnesses;   // Personal best fitness of each particle
+
+    /**
+     * Initializes the state of a swarm. The fitnesses start at the worst possible case.
+     * @param size       The number of particles in the swarm.
+     * @param dimensions The number of problem dimensions.
+     * @param objectives The number of objectives.
+     */
+    public SwarmState (int size, int dimensions, int objectives) {
+
+        s = size;
+        n = dimensions;
+        nObj = objectives;
+
+        positions = new double [s * n];
+        velocities = new double [s * n];
+        bestPositions = new double [s * n];
+
+        fitnesses = new double [s * nObj];
+        Arrays.fill(fitnesses, Double.MAX_VALUE);
+
+        bestFitnesses = new double [s];
+        Arrays.fill(bestFitnesses, Double.MAX_VALUE);
+
+    } // Constructor
+
+    /**
+     * Copies the position of a particle into a buffer.
+     * @param i   The index of the particle.
+     * @param out The buffer, of length n at least.
+     */
+    public void copyPosition (int i, double [] out) {
+        System.arraycopy(positions, i * n, out, 0, n);
+    } // copyPosition
+
+    /**
+     * Copies a particle's current position into its personal best position.
+     * @param i The index of the particle.
+     */
+    public void savePersonalBest (int i) {
+        System.arraycopy(positions, i * n, bestPositions, i * n, n);
+    } // savePersonalBest
+
+} // SwarmState
@@ -0,0 +1,456 @@
+package MGPSO;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * This class is a criterion for stopping a run of MGPSO, see MGPSO.run.
+ *
+ * A run checks its criteria before every iteration and stops as soon as one of them is met, returning it so the caller
+ * knows why the run stopped. The criteria are:
+ *
+ * (1) iterations, a maximum number of iterations, what Main always used.
+ *
+ * (2) evaluations, a maximum number of particle evaluations (as counted by MGPSO.getEvaluations). The run stops before
+ *     an iteration which could go over the budget, so the budget is never exceeded.
+ *
+ * (3) time, a wall-clock limit from the start of the run. An iteration is never cut short, so the run can go over the
+ *     limit by up to one iteration.
+ *
+ * (4) hypervolume, stagnation of the archive's hypervolume: it improved by no more than a share of itself over a window
+ *     of iterations.
+ *
+ * (5) insertions, stagnation of the archive's contents: on average fewer than a number of new particles stayed in the
+ *     archive per iteration over a window of iterations.
+ *
+ * A criterion can keep state about the run it watches (e.g. a window of hypervolumes), so every run needs its own
+ * instances. The state is part of a run's checkpoints (see writeState), so a run resumed with the same criteria stops
+ * at the same iteration as the run which saved the checkpoint. Only a time limit can't be repeated, it goes on from the
+ * time the run had taken when it was saved.
+ */
+public abstract class Termination {
+
+    /**
+     * Starts watching a run, before its first iteration. Criteria with state reset it here.
+     * @param mgpso The run.
+     */
+    public void start (MGPSO mgpso) {
+    } // start
+
+    /**
+     * Writes the state the criterion keeps about its run, when the run saves a checkpoint (see MGPSO.writeState).
+     * Criteria without state write nothing.
+     * @param out The output the state is written to.
+     * @throws IOException If writing fails.
+     */
+    protected void writeState (DataOutput out) throws IOException {
+    } // writeState
+
+    /**
+     * Reads the state written by writeState, instead of start when the run is resumed from a checkpoint. Criteria
+     * without state start over.
+     * @param mgpso The resumed run.
+     * @param in    The input the state is read from.
+     * @throws IOException If reading fails.
+     */
+    protected void readState (MGPSO mgpso, DataInput in) throws IOException {
+        start(mgpso);
+    } // readState
+
+    /**
+     * Checks the criterion, once before every iteration of the run.
+     * @param mgpso The run.
+     * @return      boolean, whether the run must stop before its next iteration.
+     */
+    public abstract boolean isMet (MGPSO mgpso);
+
+    /**
+     * @return String, a short name of the criterion, e.g. for a column of results.
+     */
+    public abstract String getName ();
+
+    /**
+     * @param iterations The maximum number of iterations.
+     * @return           Termination, met once the run did that many iterations.
+     */
+    public static Termination iterations (int iterations) {
+        return new Iterations(iterations);
+    } // iterations
+
+    /**
+     * @param evaluations The maximum number of particle evaluations.
+     * @return            Termination, met once the next iteration could go over the budget.
+     */
+    public static Termination evaluations (long evaluations) {
+        return new Evaluations(evaluations);
+    } // evaluations
+
+    /**
+     * @param millis The wall-clock limit in milliseconds.
+     * @return       Termination, met once that much time passed since the start of the run.
+     */
+    public static Termination time (long millis) {
+        return new Time(millis);
+    } // time
+
+    /**
+     * @param reference The reference point of the hypervolume, one value per objective, worse than every particle worth
+     *                  counting (see Helper.hypervolume).
+     * @param window    The number of iterations the hypervolume is compared over.
+     * @param tolerance The share of the hypervolume it must improve by over the window, e.g. 1e-4.
+     * @return          Termination, met once the hypervolume improved by no more than tolerance times itself over the
+     *                  last window iterations.
+     */
+    public static Termination hypervolume (double [] reference, int window, double tolerance) {
+        return new Hypervolume(reference, window, tolerance);
+    } // hypervolume
+
+    /**
+     * @param window The number of iterations the insertions are counted over.
+     * @param rate   The average number of new particles per iteration the archive must take in over the window.
+     * @return       Termination, met once fewer new particles than rate per iteration stayed in the archive over the
+     *               last window iterations.
+     */
+    public static Termination insertions (int window, double rate) {
+        return new Insertions(window, rate);
+    } // insertions
+
+    /**
+     * Checks a criterion is resumed with the window it was saved with, see readState.
+     * @param saved  The length of the window's ring in the checkpoint.
+     * @param length The length of the criterion's ring.
+     * @param name   The name of the criterion.
+     */
+    private static void checkWindow (int saved, int length, String name) {
+        if (saved != length)
+            throw new IllegalArgumentException("The checkpoint's " + name + " criterion has a ring of " + saved +
+                                               " iterations, not " + length + ".");
+    } // checkWindow
+
+    /**
+     * Stops after a number of iterations.
+     */
+    private static class Iterations extends Termination {
+
+        private final int iterations;    // The maximum number of iterations
+
+        Iterations (int iterations) {
+            this.iterations = iterations;
+        } // Constructor
+
+        @Override
+        public boolean isMet (MGPSO mgpso) {
+            return mgpso.getT() >= iterations;
+        } // isMet
+
+        @Override
+        public String getName () {
+            return "iterations";
+        } // getName
+
+        @Override
+        public String toString () {
+            return "reached " + iterations + " iterations";
+        } // toString
+
+    } // Iterations
+
+    /**
+     * Stops before an iteration which could go over a number of evaluations.
+     */
+    private static class Evaluations extends Termination {
+
+        private final long evaluations;  // The maximum number of particle evaluations
+
+        Evaluations (long evaluations) {
+            this.evaluations = evaluations;
+        } // Constructor
+
+        @Override
+        public boolean isMet (MGPSO mgpso) {
+            return mgpso.getEvaluations() + mgpso.particles() > evaluations;
+        } // isMet
+
+        @Override
+        public String getName () {
+            return "evaluations";
+        } // getName
+
+        @Override
+        public String toString () {
+            return "reached the budget of " + evaluations + " evaluations";
+        } // toString
+
+    } // Evaluations
+
+    /**
+     * Stops once an amount of wall-clock time passed.
+     */
+    private static class Time extends Termination {
+
+        private final long millis;       // The wall-clock limit in milliseconds
+        private long       start;        // When the run started, from System.nanoTime
+
+        Time (long millis) {
+            this.millis = millis;
+        } // Constructor
+
+        @Override
+        public void start (MGPSO mgpso) {
+            start = System.nanoTime();
+        } // start
+
+        @Override
+        protected void writeState (DataOutput out) throws IOException {
+            out.writeLong(System.nanoTime() - start);
+        } // writeState
+
+        @Override
+        protected void readState (MGPSO mgpso, DataInput in) throws IOException {
+            start = System.nanoTime() - in.readLong();
+        } // readState
+
+        @Override
+        public boolean isMet (MGPSO mgpso) {
+            return (System.nanoTime() - start) / 1000000 >= millis;
+        } // isMet
+
+        @Override
+        public String getName () {
+            return "time";
+        } // getName
+
+        @Override
+        public String toString () {
+            return "reached the time limit of " + millis + " ms";
+        } // toString
+
+    } // Time
+
+    /**
+     * Stops once the archive's hypervolume stops improving.
+     */
+    private static class Hypervolume extends Termination {
+
+        private final double [] reference;   // The reference point of the hypervolume
+        private final double    tolerance;   // The share of the hypervolume it must improve by over the window
+        private final double [] history;     // The hypervolume of the last window + 1 iterations, as a ring
+        private int             count;       // The number of hypervolumes in the history
+
+        Hypervolume (double [] reference, int window, double tolerance) {
+
+            if (window < 1)
+                throw new IllegalArgumentException("The window must be at least 1 iteration, got " + window + ".");
+
+            this.reference = reference.clone();
+            this.tolerance = tolerance;
+            history = new double [window + 1];
+
+        } // Constructor
+
+        @Override
+        public void start (MGPSO mgpso) {
+            count = 0;
+        } // start
+
+        @Override
+        protected void writeState (DataOutput out) throws IOException {
+            out.writeInt(history.length);
+            out.writeInt(count);
+            for (double hypervolume : history)
+                out.writeLong(Double.doubleToRawLongBits(hypervolume));
+        } // writeState
+
+        @Override
+        protected void readState (MGPSO mgpso, DataInput in) throws IOException {
+
+            checkWindow(in.readInt(), history.length, getName());
+            count = in.readInt();
+            for (int i = 0; i < history.length; i++)
+                history[i] = Double.longBitsToDouble(in.readLong());
+
+        } // readState
+
+        @Override
+        public boolean isMet (MGPSO mgpso) {
+
+            double hypervolume = Helper.hypervolume(mgpso.Archive, reference);
+            history[count % history.length] = hypervolume;
+            count++;
+
+            // The oldest hypervolume of the ring is the one from window iterations ago
+            if (count < history.length)
+                return false;
+            double before = history[count % history.length];
+
+            return hypervolume > 0 && hypervolume - before <= tolerance * hypervolume;
+
+        } // isMet
+
+        @Override
+        public String getName () {
+            return "hypervolume";
+        } // getName
+
+        @Override
+        public String toString () {
+            return "the hypervolume improved by less than " + tolerance + " of itself over " + (history.length - 1) +
+                   " iterations";
+        } // toString
+
+    } // Hypervolume
+
+    /**
+     * Stops once few new particles stay in the archive.
+     */
+    private static class Insertions extends Termination {
+
+        private final double            rate;        // The average new particles per iteration the archive must take in
+        private final int []            history;     // The new particles of the last window iterations, as a ring
+        private int                     count;       // The number of iterations in the history
+        private int                     sum;         // The new particles in the history
+        private HashSet<FitnessKey>     members;     // The fitnesses of the particles in the archive as last checked
+        private int                     t;           // The iteration the run was at when last checked
+
+        Insertions (int window, double rate) {
+
+            if (window < 1)
+                throw new IllegalArgumentException("The window must be at least 1 iteration, got " + window + ".");
+
+            this.rate = rate;
+            history = new int [window];
+
+        } // Constructor
+
+        @Override
+        public void start (MGPSO mgpso) {
+            count = 0;
+            sum = 0;
+            members = contents(mgpso.Archive);
+            t = mgpso.getT();
+        } // start
+
+        @Override
+        protected void writeState (DataOutput out) throws IOException {
+
+            out.writeInt(history.length);
+            out.writeInt(count);
+            out.writeInt(sum);
+            out.writeInt(t);
+            for (int inserted : history)
+                out.writeInt(inserted);
+
+            out.writeInt(members.size());
+            for (FitnessKey member : members)
+                for (double f : member.f)
+                    out.writeLong(Double.doubleToRawLongBits(f));
+
+        } // writeState
+
+        @Override
+        protected void readState (MGPSO mgpso, DataInput in) throws IOException {
+
+            checkWindow(in.readInt(), history.length, getName());
+            count = in.readInt();
+            sum = in.readInt();
+            t = in.readInt();
+            for (int i = 0; i < history.length; i++)
+                history[i] = in.readInt();
+
+            int nObj = mgpso.getP().nObj;
+            int size = in.readInt();
+            members = new HashSet<>();
+            for (int i = 0; i < size; i++) {
+                double [] f = new double [nObj];
+                for (int m = 0; m < nObj; m++)
+                    f[m] = Double.longBitsToDouble(in.readLong());
+                members.add(new FitnessKey(f));
+            }
+
+        } // readState
+
+        @Override
+        public boolean isMet (MGPSO mgpso) {
+
+            // Nothing changed without an iteration since the last check
+            if (mgpso.getT() == t)
+                return false;
+            t = mgpso.getT();
+
+            // The particles of the archive which weren't in it at the last check
+            HashSet<FitnessKey> current = contents(mgpso.Archive);
+            int inserted = 0;
+            for (FitnessKey member : current)
+                if (!members.contains(member))
+                    inserted++;
+            members = current;
+
+            sum += inserted - history[count % history.length];
+            history[count % history.length] = inserted;
+            count++;
+
+            return count >= history.length && sum < rate * history.length;
+
+        } // isMet
+
+        @Override
+        public String getName () {
+            return "insertions";
+        } // getName
+
+        @Override
+        public String toString () {
+            return "fewer than " + rate + " new archive particles per iteration over " + history.length + " iterations";
+        } // toString
+
+        /**
+         * @param archive The archive.
+         * @return        HashSet<FitnessKey>, the fitnesses of the particles in the archive.
+         */
+        private static HashSet<FitnessKey> contents (Archive archive) {
+
+            int nObj = archive.p.nObj;
+            HashSet<FitnessKey> result = new HashSet<>();
+            for (int i = 0; i < archive.size(); i++) {
+                double [] f = new double [nObj];
+                for (int m = 0; m < nObj; m++)
+                    f[m] = archive.getFitness(i, m);
+                result.add(new FitnessKey(f));
+            }
+
+            return result;
+
+        } // contents
+
+    } // Insertions
+
+    /**
+     * The fitnesses of a particle, equal to the fitnesses of another particle with exactly the same values. The archive
+     * never holds two particles with the same fitnesses, so they identify a particle in it.
+     */
+    private static class FitnessKey {
+
+        private final double [] f;       // The fitnesses
+        private final int       hash;    // The hash of the fitnesses
+
+        FitnessKey (double [] f) {
+            this.f = f;
+            hash = Arrays.hashCode(f);
+        } // Constructor
+
+        @Override
+        public boolean equals (Object other) {
+            return other instanceof FitnessKey && Arrays.equals(f, ((FitnessKey) other).f);
+        } // equals
+
+        @Override
+        public int hashCode () {
+            return hash;
+        } // hashCode
+
+    } // FitnessKey
+
+} // Termination
@@ -0,0 +1,167 @@
+package MGPSO;
+
+import Benchmarks.DTLZ2;
+import Benchmarks.DTLZ7;
+import Benchmarks.Problem;
+import Benchmarks.WFG4;
+import Benchmarks.ZDT1;
+import Benchmarks.ZDT2;
+import Benchmarks.ZDT3;
+import Benchmarks.ZDT4;
+import Benchmarks.ZDT6;
+import java.util.Arrays;
+
+/**
+ * This class checks the vectorizable code paths against the scalar code they replace, on random problems and inputs.
+ *
+ * (1) Movement: a run moving its particles through the vectorizable kernel (see MGPSO.setVectorized) is stepped next to
+ *     a run with the same seed moving them through the scalar loop. The complete state of both runs (see Checkpoint)
+ *     must be exactly the same after every iteration.
+ *
+ * (2) Sums: random decision vectors are evaluated by problems summing with independent accumulators (see
+ *     Problem.unrolledSum) and by the same problems summing with one running sum. The additions happen in a different
+ *     order, so the fitnesses must only agree to a relative TOLERANCE.
+ *
+ * Usage: java MGPSO.VectorizationCheck [seed, default 1] [trials, default 200], exits with status 1 when the check
+ * fails.
+ */
+public class VectorizationCheck {
+
+    private static final int    ITERATIONS = 50;       // The most iterations a run of the movement check is stepped
+    private static final int    VECTORS = 100;         // The decision vectors evaluated per trial of the sum check
+    private static final double TOLERANCE = 1e-12;     // The largest relative difference allowed between the sums
+
+    /**
+     * Runs the check.
+     * @param args The seed of the trials and the number of trials (both optional).
+     */
+    public static void main (String[] args) {
+
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 1;
+        int trials = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        RandomStream r = new RandomStream(seed);
+
+        int movement = 0;
+        for (int trial = 0; trial < trials; trial++)
+            if (!checkMovement(r))
+                movement++;
+        System.out.println("Movement: " + movement + " of " + trials + " runs differ from the scalar loop");
+
+        int sums = 0;
+        double worst = 0;
+        for (int trial = 0; trial < trials; trial++) {
+            double difference = checkSums(r);
+            worst = Math.max(worst, difference);
+            if (!(difference <= TOLERANCE))
+                sums++;
+        }
+        System.out.println("Sums: " + sums + " of " + trials + " problems differ from the running sum by more than " +
+                           TOLERANCE + ", the largest relative difference was " + worst);
+
+        boolean passed = movement == 0 && sums == 0;
+        System.out.println(passed ? "\nPASSED" : "\nFAILED");
+        if (!passed)
+            System.exit(1);
+
+    } // main
+
+    /**
+     * Steps a run with the vectorizable kernel next to a run with the scalar loop, from the same random seed, on a
+     * random problem for a random number of iterations.
+     * @param r The stream the problem, seed and number of iterations are drawn from.
+     * @return  boolean, whether both runs had exactly the same state after every iteration.
+     */
+    private static boolean checkMovement (RandomStream r) {
+
+        int problem = r.nextInt(8);
+        int n = 2 + r.nextInt(63);
+        long seed = r.nextLong();
+        int iterations = 1 + r.nextInt(ITERATIONS);
+
+        Problem p = problem(problem, n);
+        Problem q = problem(problem, n);
+        RandomStream s = new RandomStream(seed);
+        RandomStream v = new RandomStream(seed);
+        MGPSO scalar = new MGPSO(s, p, Main.archive(s, p));
+        MGPSO vectorized = new MGPSO(v, q, Main.archive(v, q));
+        vectorized.setVectorized(true);
+
+        for (int t = 0; t < iterations; t++) {
+            scalar.iterate();
+            vectorized.iterate();
+            if (!Arrays.equals(Checkpoint.state(scalar), Checkpoint.state(vectorized))) {
+                System.out.println("Movement differs: " + scalar.getP().getClass().getSimpleName() + ", n=" +
+                                   scalar.getP().n + ", seed " + seed + ", iteration " + (t + 1));
+                return false;
+            }
+        }
+
+        return true;
+
+    } // checkMovement
+
+    /**
+     * Evaluates random decision vectors on a random problem summing with independent accumulators and with one running
+     * sum.
+     * @param r The stream the problem and the vectors are drawn from.
+     * @return  double, the largest relative difference between the fitnesses of the two.
+     */
+    private static double checkSums (RandomStream r) {
+
+        // Only the ZDT problems and DTLZ7 have vectorized sums, n reaches past the unrolled part of the loops
+        int problem = r.nextInt(6);
+        int n = 2 + r.nextInt(3000);
+        Problem scalar = problem == 5 ? new DTLZ7(n, 3) : problem(problem, n);
+        Problem vectorized = problem == 5 ? new DTLZ7(n, 3) : problem(problem, n);
+        vectorized.setVectorized(true);
+
+        double [] x = new double [n];
+        double [] expected = new double [scalar.nObj];
+        double [] actual = new double [scalar.nObj];
+        double worst = 0;
+        for (int i = 0; i < VECTORS; i++) {
+
+            // Some variables right on the bounds, the rest anywhere between them
+            for (int d = 0; d < n; d++) {
+                double u = r.nextInt(10) == 0 ? r.nextInt(2) : r.nextDouble();
+                x[d] = scalar.mins[d] + u * (scalar.maxs[d] - scalar.mins[d]);
+            }
+
+            scalar.objectives(x, expected);
+            vectorized.objectives(x, actual);
+            for (int m = 0; m < scalar.nObj; m++) {
+                double difference = Math.abs(actual[m] - expected[m]) / Math.max(1, Math.abs(expected[m]));
+                if (!(difference <= worst))
+                    worst = difference;
+            }
+
+        }
+
+        if (worst > TOLERANCE)
+            System.out.println("Sums differ: " + scalar.getClass().getSimpleName() + ", n=" + n + ", by " + worst);
+
+        return worst;
+
+    } // checkSums
+
+    /**
+     * @param problem The index of a problem: ZDT1, ZDT2, ZDT3, ZDT4, ZDT6, DTLZ7, DTLZ2 or WFG4.
+     * @param n       The number of dimensions of a ZDT problem, the others have their default dimensions.
+     * @return        Problem, a new instance of the problem.
+     */
+    private static Problem problem (int problem, int n) {
+
+        return switch (problem) {
+            case 0 -> new ZDT1(n);
+            case 1 -> new ZDT2(n);
+            case 2 -> new ZDT3(n);
+            case 3 -> new ZDT4(n);
+            case 4 -> new ZDT6(n);
+            case 5 -> new DTLZ7();
+            case 6 -> new DTLZ2();
+            default -> new WFG4();
+        };
+
+    } // problem
+
+} // VectorizationCheck